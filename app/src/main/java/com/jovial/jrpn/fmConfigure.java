@@ -21,10 +21,12 @@ public class fmConfigure extends AppCompatActivity {
 
     EditText prog_mem;
     CheckBox sync;
+    CheckBox extended;
     EditText sleep;
     EditText num_reg;
     Spinner orientation;
     Spinner floatFormat;
+    Spinner speedProfile;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -48,6 +50,11 @@ public class fmConfigure extends AppCompatActivity {
             R.array.float_format, android.R.layout.simple_spinner_item);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         floatFormat.setAdapter(adapter2);
+        speedProfile = (Spinner) findViewById(R.id.speed_profile);
+        ArrayAdapter<CharSequence> adapter3 = ArrayAdapter.createFromResource(this,
+            R.array.speed_profile, android.R.layout.simple_spinner_item);
+        adapter3.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        speedProfile.setAdapter(adapter3);
 
         // populate widgets with existing values
         prog_mem = (EditText) findViewById(R.id.prog_mem);
@@ -56,6 +63,9 @@ public class fmConfigure extends AppCompatActivity {
         sync = (CheckBox) findViewById(R.id.sync_conv);
         sync.setChecked(Boolean.valueOf(fmMain.prop.getProperty("SyncConversions")));
 
+        extended = (CheckBox) findViewById(R.id.extended_size);
+        extended.setChecked(Boolean.valueOf(fmMain.prop.getProperty("ExtendedWordSize")));
+
         sleep = (EditText) findViewById(R.id.sleep_delay);
         sleep.setText(fmMain.prop.getProperty("SleepDelay"));
 
@@ -87,6 +97,9 @@ public class fmConfigure extends AppCompatActivity {
                 floatFormat.setSelection(2);
                 break;
         }
+
+        // the profiles are in the same order as the spinner
+        speedProfile.setSelection(new CalcConfig(fmMain.prop).getSpeedProfile().ordinal());
     }
 
     // write the configuration file back
@@ -95,10 +108,12 @@ public class fmConfigure extends AppCompatActivity {
         // Warning!  There is no sanity checking going on here!
         fmMain.prop.setProperty("PrgmMemoryLines", prog_mem.getText().toString());
         fmMain.prop.setProperty("SyncConversions", Boolean.toString(sync.isChecked()));
+        fmMain.prop.setProperty("ExtendedWordSize", Boolean.toString(extended.isChecked()));
         fmMain.prop.setProperty("SleepDelay", sleep.getText().toString());
         fmMain.prop.setProperty("NumRegisters", num_reg.getText().toString());
         fmMain.prop.setProperty("Orientation", orientation.getSelectedItem().toString());
         fmMain.prop.setProperty("FloatFormat", floatFormat.getSelectedItem().toString());
+        fmMain.prop.setProperty("SpeedProfile", speedProfile.getSelectedItem().toString());
 
         File config = new File(getFilesDir(), "jrpn.config");
         try {
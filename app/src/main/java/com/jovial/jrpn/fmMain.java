@@ -69,7 +69,8 @@ public class fmMain extends AppCompatActivity {
     static Properties prop;
     private static String CONFIG_FILE_VERSION = "1.1.3";
     private CalcState cs;
-    private Calculator c;
+    private CalcEngine c;
+    private ProgramExecutor executor;
     private TextView lbFKey, lbGKey, lbCarry, lbOverflow, lbPrgm;
     private DynamicEditText tbDisplay;
     private CalcFace pnCalcFace;
@@ -120,9 +121,11 @@ public class fmMain extends AppCompatActivity {
         prop.setProperty("PrgmMemoryLines", "302");
         prop.setProperty("SleepDelay", "1500");
         prop.setProperty("SyncConversions", "true");
+        prop.setProperty("ExtendedWordSize", "false");
         prop.setProperty("Version", CONFIG_FILE_VERSION);
         prop.setProperty("Orientation", "Auto");
         prop.setProperty("FloatFormat", "Default");
+        prop.setProperty("SpeedProfile", "Faithful");
 
         File config = new File(getFilesDir(), "jrpn.config");
         try {
@@ -191,8 +194,10 @@ public class fmMain extends AppCompatActivity {
         pnCalcFace.setFocusable(true);
         pnCalcFace.setMain(this);
 
-        cs = new CalcState();
+        cs = new CalcState(new CalcConfig(prop));
         c = new Calculator(cs);
+        executor = new ProgramExecutor(c);
+        executor.setListener(PrgmDisplay);
         LoadState();
         c.setFloatFormatLocale();
 
@@ -1162,7 +1167,8 @@ public class fmMain extends AppCompatActivity {
             t.start();
         } else if (pkt.getStart() == DisplayPacket.StartType.RunLine) {
             // just run one line at a time
-            RunLine();
+            executor.setSpeed(cs.getConfig().getSpeedProfile());
+            executor.RunLine();
         }
         if (bn == bnON) {
             finish();
@@ -1266,146 +1272,44 @@ public class fmMain extends AppCompatActivity {
 
         //@Override
         public void run() {
-            while (cs.getPrgmPosition() < cs.getPrgmMemory().size()) {
-                // execute the instructions
-                if (RunLine()) {
-                    // Some error occurred
-                    break;
-                }
-
-                // prepare to process the next line
-                cs.setPrgmPosition(cs.getPrgmPosition() + 1);
-
-                // stop if somebody pressed a key
-                if (cs.isPrgmRunning() == false) {
-                    break;
-                }
-            }
+            // pick up the speed here, on the thread that runs the program,
+            // rather than on every key press
+            executor.setSpeed(cs.getConfig().getSpeedProfile());
+            executor.Run();
             // v6.0.7 - 22 Jul 2015
             ProcessPacket(c.ProcessKey(-1));
         }
     };
 
-    // Execute instructions at the current program line
-    private boolean RunLine() {
-        String line;
-        int k1, k2, k3;
-        final DisplayPacket p;
-
-        // A quick sanity check
-        // v6.0.2 - 26 Apr 12
-        if (cs.getPrgmPosition() < 0 || cs.getPrgmPosition() >= cs.getPrgmMemory().size()) {
-            // if you "step off the edge", then just stop
-            return true;
-        }
-        line = cs.getPrgmMemory().get(cs.getPrgmPosition());
-
-        // Go to the current line and process the keys found there.
-        // The line will be in 1 of 3 formats
-        if (line.startsWith("      ")) {
-            try {
-                k1 = Integer.parseInt(line.substring(6, 8).trim(), 16);
-            } catch (final Exception e) {
-                // I'm anticipating that folks might edit the XML by hand
-                // to make minor tweaks to a program. So, we have to be
-                // ready for a corrupted file
-                final AlertDialog.Builder builder = new AlertDialog.Builder(
-                        this);
-                builder.setTitle(getString(R.string.error_prgm_title));
-                builder.setMessage(getString(R.string.error_prgm_msg)
-                        + cs.getPrgmPosition() + "\n" + e.getMessage());
-                builder.setIcon(android.R.drawable.ic_dialog_alert);
-                builder.setPositiveButton(getString(R.string.button_ok),
-                        new DialogInterface.OnClickListener() {
-
-                            //@Override
-                            public void onClick(DialogInterface dialog,
-                                                int which) {
-                                return;
-                            }
-                        });
-                builder.show();
-                return true;
-            }
-            p = c.ProcessKey(k1);
-        } else if (line.startsWith("   ")) {
-            try {
-                k1 = Integer.parseInt(line.substring(3, 5).trim(), 16);
-                k2 = Integer.parseInt(line.substring(6, 8).trim(), 16);
-            } catch (final Exception e) {
-                final AlertDialog.Builder builder = new AlertDialog.Builder(
-                        this);
-                builder.setTitle(getString(R.string.error_prgm_title));
-                builder.setMessage(getString(R.string.error_prgm_msg)
-                        + cs.getPrgmPosition() + "\n" + e.getMessage());
-                builder.setIcon(android.R.drawable.ic_dialog_alert);
-                builder.setPositiveButton(getString(R.string.button_ok),
-                        new DialogInterface.OnClickListener() {
-
-                            //@Override
-                            public void onClick(DialogInterface dialog,
-                                                int which) {
-                                return;
-                            }
-                        });
-                builder.show();
-                return true;
-            }
-            c.ProcessKey(k1);
-            p = c.ProcessKey(k2);
-        } else {
-            try {
-                k1 = Integer.parseInt(line.substring(0, 2).trim(), 16);
-                k2 = Integer.parseInt(line.substring(3, 5).trim(), 16);
-                k3 = Integer.parseInt(line.substring(6, 8).trim(), 16);
-            } catch (final Exception e) {
-                final AlertDialog.Builder builder = new AlertDialog.Builder(
-                        this);
-                builder.setTitle(getString(R.string.error_prgm_title));
-                builder.setMessage(getString(R.string.error_prgm_msg)
-                        + cs.getPrgmPosition() + "\n" + e.getMessage());
-                builder.setIcon(android.R.drawable.ic_dialog_alert);
-                builder.setPositiveButton(getString(R.string.button_ok),
-                        new DialogInterface.OnClickListener() {
+    // Where a running program sends the display (on its own thread)
+    private ProgramExecutor.Listener PrgmDisplay = new ProgramExecutor.Listener() {
 
-                            //@Override
-                            public void onClick(DialogInterface dialog,
-                                                int which) {
-                                return;
-                            }
-                        });
-                builder.show();
-                return true;
-            }
-            c.ProcessKey(k1);
-            c.ProcessKey(k2);
-            p = c.ProcessKey(k3);
+        public void Show(String text) {
+            SetDisplayText(text);
         }
 
-        // We only update the display if there is a pause. No Annunciator
-        // flags are updated while a program is running.
-        if (p.getDelay() > 0) {
-            if (p.getAlternateText() == null
-                    || p.getAlternateText().length() == 0) {
-                SetDisplayText(p.getDisplayText());
-
-                try {
-                    Thread.sleep(p.getDelay());
-                } catch (InterruptedException e) {
-                }
-            } else {
-                SetDisplayText(p.getAlternateText());
-
-                try {
-                    Thread.sleep(p.getDelay());
-                } catch (InterruptedException e) {
-                }
+        public void BadLine(int line, String message) {
+            // I'm anticipating that folks might edit the XML by hand
+            // to make minor tweaks to a program. So, we have to be
+            // ready for a corrupted file
+            final AlertDialog.Builder builder = new AlertDialog.Builder(
+                    fmMain.this);
+            builder.setTitle(getString(R.string.error_prgm_title));
+            builder.setMessage(getString(R.string.error_prgm_msg)
+                    + line + "\n" + message);
+            builder.setIcon(android.R.drawable.ic_dialog_alert);
+            builder.setPositiveButton(getString(R.string.button_ok),
+                    new DialogInterface.OnClickListener() {
 
-                SetDisplayText(p.getDisplayText());
-            }
+                        //@Override
+                        public void onClick(DialogInterface dialog,
+                                            int which) {
+                            return;
+                        }
+                    });
+            builder.show();
         }
-        return false;
-    }
+    };
 
     // load the menu with all of the current settings
     @Override
@@ -0,0 +1,101 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The BigInt arithmetic (and comparison) operations, for every word size
+// and arithmetic mode in BigIntOperands.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BigIntArithmeticBenchmark {
+
+    @Benchmark
+    public BigInt add(BigIntOperands op) {
+        return BigInt.Add(op.x, op.y, op.size, op.work);
+    }
+
+    @Benchmark
+    public BigInt subtract(BigIntOperands op) {
+        return BigInt.Subtract(op.x, op.y, op.size, op.work);
+    }
+
+    @Benchmark
+    public BigInt multiply(BigIntOperands op) {
+        return BigInt.Multiply(op.x, op.y, op.size, op.work);
+    }
+
+    @Benchmark
+    public BigInt divide(BigIntOperands op) {
+        return BigInt.Divide(op.x, op.y, op.size, op.work);
+    }
+
+    @Benchmark
+    public BigInt remainder(BigIntOperands op) {
+        return BigInt.Remainder(op.x, op.y, op.size, op.work);
+    }
+
+    @Benchmark
+    public BigInt divRem(BigIntOperands op) {
+        BigInt.DivRem(op.x, op.y, op.size, op.quotient, op.remainder);
+        return op.remainder;
+    }
+
+    @Benchmark
+    public BigInt mod(BigIntOperands op) {
+        return BigInt.Mod(op.x, op.y, op.size);
+    }
+
+    @Benchmark
+    public BigInt power(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.Power(op.exponent, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt squareRoot(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.AbsoluteValue();
+        op.work.SquareRoot(op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt absoluteValue(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.AbsoluteValue();
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt changeSign(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.ChangeSign();
+        return op.work;
+    }
+
+    @Benchmark
+    public int compare(BigIntOperands op) {
+        return BigInt.Compare(op.x, op.y);
+    }
+
+    @Benchmark
+    public boolean equals(BigIntOperands op) {
+        return op.x.Equals(op.y);
+    }
+
+    @Benchmark
+    public boolean isZero(BigIntOperands op) {
+        return op.x.IsZero();
+    }
+}
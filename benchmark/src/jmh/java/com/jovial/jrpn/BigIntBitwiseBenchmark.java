@@ -0,0 +1,151 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The BigInt logic, shift, rotate and single bit operations, for every word
+// size and arithmetic mode in BigIntOperands. The in-place operations start
+// from a fresh copy of x each time, so they all do the same work.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BigIntBitwiseBenchmark {
+
+    @Benchmark
+    public BigInt bitwiseAnd(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.BitwiseAnd(op.y, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt bitwiseOr(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.BitwiseOr(op.y, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt xor(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.Xor(op.y, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt onesComplement(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.OnesComplement(op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt leftShift(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.LeftShift(op.distance, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt rightShift(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.RightShift(op.distance, true, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt rotateLeft(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.RotateLeft(op.distance, false, false, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt rotateRight(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.RotateRight(op.distance, false, false, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt rotateLeftCarry(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.RotateLeft(op.distance, true, true, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt rotateRightCarry(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.RotateRight(op.distance, true, true, op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt createMask(BigIntOperands op) {
+        return BigInt.CreateMask(op.distance, true, op.size);
+    }
+
+    @Benchmark
+    public BigInt[] leftJustify(BigIntOperands op) {
+        return BigInt.LeftJustify(op.x);
+    }
+
+    @Benchmark
+    public BigInt sumBits(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.SumBits();
+        return op.work;
+    }
+
+    @Benchmark
+    public int bitCount(BigIntOperands op) {
+        return op.x.bitCount();
+    }
+
+    @Benchmark
+    public int highestSetBit(BigIntOperands op) {
+        return op.x.highestSetBit();
+    }
+
+    @Benchmark
+    public int lowestSetBit(BigIntOperands op) {
+        return op.x.lowestSetBit();
+    }
+
+    @Benchmark
+    public BigInt bitSetAndClear(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.BitSet(op.distance - 1);
+        op.work.BitClear(0);
+        return op.work;
+    }
+
+    @Benchmark
+    public boolean bitTest(BigIntOperands op) {
+        return op.x.BitTest(op.distance - 1);
+    }
+
+    // The primitives under every integer operation: trimming the top limb
+    // to the word size, and testing the sign bit
+    @Benchmark
+    public BigInt mask(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.Mask();
+        return op.work;
+    }
+
+    @Benchmark
+    public boolean signBit(BigIntOperands op) {
+        return op.x.SignBit();
+    }
+}
@@ -0,0 +1,91 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Getting values into and out of a BigInt (strings, doubles, longs), and
+// changing the word size, for every word size and arithmetic mode in
+// BigIntOperands.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BigIntConversionBenchmark {
+
+    @Benchmark
+    public String toStringHex(BigIntOperands op) {
+        return op.x.ToStringHex();
+    }
+
+    @Benchmark
+    public String toStringDec(BigIntOperands op) {
+        return op.x.ToStringDec();
+    }
+
+    @Benchmark
+    public String toStringOct(BigIntOperands op) {
+        return op.x.ToStringOct();
+    }
+
+    @Benchmark
+    public String toStringBin(BigIntOperands op) {
+        return op.x.ToStringBin(true);
+    }
+
+    @Benchmark
+    public BigInt parseHex(BigIntOperands op) {
+        return new BigInt(op.hex, op.size, op.x.getBIArithMode());
+    }
+
+    @Benchmark
+    public BigInt parseDec(BigIntOperands op) {
+        return new BigInt(op.dec, op.size, op.x.getBIArithMode());
+    }
+
+    @Benchmark
+    public BigInt fromDouble(BigIntOperands op) {
+        return new BigInt(op.dbl, op.size, op.x.getBIArithMode());
+    }
+
+    @Benchmark
+    public double toDouble(BigIntOperands op) {
+        return op.x.ToDouble();
+    }
+
+    @Benchmark
+    public long toLong(BigIntOperands op) {
+        return op.x.ToLong();
+    }
+
+    @Benchmark
+    public BigInt set(BigIntOperands op) {
+        return op.work.Set(op.x);
+    }
+
+    @Benchmark
+    public BigInt setWordSize(BigIntOperands op) {
+        op.work.Set(op.x);
+        op.work.setWordSize(op.size * 2);
+        op.work.setWordSize(op.size);
+        return op.work;
+    }
+
+    @Benchmark
+    public BigInt[] split(BigIntOperands op) throws Exception {
+        return op.x.Split();
+    }
+
+    @Benchmark
+    public BigInt combine(BigIntOperands op) throws Exception {
+        op.work.Combine(op.left, op.right);
+        return op.work;
+    }
+}
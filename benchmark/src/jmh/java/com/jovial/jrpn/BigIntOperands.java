@@ -0,0 +1,61 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// The operands shared by the BigInt benchmarks: two random values (the
+// second never zero) for every word size and arithmetic mode, plus the
+// odds and ends some of the operations need. Results go into the "work"
+// values, so the operands themselves never change.
+@State(Scope.Thread)
+public class BigIntOperands {
+    @Param({ "4", "8", "16", "32", "64", "128" })
+    public int size;
+
+    @Param({ "Unsigned", "OnesComplement", "TwosComplement" })
+    public String mode;
+
+    BigInt x, y;
+    BigInt exponent;
+    BigInt left, right;
+    BigInt work, quotient, remainder;
+    String hex, dec;
+    double dbl;
+    int distance;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(18);
+        BigInt.ArithMode bimode = BigInt.ArithMode.valueOf(mode);
+
+        x = RandomValue(random, size, bimode);
+        y = RandomValue(random, size, bimode);
+        if (y.IsZero()) {
+            y.BitSet(0);
+        }
+        exponent = new BigInt(3, size, bimode);
+        left = RandomValue(random, size / 2, bimode);
+        right = RandomValue(random, size / 2, bimode);
+
+        work = new BigInt(size, bimode);
+        quotient = new BigInt(size, bimode);
+        remainder = new BigInt(size, bimode);
+
+        hex = "&H" + x.ToStringHex();
+        dec = x.ToStringDec();
+        dbl = x.ToDouble();
+        distance = size / 3 + 1;
+    }
+
+    private static BigInt RandomValue(Random random, int size,
+            BigInt.ArithMode mode) {
+        byte[] bytes = new byte[(size + 7) / 8];
+
+        random.nextBytes(bytes);
+        return new BigInt(bytes, size, mode);
+    }
+}
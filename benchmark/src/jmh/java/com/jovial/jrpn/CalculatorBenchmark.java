@@ -0,0 +1,115 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The engine above BigInt: the stack and registers, and whole keystrokes
+// through a headless Calculator, in the float mode and two of the integer
+// modes.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    // Some everyday arithmetic and stack shuffling, which leaves the stack
+    // no bigger than it found it
+    private final static String KEYS = "1 2 KeyEnt 3 KeyMul 5 KeyAdd KeyXY "
+            + "KeyMin 7 KeyDiv KeyRol KeySTO 1 KeyRCL 1 KeyAdd KeyCHS";
+
+    @State(Scope.Thread)
+    public static class Engine {
+        @Param({ "Float", "Hex", "Dec" })
+        public String mode;
+
+        CalcEngine calc;
+        CStack stack;
+        Register value;
+        int[] keys;
+
+        @Setup
+        public void setUp() {
+            CalcState state = new CalcState(new CalcConfig());
+
+            calc = new Calculator(state);
+            if (mode.equals("Float")) {
+                Press(calc, Codes("f KeyRCL 2"));
+            } else {
+                Press(calc, Codes("Key" + mode.toUpperCase()));
+            }
+            stack = state.getStack();
+            value = new Register(state.getWordSize(), state.getArithMode());
+            keys = Codes(KEYS);
+        }
+    }
+
+    // The key codes for a list of Calculator.k names, with the digits and
+    // the "f" and "g" prefix keys abbreviated
+    static int[] Codes(String keys) {
+        String[] names = keys.trim().split("\\s+");
+        int[] ans = new int[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.equals("f")) {
+                ans[i] = Calculator.k.KeyFKey.index();
+            } else if (name.equals("g")) {
+                ans[i] = Calculator.k.KeyGKey.index();
+            } else if (name.length() == 1
+                    && Character.digit(name.charAt(0), 16) >= 0) {
+                ans[i] = Character.digit(name.charAt(0), 16);
+            } else {
+                ans[i] = Calculator.k.valueOf(name).index();
+            }
+        }
+        return ans;
+    }
+
+    static DisplayPacket Press(CalcEngine calc, int[] keys) {
+        DisplayPacket ans = null;
+
+        for (int key : keys) {
+            ans = calc.ProcessKey(key);
+        }
+        return ans;
+    }
+
+    @Benchmark
+    public Register stackPushPop(Engine e) {
+        e.stack.Push(e.value);
+        return e.stack.Pop();
+    }
+
+    @Benchmark
+    public Register registerCopy(Engine e) {
+        return e.stack.getX().Copy();
+    }
+
+    // One pass through KEYS; divide the ops/sec by the number of keys for
+    // keystrokes/sec
+    @Benchmark
+    public DisplayPacket keystrokes(Engine e) {
+        return Press(e.calc, e.keys);
+    }
+
+    // The same, with the JIT turned off. This is roughly what a key costs
+    // before the JIT gets to it (and what it always cost when ProcessKey
+    // was one huge switch, too big for HotSpot to compile).
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Xint")
+    public DisplayPacket keystrokesInterpreted(Engine e) {
+        return Press(e.calc, e.keys);
+    }
+}
@@ -0,0 +1,84 @@
+package com.jovial.jrpn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Finds where the BigInt multiplication tiers cross over. Each "method"
+// forces one way of doing the top level of a full (double size) product of
+// two random numbers "limbs" long:
+//
+//   schoolbook - no splitting at all
+//   karatsuba  - one Karatsuba split, with schoolbook below it
+//   recursive  - Karatsuba down to KARATSUBA_THRESHOLD, but no Toom-3
+//   toom3      - one Toom-3 split, with "recursive" below it
+//
+// KARATSUBA_THRESHOLD belongs where karatsuba starts beating schoolbook,
+// and TOOM_THRESHOLD where toom3 starts beating recursive.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiplyCrossoverBenchmark {
+    private static final int LIMB_BITS = 32;
+    private static final int NEVER = Integer.MAX_VALUE;
+
+    @Param({ "16", "24", "32", "48", "64", "96", "128", "192", "256", "384",
+            "512" })
+    public int limbs;
+
+    @Param({ "schoolbook", "karatsuba", "recursive", "toom3" })
+    public String method;
+
+    private BigInt x, y, product;
+    private int size;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        byte[] bytes = new byte[limbs * LIMB_BITS / 8];
+
+        if (method.equals("schoolbook")) {
+            BigInt.SetMultiplyThresholds(NEVER, NEVER);
+        } else if (method.equals("karatsuba")) {
+            BigInt.SetMultiplyThresholds(Math.max(limbs, 4), NEVER);
+        } else if (method.equals("recursive")) {
+            BigInt.SetMultiplyThresholds(BigInt.KARATSUBA_THRESHOLD, NEVER);
+        } else {
+            BigInt.SetMultiplyThresholds(BigInt.KARATSUBA_THRESHOLD,
+                    Math.max(limbs, 6));
+        }
+
+        size = 2 * limbs * LIMB_BITS;
+        random.nextBytes(bytes);
+        x = new BigInt(bytes, limbs * LIMB_BITS, BigInt.ArithMode.Unsigned);
+        random.nextBytes(bytes);
+        y = new BigInt(bytes, limbs * LIMB_BITS, BigInt.ArithMode.Unsigned);
+        product = new BigInt(size, BigInt.ArithMode.Unsigned);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BigInt.SetMultiplyThresholds(BigInt.KARATSUBA_THRESHOLD,
+                BigInt.TOOM_THRESHOLD);
+    }
+
+    @Benchmark
+    public BigInt multiply() {
+        return BigInt.Multiply(x, y, size, product);
+    }
+}
@@ -0,0 +1,3251 @@
+package com.jovial.jrpn;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// This is the Big Integer class... it is somewhat analogous
+// to the java.math.BigInteger class, except that this version
+// has arbitrary precision plus a few calculator-specific
+// functions
+public final class BigInt {
+
+    // The value is kept in 32-bit "limbs" (least significant limb first).
+    // A limb is treated as unsigned by masking it into a long, which leaves
+    // plenty of room for the carry between limbs.
+    private final static int LIMB_BITS = 32;
+    private final static long LIMB_MASK = 0xffffffffL;
+
+    // LOW_MASKS[i] has the bottom i bits of a limb set
+    private final static int[] LOW_MASKS = new int[LIMB_BITS + 1];
+    static {
+        for (int i = 0; i < LIMB_BITS; i++) {
+            LOW_MASKS[i] = (1 << i) - 1;
+        }
+        LOW_MASKS[LIMB_BITS] = -1;
+    }
+
+    // Word sizes up to this many bits fit in a long, so the arithmetic is
+    // done right there instead of limb by limb. (This covers every word size
+    // on the calculator, only the double width DBL intermediates are bigger.)
+    private final static int LONG_BITS = 64;
+
+    // Everything that depends only on the bit size. These are worked out
+    // once per size and shared (changing the size of a BigInt just swaps in
+    // a different one). Every word size the calculator offers is made up
+    // front, the bigger "wiggle room" sizes as they are needed.
+    private final static class Size {
+        final int bits;
+        final int lastLimb;
+        final int topMask;
+        final int signMask;
+
+        // The read-only constants of this size (by ArithMode, then kind),
+        // made as they are needed
+        private final BigInt[][] constants =
+                new BigInt[ArithMode.values().length][CONSTANT_KINDS];
+
+        Size(int bits) {
+            this.bits = bits;
+            this.lastLimb = (bits - 1) / LIMB_BITS;
+            this.topMask = TopMask(bits);
+            this.signMask = BitOf(bits - 1);
+        }
+
+        synchronized BigInt Constant(ArithMode mode, int kind) {
+            BigInt ans = constants[mode.index()][kind];
+
+            if (ans == null) {
+                ans = new BigInt(bits, mode);
+                switch (kind) {
+                case CONSTANT_ZERO:
+                    break;
+                case CONSTANT_ONE:
+                    ans.n[0] = 1;
+                    break;
+                case CONSTANT_TEN:
+                    ans.n[0] = 10;
+                    break;
+                case CONSTANT_ALL_ONES:
+                    ans.SetHighBits(0);
+                    break;
+                case CONSTANT_SIGN_MASK:
+                    ans.n[ans.LastLimb] = signMask;
+                    break;
+                }
+                ans.Mask();
+                ans.pReadOnly = true;
+                constants[mode.index()][kind] = ans;
+            }
+            return ans;
+        }
+    }
+
+    // The kinds of shared constants
+    private final static int CONSTANT_ZERO = 0;
+    private final static int CONSTANT_ONE = 1;
+    private final static int CONSTANT_TEN = 2;
+    private final static int CONSTANT_ALL_ONES = 3;
+    private final static int CONSTANT_SIGN_MASK = 4;
+    private final static int CONSTANT_KINDS = 5;
+
+    private final static Size[] WORD_SIZES = new Size[LONG_BITS + 1];
+    static {
+        for (int i = 0; i <= LONG_BITS; i++) {
+            WORD_SIZES[i] = new Size(i);
+        }
+    }
+    private final static ConcurrentHashMap<Integer, Size> LARGE_SIZES =
+            new ConcurrentHashMap<Integer, Size>();
+
+    // Numbers with at least this many limbs (on both sides) are multiplied
+    // with the Karatsuba method, and bigger ones still with Toom-3. The
+    // defaults are the crossovers MultiplyCrossoverBenchmark found on a
+    // desktop JVM; SetMultiplyThresholds moves them.
+    final static int KARATSUBA_THRESHOLD = 48;
+    final static int TOOM_THRESHOLD = 256;
+    private static int karatsubaThreshold = KARATSUBA_THRESHOLD;
+    private static int toomThreshold = TOOM_THRESHOLD;
+
+    // Decimal conversions work nine digits at a time, since 10^9 is the
+    // largest power of ten that fits in a limb
+    private final static int DEC_CHUNK_DIGITS = 9;
+    private final static int[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000,
+        100000, 1000000, 10000000, 100000000, 1000000000 };
+    // (the number of decimal digits in a bit)
+    private final static double LOG10_2 = Math.log10(2);
+
+    // Scratch space for the temporary values inside the arithmetic methods,
+    // so that they don't have to allocate on every call. Each thread gets
+    // its own, and nothing in here ever escapes the method that uses it.
+    private final static class Scratch {
+        final BigInt x = new BigInt();
+        final BigInt y = new BigInt();
+        final BigInt operand = new BigInt();
+        final BigInt quotient = new BigInt();
+        final BigInt magnitude = new BigInt();
+        final BigInt rem = new BigInt();
+        private int[] limbs = new int[0];
+
+        // A limb array with room for at least len limbs
+        int[] Limbs(int len) {
+            if (limbs.length < len) {
+                limbs = new int[len];
+            }
+            return limbs;
+        }
+    }
+
+    private final static ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private boolean pOverflow;
+    private boolean pCarryBit;
+    private boolean pLossOfPrecision;
+    private ArithMode pBIArithMode;
+    private Size pSize;
+    private boolean pReadOnly;
+    private int BitSize;
+    private int LastLimb;
+    private int[] n;
+
+    // The Arithmetic mode for signed decimal values
+    public enum ArithMode {
+        Unsigned(0), OnesComplement(1), TwosComplement(2);
+
+        // make a java enum a bit more civilized
+        private int pindex;
+
+        ArithMode(int val) {
+            this.pindex = val;
+        }
+
+        public int index() {
+            return pindex;
+        }
+
+        public static ArithMode toArithMode(int val) {
+            for (ArithMode enum_val : ArithMode.values()) {
+                if (enum_val.pindex == val) {
+                    return enum_val;
+                }
+            }
+            // should this throw an exception?
+            return null;
+        }
+    }
+
+    /*
+     * **************************** Constructors ******************************
+     */
+
+    // The default constructor
+    public BigInt() {
+        pOverflow = false;
+        pCarryBit = false;
+        pLossOfPrecision = false;
+        pBIArithMode = ArithMode.TwosComplement;
+        UseSize(SizeOf(32));
+        n = new int[LastLimb + 1];
+    }
+
+    // Constructor given a required size and mode
+    public BigInt(int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        SetSize(size);
+    }
+
+    // Constructor from a byte array
+    public BigInt(byte[] byte_array, int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        Import(PackBytes(byte_array), size, false);
+    }
+
+    // Constructor from another BigInt
+    public BigInt(BigInt bi, int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        Import(bi.n, size, false);
+    }
+
+    // Constructor from a double
+    public BigInt(double dbl, int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        long temp;
+
+        // We actually just convert the double to a long, and then
+        // perform the normal import for a long.
+
+        // Convert only if there is some useful value
+        if (dbl >= Long.MAX_VALUE || dbl <= Long.MIN_VALUE) {
+            // Humm... should this generate an exception?
+            pLossOfPrecision = true;
+            return;
+        }
+
+        // Use default rounding rules!
+        temp = (long) dbl;
+
+        // only 15 digit precision for a double
+        Import(GetLimbs(temp), size, (dbl < 0));
+    }
+
+    // Constructor from an integer
+    public BigInt(int i, int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        Import(GetLimbs(i), size, (i < 0));
+    }
+
+    // Constructor from a long
+    public BigInt(long ln, int size, ArithMode mode) {
+        this();
+        pBIArithMode = mode;
+
+        Import(GetLimbs(ln), size, (ln < 0));
+    }
+
+    // Constructor from a string
+    public BigInt(String s, int size, ArithMode mode) {
+        this();
+        int i, bits, temp, n_bit, finish, chunk;
+        String c, number;
+        BigInt z;
+
+        if (s == null || s.equals("")) {
+            return;
+        }
+
+        z = new BigInt(size, mode);
+        pBIArithMode = mode;
+        pLossOfPrecision = false;
+
+        if (s.length() > 2 && s.startsWith("&")) {
+            number = s.substring(2).toLowerCase().trim();
+            switch (s.toLowerCase().toCharArray()[1]) {
+            case 'o': // Octal notation
+                // What is the "native size?
+                finish = 0;
+                // from right to left
+                for (i = number.length() - 1; i >= 0; i--) {
+                    // Stop at first unknown character
+                    c = number.substring(i, i + 1);
+                    if ("01234567".indexOf(c) == -1) {
+                        finish = finish + 1;
+                        break;
+                    }
+                }
+                temp = (number.length() - finish) * 3;
+                // Let's round up to the nearest byte
+                n_bit = (((temp - 1) / 8) + 1) * 8;
+
+                SetSize(n_bit);
+                z.SetSize(n_bit);
+
+                if (temp > BitSize) {
+                    finish = (temp - BitSize) / 3;
+                }
+
+                // Process the string
+                bits = 0;
+                for (i = number.length() - 1; i >= finish; i--) {
+                    temp = Integer.parseInt(number.substring(i, i + 1));
+                    if (temp != 0) {
+                        // Sneaky trick to prevent multiplication/shifts
+                        z.Clear();
+                        z.PutAt(temp, bits);
+                        _Add(z);
+                    }
+                    // Number of bits to shift
+                    bits = bits + 3;
+                }
+                break;
+            case 'b': // Binary (not a really a standard notation!)
+                // What is the "native size?
+                finish = 0;
+                // from right to left
+                for (i = number.length() - 1; i >= 0; i--) {
+                    // Stop at first unknown character
+                    c = number.substring(i, i + 1);
+                    if ("01".indexOf(c) == -1) {
+                        finish = finish + 1;
+                        break;
+                    }
+                }
+                temp = number.length() - finish;
+                // Let's round up to the nearest byte
+                n_bit = (((temp - 1) / 8) + 1) * 8;
+
+                SetSize(n_bit);
+
+                if (temp > BitSize) {
+                    finish = temp - BitSize;
+                }
+
+                // Process the string
+                for (i = number.length() - 1; i >= finish; i--) {
+                    if (number.substring(i, i + 1).equals("1")) {
+                        BitSet(number.length() - 1 - i);
+                    }
+                }
+                break;
+            case 'h': // Hexadecimal notation
+                // What is the "native size?
+                finish = 0;
+                // from right to left
+                for (i = number.length() - 1; i >= 0; i--) {
+                    // Stop at first unknown character
+                    c = number.substring(i, i + 1);
+                    if ("0123456789abcdef".indexOf(c) == -1) {
+                        finish = finish + 1;
+                        break;
+                    }
+                }
+                temp = (number.length() - finish) * 4;
+                // Let's round up to the nearest byte
+                n_bit = (((temp - 1) / 8) + 1) * 8;
+
+                SetSize(n_bit);
+                z.SetSize(n_bit);
+
+                if (temp > BitSize) {
+                    finish = (temp - BitSize) / 4;
+                }
+
+                // Process the string
+                bits = 0;
+                for (i = number.length() - 1; i >= finish; i--) {
+                    temp = Integer.parseInt(number.substring(i, i + 1), 16);
+                    if (temp != 0) {
+                        // Sneaky trick to prevent multiplication/shifts
+                        z.Clear();
+                        z.PutAt(temp, bits);
+                        _Add(z);
+                    }
+                    // Number of bits to shift
+                    bits = bits + 4;
+                }
+                break;
+            }
+        } else {
+            // If no leading "&", it must be a decimal notation
+            finish = 0;
+            // From right to left. This might seem a bit counterintuitive
+            // since "123.45" would yield "45" and not "123"
+            for (i = s.length() - 1; i >= 0; i--) {
+                // Stop at first unknown character (including a decimal or
+                // negative sign)
+                c = s.substring(i, i + 1);
+                if ("0123456789".indexOf(c) == -1) {
+                    finish = i + 1;
+                    break;
+                }
+            }
+            // Since we're not really doing bit manipulation, this size
+            // estimate isn't all that critical
+            temp = (int) ((s.length() - finish) * 3.5);
+
+            // Let's round up to the nearest byte
+            n_bit = (((temp - 1) / 8) + 1) * 8;
+            SetSize(n_bit);
+
+            // This is normal stuff, just done a chunk of digits at a time
+            // (from left to right). Shift what we have so far over by that
+            // many decimal places, then add in the new chunk.
+            for (i = finish; i < s.length(); i = i + chunk) {
+                chunk = (s.length() - i) % DEC_CHUNK_DIGITS;
+                if (chunk == 0 || i > finish) {
+                    chunk = DEC_CHUNK_DIGITS;
+                }
+                temp = Integer.parseInt(s.substring(i, i + chunk));
+                // Did you overflow?
+                if (MultiplyAddInt(n, LastLimb + 1, POWERS_OF_TEN[chunk],
+                        temp) != 0) {
+                    pLossOfPrecision = true;
+                    break;
+                }
+            }
+            if (MaxBit() >= BitSize) {
+                pLossOfPrecision = true;
+            }
+            Mask();
+            // If it's negative assume 2's complement
+            if (s.startsWith("-")) {
+                OnesComplement(BitSize);
+                _Increment();
+            }
+        }
+        // Since we're comparing with the "wiggle room" version of the value
+        // we have to temporarily tweak the ArithMode to make the comparison
+        // valid
+        ArithMode tmode = pBIArithMode;
+        pBIArithMode = ArithMode.Unsigned;
+
+        z = this.Copy();
+        SetSize(size);
+        if (!Equals(z)) {
+            pLossOfPrecision = true;
+        }
+
+        // put it back the way it was...
+        pBIArithMode = tmode;
+    }
+
+    /*
+     * **************************** Properties ******************************
+     */
+
+    // The Overflow property
+    public boolean isOverflow() {
+        return pOverflow;
+    }
+
+    // The Carry Bit property
+    public boolean isCarryBit() {
+        return pCarryBit;
+    }
+
+    // The Loss of Precision property
+    public boolean isLossOfPrecision() {
+        return pLossOfPrecision;
+    }
+
+    // The Big Integer ArithMode getter/setter
+    public ArithMode getBIArithMode() {
+        return pBIArithMode;
+    }
+
+    public void setBIArithMode(ArithMode mode) {
+        CheckWritable();
+
+        pBIArithMode = mode;
+    }
+
+    // The Word Size getter/setter
+    public int getWordSize() {
+        return BitSize;
+    }
+
+    public void setWordSize(int size) {
+        CheckWritable();
+
+        SetSize(size);
+    }
+
+    // The Byte Array getter. This is a little-endian copy of the value, so
+    // changes to the returned array do not affect the BigInt.
+    public byte[] getByteArray() {
+        byte[] ans = new byte[(BitSize - 1) / 8 + 1];
+
+        for (int i = 0; i < ans.length; i++) {
+            ans[i] = (byte) (n[i / 4] >>> ((i % 4) * 8));
+        }
+        return ans;
+    }
+
+    // Make this BigInt a copy of x (size, mode, flags and all). The limbs we
+    // already have are reused when they are big enough.
+    public BigInt Set(BigInt x) {
+        CheckWritable();
+
+        if (x == this) {
+            return this;
+        }
+        UseSize(x.pSize);
+        pBIArithMode = x.pBIArithMode;
+        pCarryBit = x.pCarryBit;
+        pLossOfPrecision = x.pLossOfPrecision;
+        pOverflow = x.pOverflow;
+
+        n = ArrayResize(n, LastLimb + 1);
+        System.arraycopy(x.n, 0, n, 0, LastLimb + 1);
+        return this;
+    }
+
+    /*
+     * ************************** Math Operators ******************************
+     */
+
+    // Add two BigInt values
+    public static BigInt Add(BigInt x, BigInt y) {
+        return Add(x, y, 0);
+    }
+
+    // Add two BigInt values, with required size
+    public static BigInt Add(BigInt x, BigInt y, int size) {
+        return Add(x, y, size, new BigInt());
+    }
+
+    // Add two BigInt values with required size, putting the answer in dest
+    public static BigInt Add(BigInt x, BigInt y, int size, BigInt dest) {
+        BigInt temp_y = Operands(x, y, dest);
+
+        dest.Add(temp_y, size);
+        return dest;
+    }
+
+    // Add a BigInt value to the current value
+    public void Add(BigInt y, int size) {
+        int real_bitsize;
+        BigInt temp_y;
+        boolean sign_x, sign_y;
+
+        CheckWritable();
+
+        // determine the bitsize, and make 'em all the same
+        real_bitsize = (size > 0) ? size
+                : ((BitSize >= y.BitSize) ? BitSize : y.BitSize);
+        if (real_bitsize <= LONG_BITS) {
+            AddLong(y, real_bitsize);
+            return;
+        }
+        temp_y = SCRATCH.get().y.Set(y);
+        SetSize(real_bitsize);
+        temp_y.SetSize(real_bitsize);
+
+        sign_x = this.SignBit();
+        sign_y = temp_y.SignBit();
+
+        // We temporarily need a bit more "wiggle room" than just the current
+        // bitsize, so we add another limb. This is similar to SetSize, but
+        // never does a sign extension
+        AddPadding(RoundUp(real_bitsize));
+        temp_y.AddPadding(BitSize);
+
+        _Add(temp_y);
+
+        // We needed the wiggle room to detect carry and overflow
+        pCarryBit = MaxBit() >= real_bitsize;
+        switch (getBIArithMode()) {
+        case Unsigned:
+            // that was easy...
+            pOverflow = pCarryBit;
+            break;
+        case OnesComplement:
+            // the "wrap around" rule for adding 1's complement numbers
+            if (pCarryBit) {
+                _Increment();
+            }
+
+            // determining overflow is a bit bizarre
+            pOverflow = false;
+            if (sign_x) {
+                if (sign_y && !(this.BitTest(real_bitsize - 1)) && pCarryBit) {
+                    pOverflow = true;
+                }
+            } else if (!sign_y && this.BitTest(real_bitsize - 1) && !pCarryBit) {
+                pOverflow = true;
+            }
+            break;
+        case TwosComplement:
+            // determining overflow is a bit bizarre
+            pOverflow = false;
+            if (sign_x) {
+                if (sign_y && !(this.BitTest(real_bitsize - 1)) && pCarryBit) {
+                    pOverflow = true;
+                }
+            } else if (!sign_y && this.BitTest(real_bitsize - 1) && !pCarryBit) {
+                pOverflow = true;
+            }
+            break;
+        }
+        // OK, but it back to the real bitsize
+        SetSize(real_bitsize);
+    }
+
+    // Internal version of Add (does not set Carry, Overflow, LOP)
+    private void _Add(BigInt y) {
+        long carry;
+
+        // Normal stuff... add two limbs, keep the "carry" for the next limb
+        carry = 0;
+        for (int i = 0; i <= this.LastLimb; i++) {
+            carry += (this.n[i] & LIMB_MASK) + (y.n[i] & LIMB_MASK);
+            this.n[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+        Mask();
+    }
+
+    // Subtract two BigInt values
+    public static BigInt Subtract(BigInt x, BigInt y) {
+        return Subtract(x, y, 0);
+    }
+
+    // Subtract two BigInt values with required size
+    public static BigInt Subtract(BigInt x, BigInt y, int size) {
+        return Subtract(x, y, size, new BigInt());
+    }
+
+    // Subtract two BigInt values with required size, putting the answer in dest
+    public static BigInt Subtract(BigInt x, BigInt y, int size, BigInt dest) {
+        BigInt temp_y = Operands(x, y, dest);
+
+        dest.Subtract(temp_y, size);
+        return dest;
+    }
+
+    // Subtract a BigInt value from the current value
+    public void Subtract(BigInt y, int size) {
+        int real_bitsize;
+        BigInt temp_y;
+        boolean sign_x, sign_y;
+
+        CheckWritable();
+
+        // determine the bitsize, and make 'em all the same
+        real_bitsize = (size > 0) ? size
+                : ((BitSize >= y.BitSize) ? BitSize : y.BitSize);
+        if (real_bitsize <= LONG_BITS) {
+            SubtractLong(y, real_bitsize);
+            return;
+        }
+        temp_y = SCRATCH.get().y.Set(y);
+        SetSize(real_bitsize);
+        temp_y.SetSize(real_bitsize);
+
+        sign_x = this.SignBit();
+        sign_y = temp_y.SignBit();
+
+        // We temporarily need a bit more "wiggle room" than just the current
+        // bitsize, so we add another limb. This is similar to SetSize, but
+        // never does a sign extension
+        AddPadding(RoundUp(real_bitsize));
+        temp_y.AddPadding(BitSize);
+
+        _Subtract(temp_y);
+
+        // We needed the wiggle room to detect carry and overflow
+        pCarryBit = (MaxBit() >= real_bitsize);
+        switch (getBIArithMode()) {
+        case Unsigned:
+            // that was easy...
+            pOverflow = pCarryBit;
+            break;
+        case OnesComplement:
+            // the "wrap around" rule for subtracting 1's complement numbers
+            if (pCarryBit) {
+                _Decrement();
+            }
+            // determining overflow is a bit bizarre
+            pOverflow = false;
+            if (sign_x) {
+                if (!sign_y && (!this.BitTest(real_bitsize - 1)) && !pCarryBit) {
+                    pOverflow = true;
+                }
+            } else if (sign_y && this.BitTest(real_bitsize - 1) && pCarryBit) {
+                pOverflow = true;
+            }
+            break;
+        case TwosComplement:
+            // determining overflow is a bit bizarre
+            pOverflow = false;
+            if (sign_x) {
+                if (!sign_y && (!this.BitTest(real_bitsize - 1)) && !pCarryBit) {
+                    pOverflow = true;
+                }
+            } else if (sign_y && this.BitTest(real_bitsize - 1) && pCarryBit) {
+                pOverflow = true;
+            }
+            break;
+        }
+        // OK, but it back to the real bitsize
+        SetSize(real_bitsize);
+    }
+
+    // Internal version of Subtract (does not set Carry, Overflow, LOP)
+    private void _Subtract(BigInt y) {
+        long temp, borrow;
+
+        // Normal stuff... subtract two limbs, generate a "borrow" if needed
+        borrow = 0;
+        for (int i = 0; i <= this.LastLimb; i++) {
+            temp = (this.n[i] & LIMB_MASK) - (y.n[i] & LIMB_MASK) - borrow;
+            this.n[i] = (int) temp;
+            // Did we need a "borrow"?
+            borrow = (temp < 0) ? 1 : 0;
+        }
+        Mask();
+    }
+
+    // Internal version of adding one (does not set Carry, Overflow, LOP)
+    private void _Increment() {
+        for (int i = 0; i <= LastLimb; i++) {
+            n[i] = n[i] + 1;
+            // Stop when there is no carry
+            if (n[i] != 0) {
+                break;
+            }
+        }
+        Mask();
+    }
+
+    // Internal version of subtracting one (does not set Carry, Overflow, LOP)
+    private void _Decrement() {
+        for (int i = 0; i <= LastLimb; i++) {
+            n[i] = n[i] - 1;
+            // Stop when there is no borrow
+            if (n[i] != -1) {
+                break;
+            }
+        }
+        Mask();
+    }
+
+    // Multiply two BigInt values
+    public static BigInt Multiply(BigInt x, BigInt y) {
+        return Multiply(x, y, 0);
+    }
+
+    // Multiply two BigInt values with required size
+    public static BigInt Multiply(BigInt x, BigInt y, int size) {
+        return Multiply(x, y, size, new BigInt());
+    }
+
+    // Multiply two BigInt values with required size, putting the answer in dest
+    public static BigInt Multiply(BigInt x, BigInt y, int size, BigInt dest) {
+        BigInt temp_y = Operands(x, y, dest);
+
+        dest.Multiply(temp_y, size);
+        return dest;
+    }
+
+    // Multiply a BigInt value with the current value
+    public void Multiply(BigInt y, int size) {
+        int real_bitsize, product_len;
+        int[] product;
+        BigInt temp_x, temp_y;
+        Scratch scratch;
+
+        CheckWritable();
+
+        real_bitsize = (size > 0) ? size
+                : ((BitSize >= y.BitSize) ? BitSize : y.BitSize);
+        if (pBIArithMode != ArithMode.Unsigned) {
+            MultiplySigned(y, real_bitsize);
+            return;
+        }
+        if (real_bitsize <= LONG_BITS && BitSize <= real_bitsize
+                && y.BitSize <= real_bitsize) {
+            MultiplyLong(y, real_bitsize);
+            return;
+        }
+        scratch = SCRATCH.get();
+        temp_x = scratch.x.Set(this);
+        temp_y = scratch.y.Set(y);
+
+        // We need a bit more "wiggle room" than just the current bitsize,
+        // so round off to the nearest limb and add 1 limb
+        SetSize(RoundUp(real_bitsize));
+        temp_x.SetSize(BitSize);
+        temp_y.SetSize(BitSize);
+        Clear();
+
+        // Let's handle some special cases
+        if (temp_x.IsZero() || temp_y.IsZero()) {
+            SetSize(real_bitsize);
+            return;
+        }
+
+        // Build the full (double width) product, then keep the part that
+        // fits. Anything left over above our limbs is an overflow.
+        product_len = temp_x.MaxLimb() + temp_y.MaxLimb() + 2;
+        product = scratch.Limbs(product_len);
+        MultiplyLimbs(temp_x.n, temp_x.MaxLimb() + 1, temp_y.n,
+                temp_y.MaxLimb() + 1, product);
+        for (int i = 0; i < product_len; i++) {
+            if (i <= LastLimb) {
+                n[i] = product[i];
+            } else if (product[i] != 0) {
+                pOverflow = true;
+            }
+        }
+        Mask();
+
+        // We needed the wiggle room to detect over_flow
+        if (!pOverflow) {
+            pOverflow = (MaxBit() >= real_bitsize);
+        }
+        SetSize(real_bitsize);
+    }
+
+    // Multiply signed numbers. Just like Divide, this multiplies the sizes
+    // of the two numbers and then puts the sign back on, so Overflow means
+    // that the signed answer doesn't fit (and what is left is the bottom of
+    // the real answer).
+    private void MultiplySigned(BigInt y, int real_bitsize) {
+        ArithMode mode = pBIArithMode;
+        BigInt temp_y = SCRATCH.get().magnitude.Set(y);
+        boolean neg;
+
+        SetSize(real_bitsize);
+        temp_y.pBIArithMode = mode;
+        temp_y.SetSize(real_bitsize);
+        neg = SignBit() ^ temp_y.SignBit();
+        AbsoluteValue();
+        temp_y.AbsoluteValue();
+
+        pBIArithMode = ArithMode.Unsigned;
+        temp_y.pBIArithMode = ArithMode.Unsigned;
+        Multiply(temp_y, real_bitsize);
+        pBIArithMode = mode;
+
+        // The size has to leave room for the sign (only 2's complement has
+        // room for the biggest negative number)
+        if (BitTest(real_bitsize - 1)
+                && !(neg && (mode == ArithMode.TwosComplement) && IsSignOnly())) {
+            pOverflow = true;
+        }
+        if (neg && !IsZero()) {
+            ChangeSign();
+        }
+    }
+
+    // The multiplication kernel. The product (x_len + y_len limbs) is
+    // written into ans.
+    private static void MultiplyLimbs(int[] x, int x_len, int[] y, int y_len,
+            int[] ans) {
+        MultiplyLimbs(x, 0, x_len, y, 0, y_len, ans, 0);
+    }
+
+    // Small (or lopsided) numbers use the schoolbook method, and big ones
+    // are split in half (Karatsuba) or in thirds (Toom-3) until they're
+    // small enough.
+    private static void MultiplyLimbs(int[] x, int x_off, int x_len, int[] y,
+            int y_off, int y_len, int[] ans, int ans_off) {
+        int shorter = Math.min(x_len, y_len);
+        int longer = Math.max(x_len, y_len);
+
+        if (shorter >= toomThreshold && 3 * shorter > 2 * longer) {
+            ToomLimbs(x, x_off, x_len, y, y_off, y_len, ans, ans_off);
+        } else if (shorter >= karatsubaThreshold && 2 * shorter > longer) {
+            KaratsubaLimbs(x, x_off, x_len, y, y_off, y_len, ans, ans_off);
+        } else {
+            SchoolbookLimbs(x, x_off, x_len, y, y_off, y_len, ans, ans_off);
+        }
+    }
+
+    // Move the Karatsuba and Toom-3 thresholds (in limbs). Each method has
+    // to leave smaller pieces than it was given, so they can't go too low.
+    static void SetMultiplyThresholds(int karatsuba, int toom) {
+        if (karatsuba < 4 || toom < 6) {
+            throw new IllegalArgumentException(
+                    "Multiply thresholds are too small");
+        }
+        karatsubaThreshold = karatsuba;
+        toomThreshold = toom;
+    }
+
+    // This is just like you were taught is school... multiply each digit
+    // (limb) in the first number with every digit in the second, but the
+    // partial products are accumulated straight into their "column" of the
+    // answer, carrying as we go.
+    private static void SchoolbookLimbs(int[] x, int x_off, int x_len,
+            int[] y, int y_off, int y_len, int[] ans, int ans_off) {
+        long carry, digit;
+
+        Arrays.fill(ans, ans_off, ans_off + x_len + y_len, 0);
+
+        for (int j = 0; j < y_len; j++) {
+            digit = y[y_off + j] & LIMB_MASK;
+            if (digit == 0) {
+                continue;
+            }
+            // Note: (2^32 - 1)^2 plus two more limbs still fits (unsigned) in
+            // a long, so the carry can never be lost
+            carry = 0;
+            for (int i = 0; i < x_len; i++) {
+                carry += (x[x_off + i] & LIMB_MASK) * digit
+                        + (ans[ans_off + i + j] & LIMB_MASK);
+                ans[ans_off + i + j] = (int) carry;
+                carry >>>= LIMB_BITS;
+            }
+            ans[ans_off + j + x_len] = (int) carry;
+        }
+    }
+
+    // Karatsuba's trick: with x = x1*B + x0 and y = y1*B + y0, the middle
+    // part of the product (x1*y0 + x0*y1) is (x0 + x1)(y0 + y1) - x0*y0 -
+    // x1*y1, so it takes three half size multiplies rather than four.
+    // (Both numbers have to be longer than half, which the caller checks.)
+    private static void KaratsubaLimbs(int[] x, int x_off, int x_len, int[] y,
+            int y_off, int y_len, int[] ans, int ans_off) {
+        int half, end, mid_len;
+        int[] sum_x, sum_y, mid;
+
+        half = (Math.max(x_len, y_len) + 1) / 2;
+        end = ans_off + x_len + y_len;
+
+        // the low and high halves go straight into the answer
+        MultiplyLimbs(x, x_off, half, y, y_off, half, ans, ans_off);
+        MultiplyLimbs(x, x_off + half, x_len - half, y, y_off + half, y_len
+                - half, ans, ans_off + 2 * half);
+
+        // (x0 + x1)(y0 + y1), less the two halves
+        sum_x = new int[half + 1];
+        sum_y = new int[half + 1];
+        AddHalves(x, x_off, x_len, half, sum_x);
+        AddHalves(y, y_off, y_len, half, sum_y);
+        mid_len = 2 * half + 2;
+        mid = new int[mid_len];
+        MultiplyLimbs(sum_x, 0, half + 1, sum_y, 0, half + 1, mid, 0);
+        SubtractLimbs(mid, mid_len, ans, ans_off, 2 * half);
+        SubtractLimbs(mid, mid_len, ans, ans_off + 2 * half, x_len + y_len - 2
+                * half);
+
+        // and add the middle in, half way up (the answer always fits, so
+        // anything past the end is zero)
+        long carry = 0;
+        for (int i = 0; i < mid_len && ans_off + half + i < end; i++) {
+            carry += (ans[ans_off + half + i] & LIMB_MASK)
+                    + (mid[i] & LIMB_MASK);
+            ans[ans_off + half + i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+        for (int i = ans_off + half + mid_len; carry != 0 && i < end; i++) {
+            carry += ans[i] & LIMB_MASK;
+            ans[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+    }
+
+    // Toom-3 splits each number in three, x = x2*B^2 + x1*B + x0, which
+    // makes the product a polynomial with five coefficients. We work that
+    // polynomial out at five points (0, 1, -1, -2 and "infinity"), which
+    // takes five multiplies of a third of the size, and then get the
+    // coefficients back (Bodrato's interpolation). Some of the in between
+    // values can be negative, so they're kept as two's complement limbs.
+    private static void ToomLimbs(int[] x, int x_off, int x_len, int[] y,
+            int y_off, int y_len, int[] ans, int ans_off) {
+        int third, len, prod_len;
+        int[][] px, py;
+        int[] r0, r1, rm1, rm2, rinf;
+
+        third = (Math.max(x_len, y_len) + 2) / 3;
+        // room for the sums (up to 6 times a third) and their sign
+        len = third + 2;
+        prod_len = 2 * len;
+
+        px = ToomEvaluate(x, x_off, x_len, third, len);
+        py = ToomEvaluate(y, y_off, y_len, third, len);
+        r0 = ToomMultiply(px[0], py[0], prod_len);
+        r1 = ToomMultiply(px[1], py[1], prod_len);
+        rm1 = ToomMultiply(px[2], py[2], prod_len);
+        rm2 = ToomMultiply(px[3], py[3], prod_len);
+        rinf = ToomMultiply(px[4], py[4], prod_len);
+
+        // r3 = (r(-2) - r(1)) / 3
+        SubtractTwos(rm2, r1);
+        DivideTwos3(rm2);
+        // r1 = (r(1) - r(-1)) / 2
+        SubtractTwos(r1, rm1);
+        ShiftRightTwos(r1);
+        // r2 = r(-1) - r(0)
+        SubtractTwos(rm1, r0);
+        // r3 = (r2 - r3) / 2 + 2 * r(inf)
+        SubtractTwos(rm2, rm1);
+        NegateTwos(rm2);
+        ShiftRightTwos(rm2);
+        AddTwos(rm2, rinf);
+        AddTwos(rm2, rinf);
+        // r2 = r2 + r1 - r(inf)
+        AddTwos(rm1, r1);
+        SubtractTwos(rm1, rinf);
+        // r1 = r1 - r3
+        SubtractTwos(r1, rm2);
+
+        // All five coefficients are positive now, so add them up
+        Arrays.fill(ans, ans_off, ans_off + x_len + y_len, 0);
+        AddLimbsAt(ans, ans_off, x_len + y_len, r0, 0);
+        AddLimbsAt(ans, ans_off, x_len + y_len, r1, third);
+        AddLimbsAt(ans, ans_off, x_len + y_len, rm1, 2 * third);
+        AddLimbsAt(ans, ans_off, x_len + y_len, rm2, 3 * third);
+        AddLimbsAt(ans, ans_off, x_len + y_len, rinf, 4 * third);
+    }
+
+    // Split a number into thirds, and work out x(0), x(1), x(-1), x(-2)
+    // and x(infinity), each as len two's complement limbs
+    private static int[][] ToomEvaluate(int[] x, int x_off, int x_len,
+            int third, int len) {
+        int[] x0, x1, x2, p1, pm1, pm2;
+
+        x0 = ToomPart(x, x_off, x_len, 0, third, len);
+        x1 = ToomPart(x, x_off, x_len, third, third, len);
+        x2 = ToomPart(x, x_off, x_len, 2 * third, third, len);
+
+        // x(1) = x0 + x1 + x2, and x(-1) = x0 - x1 + x2
+        p1 = x0.clone();
+        AddTwos(p1, x2);
+        pm1 = p1.clone();
+        AddTwos(p1, x1);
+        SubtractTwos(pm1, x1);
+        // x(-2) = 2 * (x(-1) + x2) - x0
+        pm2 = pm1.clone();
+        AddTwos(pm2, x2);
+        AddTwos(pm2, pm2);
+        SubtractTwos(pm2, x0);
+
+        return new int[][] { x0, p1, pm1, pm2, x2 };
+    }
+
+    // One third of a number (which may be short, or empty, at the top)
+    private static int[] ToomPart(int[] x, int x_off, int x_len, int start,
+            int third, int len) {
+        int[] ans = new int[len];
+        int count = Math.max(Math.min(third, x_len - start), 0);
+
+        if (count > 0) {
+            System.arraycopy(x, x_off + start, ans, 0, count);
+        }
+        return ans;
+    }
+
+    // Multiply two (two's complement) numbers, by multiplying their sizes
+    // and then fixing the sign
+    private static int[] ToomMultiply(int[] x, int[] y, int prod_len) {
+        boolean neg_x = x[x.length - 1] < 0;
+        boolean neg_y = y[y.length - 1] < 0;
+        int x_len, y_len;
+        int[] ans = new int[prod_len];
+
+        if (neg_x) {
+            x = x.clone();
+            NegateTwos(x);
+        }
+        if (neg_y) {
+            y = y.clone();
+            NegateTwos(y);
+        }
+        x_len = UsedLimbs(x);
+        y_len = UsedLimbs(y);
+        if (x_len == 0 || y_len == 0) {
+            return ans;
+        }
+        MultiplyLimbs(x, 0, x_len, y, 0, y_len, ans, 0);
+        if (neg_x ^ neg_y) {
+            NegateTwos(ans);
+        }
+        return ans;
+    }
+
+    // The number of limbs, not counting the zeros on top
+    private static int UsedLimbs(int[] x) {
+        int len = x.length;
+
+        while (len > 0 && x[len - 1] == 0) {
+            len--;
+        }
+        return len;
+    }
+
+    // x = x + y (same length, two's complement)
+    private static void AddTwos(int[] x, int[] y) {
+        long carry = 0;
+
+        for (int i = 0; i < x.length; i++) {
+            carry += (x[i] & LIMB_MASK) + (y[i] & LIMB_MASK);
+            x[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+    }
+
+    // x = x - y (same length, two's complement)
+    private static void SubtractTwos(int[] x, int[] y) {
+        long borrow = 0;
+
+        for (int i = 0; i < x.length; i++) {
+            borrow += (x[i] & LIMB_MASK) - (y[i] & LIMB_MASK);
+            x[i] = (int) borrow;
+            borrow >>= LIMB_BITS;
+        }
+    }
+
+    // x = -x
+    private static void NegateTwos(int[] x) {
+        long carry = 1;
+
+        for (int i = 0; i < x.length; i++) {
+            carry += (~x[i]) & LIMB_MASK;
+            x[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+    }
+
+    // x = x / 2 (keeping the sign)
+    private static void ShiftRightTwos(int[] x) {
+        for (int i = 0; i < x.length - 1; i++) {
+            x[i] = (x[i] >>> 1) | (x[i + 1] << (LIMB_BITS - 1));
+        }
+        x[x.length - 1] = x[x.length - 1] >> 1;
+    }
+
+    // x = x / 3 (the division always comes out even)
+    private static void DivideTwos3(int[] x) {
+        boolean negative = x[x.length - 1] < 0;
+
+        if (negative) {
+            NegateTwos(x);
+        }
+        DivideInt(x, x.length, 3);
+        if (negative) {
+            NegateTwos(x);
+        }
+    }
+
+    // Add a (positive) number into the len limbs at ans[ans_off], "shift"
+    // limbs up. The total always fits, so anything past the end is zero.
+    private static void AddLimbsAt(int[] ans, int ans_off, int len, int[] x,
+            int shift) {
+        long carry = 0;
+
+        for (int i = 0; shift + i < len && (i < x.length || carry != 0); i++) {
+            carry += ans[ans_off + shift + i] & LIMB_MASK;
+            if (i < x.length) {
+                carry += x[i] & LIMB_MASK;
+            }
+            ans[ans_off + shift + i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+    }
+
+    // Add the low "half" limbs of a number to the rest of it
+    private static void AddHalves(int[] x, int x_off, int x_len, int half,
+            int[] ans) {
+        long carry = 0;
+
+        for (int i = 0; i < half; i++) {
+            carry += x[x_off + i] & LIMB_MASK;
+            if (half + i < x_len) {
+                carry += x[x_off + half + i] & LIMB_MASK;
+            }
+            ans[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+        ans[half] = (int) carry;
+    }
+
+    // Take len limbs (starting at y[y_off]) away from x
+    private static void SubtractLimbs(int[] x, int x_len, int[] y, int y_off,
+            int len) {
+        long borrow = 0;
+
+        for (int i = 0; i < x_len; i++) {
+            if (i >= len && borrow == 0) {
+                break;
+            }
+            borrow += (x[i] & LIMB_MASK);
+            if (i < len) {
+                borrow -= (y[y_off + i] & LIMB_MASK);
+            }
+            x[i] = (int) borrow;
+            borrow >>= LIMB_BITS;
+        }
+    }
+
+    // Divide two BigInt values
+    public static BigInt Divide(BigInt x, BigInt y) {
+        return Divide(x, y, 0);
+    }
+
+    // Divide two BigInt values with required size
+    public static BigInt Divide(BigInt x, BigInt y, int size) {
+        return Divide(x, y, size, new BigInt());
+    }
+
+    // Divide two BigInt values with required size, putting the answer in dest
+    public static BigInt Divide(BigInt x, BigInt y, int size, BigInt dest) {
+        BigInt temp_y = Operands(x, y, dest);
+
+        dest.Divide(temp_y, size);
+        return dest;
+    }
+
+    // Divide the current value with a BigInt value
+    public void Divide(BigInt y, int size) {
+        CheckWritable();
+
+        DivRem(y, size, SCRATCH.get().rem);
+    }
+
+    // Divide x by y, returning both the quotient and the remainder
+    public static BigInt[] DivRem(BigInt x, BigInt y) {
+        return DivRem(x, y, 0);
+    }
+
+    // Divide x by y, returning both the quotient and the remainder with
+    // required size
+    public static BigInt[] DivRem(BigInt x, BigInt y, int size) {
+        BigInt[] ans = new BigInt[2];
+
+        ans[0] = new BigInt();
+        ans[1] = new BigInt();
+        DivRem(x, y, size, ans[0], ans[1]);
+        return ans;
+    }
+
+    // Divide x by y with required size, putting the quotient and the
+    // remainder in the given (different) BigInts
+    public static void DivRem(BigInt x, BigInt y, int size, BigInt quotient,
+            BigInt remainder) {
+        BigInt temp_y = Operands(x, y, quotient);
+
+        quotient.DivRem(temp_y, size, remainder);
+    }
+
+    // Divide the current value with a BigInt value, and return the remainder.
+    // Both come out of the same long division. The current value becomes
+    // the quotient (with the Carry and Overflow flags of a Divide), and the
+    // remainder has the same sign as the original value.
+    public BigInt DivRem(BigInt y, int size) {
+        BigInt rem = new BigInt();
+
+        CheckWritable();
+        DivRem(y, size, rem);
+        return rem;
+    }
+
+    // Same as above, but the remainder goes into rem
+    private void DivRem(BigInt y, int size, BigInt rem) {
+        int real_bitsize;
+        int[] quotient, remainder;
+        BigInt temp_x, temp_y;
+        boolean neg = false, rem_neg = false;
+        Scratch scratch;
+
+        real_bitsize = (size > 0) ? size
+                : ((BitSize >= y.BitSize) ? BitSize : y.BitSize);
+        if (real_bitsize <= LONG_BITS && BitSize <= real_bitsize
+                && y.BitSize <= real_bitsize) {
+            DivRemLong(y, real_bitsize, rem);
+            return;
+        }
+        scratch = SCRATCH.get();
+        temp_y = scratch.y.Set(y);
+        temp_x = scratch.x.Set(this);
+
+        // We need a bit more "wiggle room" than just the current bitsize,
+        // so round off to the nearest limb and add 1 limb
+        rem.pBIArithMode = pBIArithMode;
+        rem.Clear();
+        rem.SetSize(real_bitsize);
+        if (pBIArithMode != ArithMode.Unsigned) {
+            rem_neg = SignBit();
+        }
+        SetSize(RoundUp(real_bitsize));
+        temp_x.SetSize(BitSize);
+        temp_y.SetSize(BitSize);
+
+        // When using signed numbers, we first figure out the what the sign of
+        // the answer will be, then convert everything to absolute value
+        if (pBIArithMode != ArithMode.Unsigned) {
+            // if either is negative (but not both)
+            if (temp_x.SignBit() ^ temp_y.SignBit()) {
+                neg = true;
+            }
+            temp_x.AbsoluteValue();
+            temp_x.pBIArithMode = ArithMode.Unsigned;
+
+            temp_y.AbsoluteValue();
+            temp_y.pBIArithMode = ArithMode.Unsigned;
+        }
+
+        // Sanity check (after the absolute value, so 1's complement -0 is
+        // caught too)
+        if (temp_y.IsZero()) {
+            SetSize(real_bitsize);
+            Clear();
+            rem.pOverflow = true;
+            return;
+        }
+
+        if (temp_x.IsLess(temp_y)) {
+            // Special case (the answer is zero, and all of x is left over)
+            SetSize(real_bitsize);
+            Clear();
+            remainder = temp_x.n;
+            pCarryBit = !temp_x.IsZero();
+        } else {
+            // Long division, one limb of the answer at a time
+            Clear();
+            remainder = new int[temp_y.MaxLimb() + 1];
+            quotient = DivideLimbs(temp_x.n, temp_x.MaxLimb() + 1, temp_y.n,
+                    temp_y.MaxLimb() + 1, remainder);
+            System.arraycopy(quotient, 0, n, 0, quotient.length);
+
+            // (a positive signed answer has to leave room for the sign, which
+            // only matters for -2^(n-1) / -1 in 2's complement)
+            pCarryBit = !IsZero(remainder);
+            pOverflow = (MaxBit() >= real_bitsize)
+                    || ((pBIArithMode != ArithMode.Unsigned) && !neg
+                            && BitTest(real_bitsize - 1));
+            SetSize(real_bitsize);
+            if (neg && !IsZero()) {
+                ChangeSign();
+            }
+        }
+
+        // The remainder always fits, since it is smaller than y
+        for (int i = 0; i <= rem.LastLimb && i < remainder.length; i++) {
+            rem.n[i] = remainder[i];
+        }
+        rem.Mask();
+        if (rem_neg && !rem.IsZero()) {
+            // the remainder has the same sign as x
+            rem.ChangeSign();
+        }
+    }
+
+    // Modulus (Division Remainder)
+    public static BigInt Mod(BigInt x, BigInt y) {
+        return Remainder(x, y, 0);
+    }
+
+    // Modulus (Division Remainder) with required size
+    public static BigInt Mod(BigInt x, BigInt y, int size) {
+        return Remainder(x, y, size);
+    }
+
+    // Modulus (Division Remainder)
+    public static BigInt Remainder(BigInt x, BigInt y) {
+        return Remainder(x, y, 0);
+    }
+
+    // Modulus (Division Remainder) with required size
+    public static BigInt Remainder(BigInt x, BigInt y, int size) {
+        return Remainder(x, y, size, new BigInt());
+    }
+
+    // Modulus (Division Remainder) with required size, putting the answer
+    // in dest
+    public static BigInt Remainder(BigInt x, BigInt y, int size, BigInt dest) {
+        BigInt quotient = SCRATCH.get().quotient;
+
+        quotient.Set(x);
+        quotient.DivRem(y, size, dest);
+        return dest;
+    }
+
+    // The long division kernel (Knuth's Algorithm D). Divides the first u_len
+    // limbs of u by the first v_len limbs of v (the top one must not be zero)
+    // and returns the quotient. The remainder (v_len limbs) is written into
+    // rem. This is almost like you were taught in school... each digit of the
+    // answer is estimated from the top two digits of the "chunk" of the
+    // dividend, and that guess is off by at most 2, which gets fixed up.
+    private static int[] DivideLimbs(int[] u, int u_len, int[] v, int v_len,
+            int[] rem) {
+        int[] q, un, vn;
+        int shift;
+        long divisor, num, qhat, rhat, p, t, k;
+
+        q = new int[Math.max(u_len - v_len + 1, 1)];
+
+        // A single limb divisor is a lot simpler
+        if (v_len == 1) {
+            divisor = v[0] & LIMB_MASK;
+            k = 0;
+            for (int j = u_len - 1; j >= 0; j--) {
+                num = (k << LIMB_BITS) | (u[j] & LIMB_MASK);
+                qhat = DivideWord(num, divisor);
+                q[j] = (int) qhat;
+                k = num - qhat * divisor;
+            }
+            rem[0] = (int) k;
+            return q;
+        }
+
+        // Normalize, so the top limb of the divisor has its high bit set.
+        // This is what keeps the digit guesses so close.
+        shift = Integer.numberOfLeadingZeros(v[v_len - 1]);
+        vn = new int[v_len];
+        for (int i = v_len - 1; i > 0; i--) {
+            vn[i] = (v[i] << shift)
+                    | (shift == 0 ? 0 : (v[i - 1] >>> (LIMB_BITS - shift)));
+        }
+        vn[0] = v[0] << shift;
+        un = new int[u_len + 1];
+        un[u_len] = (shift == 0) ? 0 : (u[u_len - 1] >>> (LIMB_BITS - shift));
+        for (int i = u_len - 1; i > 0; i--) {
+            un[i] = (u[i] << shift)
+                    | (shift == 0 ? 0 : (u[i - 1] >>> (LIMB_BITS - shift)));
+        }
+        un[0] = u[0] << shift;
+
+        divisor = vn[v_len - 1] & LIMB_MASK;
+        for (int j = u_len - v_len; j >= 0; j--) {
+            // Guess the answer digit from the top two digits
+            num = ((un[j + v_len] & LIMB_MASK) << LIMB_BITS)
+                    | (un[j + v_len - 1] & LIMB_MASK);
+            qhat = DivideWord(num, divisor);
+            rhat = num - qhat * divisor;
+            while (qhat > LIMB_MASK
+                    || IsGreaterUnsigned(qhat * (vn[v_len - 2] & LIMB_MASK),
+                            (rhat << LIMB_BITS)
+                                    | (un[j + v_len - 2] & LIMB_MASK))) {
+                qhat = qhat - 1;
+                rhat = rhat + divisor;
+                if (rhat > LIMB_MASK) {
+                    break;
+                }
+            }
+
+            // Multiply and subtract
+            k = 0;
+            for (int i = 0; i < v_len; i++) {
+                p = qhat * (vn[i] & LIMB_MASK);
+                t = (un[i + j] & LIMB_MASK) - k - (p & LIMB_MASK);
+                un[i + j] = (int) t;
+                k = (p >>> LIMB_BITS) - (t >> LIMB_BITS);
+            }
+            t = (un[j + v_len] & LIMB_MASK) - k;
+            un[j + v_len] = (int) t;
+
+            // If we subtracted too much, add one divisor back
+            q[j] = (int) qhat;
+            if (t < 0) {
+                q[j] = q[j] - 1;
+                k = 0;
+                for (int i = 0; i < v_len; i++) {
+                    t = (un[i + j] & LIMB_MASK) + (vn[i] & LIMB_MASK) + k;
+                    un[i + j] = (int) t;
+                    k = t >>> LIMB_BITS;
+                }
+                un[j + v_len] = un[j + v_len] + (int) k;
+            }
+        }
+
+        // Un-normalize the remainder
+        for (int i = 0; i < v_len - 1; i++) {
+            rem[i] = (un[i] >>> shift)
+                    | (shift == 0 ? 0 : (un[i + 1] << (LIMB_BITS - shift)));
+        }
+        rem[v_len - 1] = un[v_len - 1] >>> shift;
+        return q;
+    }
+
+    // Divide the first len limbs of x (in place) by a small positive
+    // divisor, and return the remainder
+    private static long DivideInt(int[] x, int len, int divisor) {
+        long num, rem;
+
+        rem = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            num = (rem << LIMB_BITS) | (x[i] & LIMB_MASK);
+            x[i] = (int) (num / divisor);
+            rem = num % divisor;
+        }
+        return rem;
+    }
+
+    // Multiply the first len limbs of x (in place) by a small positive
+    // multiplier and add a small value. Returns whatever carried out of the
+    // top limb.
+    private static int MultiplyAddInt(int[] x, int len, int mult, int add) {
+        long carry;
+
+        carry = add & LIMB_MASK;
+        for (int i = 0; i < len; i++) {
+            carry += (x[i] & LIMB_MASK) * mult;
+            x[i] = (int) carry;
+            carry >>>= LIMB_BITS;
+        }
+        return (int) carry;
+    }
+
+    // Divide an unsigned 64 bit value by a divisor of no more than 32 bits
+    private static long DivideWord(long num, long divisor) {
+        long q, r;
+
+        if (num >= 0) {
+            return num / divisor;
+        }
+        // The top bit is set, so halve it first and then fix up the answer
+        q = ((num >>> 1) / divisor) << 1;
+        r = num - q * divisor;
+        while (r >= divisor) {
+            q = q + 1;
+            r = r - divisor;
+        }
+        return q;
+    }
+
+    // Unsigned comparison of two 64 bit values
+    private static boolean IsGreaterUnsigned(long x, long y) {
+        return (x + Long.MIN_VALUE) > (y + Long.MIN_VALUE);
+    }
+
+    // Power (raise x to the power of y)
+    public static BigInt Power(BigInt x, BigInt y) {
+        BigInt ans = x.Copy();
+        ans.Power(y, 0);
+        return ans;
+    }
+
+    // Power (raise x to the power of y) with required size
+    public static BigInt Power(BigInt x, BigInt y, int size) {
+        BigInt ans = x.Copy();
+        ans.Power(y, size);
+        return ans;
+    }
+
+    // Power (raise the current value to the power of y)
+    public void Power(BigInt y, int size) {
+        int real_bitsize;
+        boolean over = false, neg = false, signed;
+        ArithMode mode = pBIArithMode;
+        BigInt temp_x, temp_y, one;
+
+        CheckWritable();
+
+        temp_x = this.Copy();
+        temp_y = y.Copy();
+        temp_y.pBIArithMode = mode;
+
+        real_bitsize = (size > 0) ? size
+                : ((temp_x.BitSize >= temp_y.BitSize) ? temp_x.BitSize
+                        : temp_y.BitSize);
+        temp_x.SetSize(real_bitsize);
+        temp_y.SetSize(real_bitsize);
+        signed = (mode != ArithMode.Unsigned);
+
+        // Any number raised to the 0th power is 1
+        if (temp_y.IsZero()) {
+            SetSize(real_bitsize);
+            Clear();
+            n[0] = 1;
+            return;
+        }
+
+        // Signed numbers work with the size of x (like Multiply), and put
+        // the sign back on at the end. A negative power is a fraction, which
+        // truncates to zero, unless x is 1 or -1.
+        if (signed) {
+            neg = temp_x.SignBit();
+            temp_x.AbsoluteValue();
+            temp_x.pBIArithMode = ArithMode.Unsigned;
+            if (temp_y.SignBit()) {
+                // (1's complement -0 is just a 0th power)
+                temp_y.AbsoluteValue();
+                SetSize(real_bitsize);
+                Clear();
+                if (temp_y.IsZero() || temp_x.Equals(BigInt.One(real_bitsize))) {
+                    n[0] = 1;
+                    if (neg && temp_y.BitTest(0)) {
+                        ChangeSign();
+                    }
+                }
+                return;
+            }
+            neg = neg && temp_y.BitTest(0);
+            temp_y.pBIArithMode = ArithMode.Unsigned;
+            pBIArithMode = ArithMode.Unsigned;
+        }
+
+        // set to the correct size first, then add padding
+        SetSize(RoundUp(real_bitsize));
+        temp_x.SetSize(BitSize);
+        temp_y.SetSize(BitSize);
+        one = BigInt.One(BitSize, ArithMode.Unsigned);
+
+        // There are a whole bunch of special cases!
+        if (temp_y.Equals(one) || temp_x.Equals(one) || temp_x.IsZero()) {
+            // x^1 is x, and any power of 1 or 0 is itself
+            Clear();
+            System.arraycopy(temp_x.n, 0, n, 0, LastLimb + 1);
+        } else if (!temp_x.BitTest(0)
+                && (temp_y.MaxBit() >= LIMB_BITS - 1
+                        || (temp_y.n[0] & LIMB_MASK) >= real_bitsize)) {
+            // An even number raised to the y has at least y trailing zero
+            // bits, so once y reaches the word size all that is left is an
+            // overflow
+            Clear();
+            over = true;
+        } else {
+            // Square and multiply, working down from the top bit of y.
+            // Multiply keeps everything modulo the padded size, so once the
+            // value gets too big we just carry on with the truncated value
+            // (which is all that is kept anyway) and remember that it
+            // overflowed.
+            Clear();
+            n[0] = 1;
+            for (int i = temp_y.MaxBit(); i >= 0; i--) {
+                Multiply(this, BitSize);
+                over = over | pOverflow;
+                if (temp_y.BitTest(i)) {
+                    Multiply(temp_x, BitSize);
+                    over = over | pOverflow;
+                }
+            }
+        }
+        pOverflow = (over | (MaxBit() >= real_bitsize));
+        SetSize(real_bitsize);
+        pBIArithMode = mode;
+
+        // The size has to leave room for the sign (only 2's complement has
+        // room for the biggest negative number)
+        if (signed && BitTest(real_bitsize - 1)
+                && !(neg && (mode == ArithMode.TwosComplement) && IsSignOnly())) {
+            pOverflow = true;
+        }
+        if (neg && !IsZero()) {
+            ChangeSign();
+        }
+    }
+
+    // Square Root of x (using Newton's method)
+    public static BigInt SquareRoot(BigInt x) {
+        BigInt ans = x.Copy();
+        ans.SquareRoot(0);
+        return ans;
+    }
+
+    // Square Root of x (using Newton's method) with required size
+    public static BigInt SquareRoot(BigInt x, int size) {
+        BigInt ans = x.Copy();
+        ans.SquareRoot(size);
+        return ans;
+    }
+
+    // Square Root of the current value (using Newton's method)
+    public void SquareRoot(int size) {
+        BigInt temp_x, r, q;
+        int real_bitsize, shift;
+        long root;
+        boolean sign;
+
+        CheckWritable();
+
+        sign = SignBit();
+        real_bitsize = size > 0 ? size : BitSize;
+        SetSize(RoundUp(real_bitsize));
+
+        // a quick sanity check
+        if (IsZero() || (pBIArithMode != ArithMode.Unsigned) && sign) {
+            pOverflow = true;
+            Clear();
+            return;
+        }
+
+        if (MaxBit() < 2 * LIMB_BITS) {
+            // It fits in a long, so the floating point square root gets us
+            // right next to the answer, and the remainder comes for free
+            root = SquareRootLong(GetLow64());
+            pCarryBit = (GetLow64() - root * root) != 0;
+            SetLow64(root);
+        } else {
+            // Newton's method, but started from just above the answer (using
+            // the floating point square root of the top 52 or so bits) so it
+            // only takes a handful of steps
+            temp_x = this.Copy();
+            temp_x.pBIArithMode = ArithMode.Unsigned;
+            shift = (MaxBit() - 51) & ~1;
+            r = temp_x.Copy();
+            r.RightShift(shift, false, 0);
+            root = (long) Math.sqrt((double) r.GetLow64()) + 1;
+            r.SetLow64(root);
+            r.LeftShift(shift / 2, 0);
+            while (true) {
+                q = temp_x.Copy();
+                q.DivRem(r, 0);
+                q._Add(r);
+                q.ShiftRightOne();
+                if (!q.IsLess(r)) {
+                    break;
+                }
+                r = q;
+            }
+
+            // Carry on remainder (not a perfect square)
+            pCarryBit = !Multiply(r, r).Equals(temp_x);
+            System.arraycopy(r.n, 0, n, 0, LastLimb + 1);
+        }
+
+        // remove the wiggle room (if any)
+        SetSize(real_bitsize);
+    }
+
+    // Integer square root of an unsigned 64 bit value
+    private static long SquareRootLong(long v) {
+        long root;
+
+        // A double is good to within one or so, so just fix it up
+        root = (long) Math.sqrt((v >= 0) ? (double) v : (double) (v >>> 1) * 2.0);
+        if (root > LIMB_MASK) {
+            root = LIMB_MASK;
+        }
+        while (IsGreaterUnsigned(root * root, v)) {
+            root = root - 1;
+        }
+        while (root < LIMB_MASK
+                && !IsGreaterUnsigned((root + 1) * (root + 1), v)) {
+            root = root + 1;
+        }
+        return root;
+    }
+
+    /*
+     * ******************** Word sizes that fit in a long *********************
+     * These are the same as the general versions above, flags and all, but
+     * work on the value as a single (unsigned) long. (Multiply and Divide
+     * only come here when neither value is being cut down to a smaller size,
+     * since the general versions look at the bits past the real size.)
+     */
+
+    // Add for word sizes up to 64 bits
+    private void AddLong(BigInt y, int real_bitsize) {
+        long x_val, y_val, sum;
+        boolean sign_x, sign_y, sign;
+
+        x_val = Low64At(real_bitsize);
+        y_val = y.Low64At(real_bitsize);
+        sign_x = TestBit64(x_val, real_bitsize - 1);
+        sign_y = TestBit64(y_val, real_bitsize - 1);
+
+        sum = x_val + y_val;
+        pCarryBit = (real_bitsize == LONG_BITS) ? IsGreaterUnsigned(x_val, sum)
+                : TestBit64(sum, real_bitsize);
+        switch (getBIArithMode()) {
+        case Unsigned:
+            pOverflow = pCarryBit;
+            break;
+        case OnesComplement:
+        case TwosComplement:
+            // the "wrap around" rule for adding 1's complement numbers
+            if (pCarryBit && (pBIArithMode == ArithMode.OnesComplement)) {
+                sum = sum + 1;
+            }
+            sign = TestBit64(sum, real_bitsize - 1);
+            pOverflow = (sign_x && sign_y && !sign && pCarryBit)
+                    || (!sign_x && !sign_y && sign && !pCarryBit);
+            break;
+        }
+        SetSize(real_bitsize);
+        SetLow64(sum);
+    }
+
+    // Subtract for word sizes up to 64 bits
+    private void SubtractLong(BigInt y, int real_bitsize) {
+        long x_val, y_val, diff;
+        boolean sign_x, sign_y, sign;
+
+        x_val = Low64At(real_bitsize);
+        y_val = y.Low64At(real_bitsize);
+        sign_x = TestBit64(x_val, real_bitsize - 1);
+        sign_y = TestBit64(y_val, real_bitsize - 1);
+
+        // the carry is really a "borrow"
+        diff = x_val - y_val;
+        pCarryBit = IsGreaterUnsigned(y_val, x_val);
+        switch (getBIArithMode()) {
+        case Unsigned:
+            pOverflow = pCarryBit;
+            break;
+        case OnesComplement:
+        case TwosComplement:
+            // the "wrap around" rule for subtracting 1's complement numbers
+            if (pCarryBit && (pBIArithMode == ArithMode.OnesComplement)) {
+                diff = diff - 1;
+            }
+            sign = TestBit64(diff, real_bitsize - 1);
+            pOverflow = (sign_x && !sign_y && !sign && !pCarryBit)
+                    || (!sign_x && sign_y && sign && pCarryBit);
+            break;
+        }
+        SetSize(real_bitsize);
+        SetLow64(diff);
+    }
+
+    // Multiply for word sizes up to 64 bits
+    private void MultiplyLong(BigInt y, int real_bitsize) {
+        long x_val, y_val, product;
+
+        x_val = Low64At(real_bitsize);
+        y_val = y.Low64At(real_bitsize);
+        product = x_val * y_val;
+
+        SetSize(real_bitsize);
+        Clear();
+        if (x_val == 0 || y_val == 0) {
+            return;
+        }
+
+        // (signed numbers have already been made positive, so it is an
+        // overflow if the product needs more than real_bitsize bits)
+        pOverflow = MultiplyHigh(x_val, y_val) != 0
+                || ((real_bitsize < LONG_BITS) && (product >>> real_bitsize) != 0);
+        SetLow64(product);
+    }
+
+    // Divide (with remainder) for word sizes up to 64 bits
+    private void DivRemLong(BigInt y, int real_bitsize, BigInt rem) {
+        long x_val, y_val, quotient, remainder;
+        boolean neg = false, rem_neg = false;
+
+        x_val = Low64At(real_bitsize);
+        y_val = y.Low64At(real_bitsize);
+        if (pBIArithMode != ArithMode.Unsigned) {
+            rem_neg = SignBit();
+        }
+        rem.pBIArithMode = pBIArithMode;
+        rem.Clear();
+        rem.SetSize(real_bitsize);
+        SetSize(real_bitsize);
+        Clear();
+
+        // When using signed numbers, we first figure out the what the sign of
+        // the answer will be, then convert everything to absolute value
+        if (pBIArithMode != ArithMode.Unsigned) {
+            if (TestBit64(x_val, real_bitsize - 1)) {
+                neg = !neg;
+                x_val = NegateLong(x_val, real_bitsize);
+            }
+            if (TestBit64(y_val, real_bitsize - 1)) {
+                neg = !neg;
+                y_val = NegateLong(y_val, real_bitsize);
+            }
+        }
+
+        // Sanity check (after the absolute value, so 1's complement -0 is
+        // caught too)
+        if (y_val == 0) {
+            rem.pOverflow = true;
+            return;
+        }
+
+        if (IsGreaterUnsigned(y_val, x_val)) {
+            // Special case (the answer is zero, and all of x is left over)
+            remainder = x_val;
+            pCarryBit = remainder != 0;
+        } else {
+            quotient = DivideUnsigned(x_val, y_val);
+            remainder = x_val - quotient * y_val;
+
+            // (a positive signed answer has to leave room for the sign)
+            pCarryBit = remainder != 0;
+            pOverflow = (pBIArithMode != ArithMode.Unsigned) && !neg
+                    && TestBit64(quotient, real_bitsize - 1);
+            SetLow64((neg && quotient != 0) ? NegateLong(quotient, real_bitsize)
+                    : quotient);
+        }
+
+        rem.SetLow64((rem_neg && remainder != 0) ? NegateLong(remainder,
+                real_bitsize) : remainder);
+    }
+
+    // Change the sign of a value that fits in a long (in either of the
+    // signed modes)
+    private long NegateLong(long val, int real_bitsize) {
+        if (pBIArithMode == ArithMode.OnesComplement) {
+            return ~val & Mask64(real_bitsize);
+        }
+        return -val & Mask64(real_bitsize);
+    }
+
+    /*
+     * ************************ Bitwise Operators ****************************
+     */
+
+    // Perform a Bitwise AND operation of x and y
+    public static BigInt BitwiseAnd(BigInt x, BigInt y) {
+        BigInt ans = x.Copy();
+        ans.BitwiseAnd(y, 0);
+        return ans;
+    }
+
+    // Perform a Bitwise AND operation of x and y with required size
+    public static BigInt BitwiseAnd(BigInt x, BigInt y, int size) {
+        BigInt ans = x.Copy();
+        ans.BitwiseAnd(y, size);
+        return ans;
+    }
+
+    // Perform a Bitwise AND operation
+    public void BitwiseAnd(BigInt y, int size) {
+        BigInt temp_y;
+
+        CheckWritable();
+
+        // First we have to make a copy of the variables
+        temp_y = y.Copy();
+
+        // pick the bit size of the answer
+        SetSize((size > 0) ? size : ((BitSize >= temp_y.BitSize) ? BitSize
+                : temp_y.BitSize));
+
+        // Resize the y (since the size may have changed)
+        temp_y.SetSize(BitSize);
+
+        for (int i = 0; i <= LastLimb; i++) {
+            this.n[i] = this.n[i] & temp_y.n[i];
+        }
+    }
+
+    // Perform a Bitwise OR operation of x and y
+    public static BigInt BitwiseOr(BigInt x, BigInt y) {
+        BigInt ans = x.Copy();
+        ans.BitwiseOr(y, 0);
+        return ans;
+    }
+
+    // Perform a Bitwise OR operation of x and y with required size
+    public static BigInt BitwiseOr(BigInt x, BigInt y, int size) {
+        BigInt ans = x.Copy();
+        ans.BitwiseOr(y, size);
+        return ans;
+    }
+
+    // Perform a Bitwise OR operation
+    public void BitwiseOr(BigInt y, int size) {
+        BigInt temp_y;
+
+        CheckWritable();
+
+        temp_y = y.Copy();
+
+        SetSize((size > 0) ? size : ((BitSize >= temp_y.BitSize) ? BitSize
+                : temp_y.BitSize));
+        temp_y.SetSize(BitSize);
+
+        for (int i = 0; i <= LastLimb; i++) {
+            this.n[i] = this.n[i] | temp_y.n[i];
+        }
+    }
+
+    // Perform a Bitwise NOT operation of x
+    public static BigInt OnesComplement(BigInt x) {
+        BigInt ans = x.Copy();
+        ans.OnesComplement(0);
+        return ans;
+    }
+
+    // Perform a Bitwise NOT operation of x with required size
+    public static BigInt OnesComplement(BigInt x, int size) {
+        BigInt ans = x.Copy();
+        ans.OnesComplement(size);
+        return ans;
+    }
+
+    // Perform a Bitwise NOT operation
+    public void OnesComplement(int size) {
+        CheckWritable();
+
+        if (size > 0) {
+            SetSize(size);
+        }
+
+        for (int i = 0; i <= LastLimb; i++) {
+            this.n[i] = ~this.n[i];
+        }
+        Mask();
+    }
+
+    // Perform a Bitwise Exclusive OR operation on x and y
+    public static BigInt Xor(BigInt x, BigInt y) {
+        BigInt ans = x.Copy();
+        ans.Xor(y, 0);
+        return ans;
+    }
+
+    // Perform a Bitwise Exclusive OR operation on x and y with required size
+    public static BigInt Xor(BigInt x, BigInt y, int size) {
+        BigInt ans = x.Copy();
+        ans.Xor(y, size);
+        return ans;
+    }
+
+    // Perform a Bitwise Exclusive OR operation
+    public void Xor(BigInt y, int size) {
+        BigInt temp_y;
+
+        CheckWritable();
+
+        temp_y = y.Copy();
+
+        SetSize((size > 0) ? size : ((BitSize >= temp_y.BitSize) ? BitSize
+                : temp_y.BitSize));
+        temp_y.SetSize(BitSize);
+
+        for (int i = 0; (i <= LastLimb); i++) {
+            this.n[i] = this.n[i] ^ temp_y.n[i];
+        }
+    }
+
+    // Shift the bit pattern of x to the Left
+    public static BigInt LeftShift(BigInt x, int distance) {
+        BigInt ans = x.Copy();
+        ans.LeftShift(distance, 0);
+        return ans;
+    }
+
+    // Shift the bit pattern of x to the Left with required size
+    public static BigInt LeftShift(BigInt x, int distance, int size) {
+        BigInt ans = x.Copy();
+        ans.LeftShift(distance, size);
+        return ans;
+    }
+
+    // Shift the bit pattern to the Left
+    public void LeftShift(int distance, int size) {
+        CheckWritable();
+
+        if (size > 0) {
+            SetSize(size);
+        }
+
+        // a bit of sanity checking
+        if (distance <= 0) {
+            return;
+        }
+
+        // Carry is the last bit shifted out of the top
+        pCarryBit = (distance <= BitSize) && BitTest(BitSize - distance);
+        ShiftLeftBits(distance);
+    }
+
+    // Shift the bit pattern of x to the Right
+    public static BigInt RightShift(BigInt x, int distance) {
+        BigInt ans = x.Copy();
+        ans.RightShift(distance, false, 0);
+        return ans;
+    }
+
+    // Shift the bit pattern of x to the Right with required size
+    public static BigInt RightShift(BigInt x, int distance, int size) {
+        BigInt ans = x.Copy();
+        ans.RightShift(distance, false, size);
+        return ans;
+    }
+
+    // Shift the bit pattern to the Right
+    public void RightShift(int distance, boolean SaveSign, int size) {
+        boolean arithmetic;
+
+        CheckWritable();
+
+        if (size > 0) {
+            SetSize(size);
+        }
+
+        // a bit of sanity checking
+        if (distance <= 0) {
+            return;
+        }
+
+        // are we doing an Arithmetic Shift Right?
+        arithmetic = SaveSign && SignBit()
+                && (pBIArithMode != ArithMode.Unsigned);
+
+        // Carry is the last bit shifted out of the bottom (which is the sign
+        // bit, once that is all that is left)
+        pCarryBit = (distance <= BitSize) ? BitTest(distance - 1) : arithmetic;
+        ShiftRightBits(distance);
+        if (arithmetic) {
+            SetHighBits(Math.max(BitSize - distance, 0));
+        }
+    }
+
+    // Rotate the bit pattern of x to the Right
+    public static BigInt RotateRight(BigInt x, int distance, boolean WithCarry,
+            boolean StartingCarry, int size) {
+        BigInt ans = x.Copy();
+        ans.RotateRight(distance, WithCarry, StartingCarry, size);
+        return ans;
+    }
+
+    // Rotate the bit pattern to the Right
+    public void RotateRight(int distance, boolean WithCarry, boolean StartingCarry, int size) {
+        // v6.0.3 - 5 May 12
+        int real_bitsize;
+
+        CheckWritable();
+
+        if (size > 0) {
+            SetSize(size);
+        }
+
+        // a bit of sanity checking
+        if (distance <= 0) {
+            return;
+        }
+        if (WithCarry) {
+            // The carry acts like one more bit on top, so rotate all of them
+            real_bitsize = BitSize;
+            AddPadding(real_bitsize + 1);
+            if (StartingCarry) {
+                BitSet(real_bitsize);
+            }
+            _RotateRight(distance % BitSize);
+            pCarryBit = BitTest(real_bitsize);
+            AddPadding(real_bitsize);
+        } else {
+            _RotateRight(distance % BitSize);
+            // Carry is the last bit rotated out of the bottom (which is now
+            // at the top)
+            pCarryBit = SignBit();
+        }
+    }
+
+    // Rotate the bit pattern to the Left
+    public static BigInt RotateLeft(BigInt x, int distance, boolean WithCarry,
+            boolean StartingCarry, int size) {
+        BigInt ans = x.Copy();
+        ans.RotateLeft(distance, WithCarry, StartingCarry, size);
+        return ans;
+    }
+
+    // Rotate the bit pattern to the Left
+    public void RotateLeft(int distance, boolean WithCarry, boolean StartingCarry, int size) {
+        // v6.0.3 - 5 May 12
+        int real_bitsize;
+
+        CheckWritable();
+
+        if (size > 0) {
+            SetSize(size);
+        }
+
+        // a bit of sanity checking
+        if (distance <= 0) {
+            return;
+        }
+
+        // Rotating left is rotating right the "other way around"
+        if (WithCarry) {
+            // The carry acts like one more bit on top, so rotate all of them
+            real_bitsize = BitSize;
+            AddPadding(real_bitsize + 1);
+            if (StartingCarry) {
+                BitSet(real_bitsize);
+            }
+            _RotateRight((BitSize - distance % BitSize) % BitSize);
+            pCarryBit = BitTest(real_bitsize);
+            AddPadding(real_bitsize);
+        } else {
+            _RotateRight((BitSize - distance % BitSize) % BitSize);
+            // Carry is the last bit rotated out of the top (which is now at
+            // the bottom)
+            pCarryBit = BitTest(0);
+        }
+    }
+
+    /*
+     * ************************ Equality Operators ******************************
+     */
+
+    // Is the current BigInt equal to zero?
+    public boolean IsZero() {
+        for (int i = 0; i <= LastLimb; i++) {
+            if (this.n[i] != 0) {
+                return false;
+            }
+        }
+        // (1's complement -0 isn't, see IsZeroValue)
+        return true;
+    }
+
+    // Is the current BigInt zero as a number? This is the same as IsZero,
+    // except that 1's complement -0 (every bit set) is zero too
+    public boolean IsZeroValue() {
+        if (pBIArithMode != ArithMode.OnesComplement) {
+            return IsZero();
+        }
+        for (int i = 0; i < LastLimb; i++) {
+            if (this.n[i] != -1) {
+                return false;
+            }
+        }
+        return IsZero() || n[LastLimb] == pSize.topMask;
+    }
+
+    // Test for equality (is x = y)
+    public static boolean Equals(BigInt x, BigInt y) {
+        if (x == null & y == null) {
+            return true;
+        }
+
+        if (x == null ^ y == null) {
+            return false;
+        }
+
+        if (Compare(x, y) == 0) {
+            return true;
+        }
+        return false;
+    }
+
+    // Test for equality
+    public boolean Equals(BigInt y) {
+        if (y == null) {
+            return false;
+        }
+
+        if (Compare(this, y) == 0) {
+            return true;
+        }
+        return false;
+    }
+
+    // Less Than
+    public boolean IsLess(BigInt y) {
+        if (Compare(this, y) == -1) {
+            return true;
+        }
+        return false;
+    }
+
+    // Less Than or Equal
+    public boolean IsLessOrEqual(BigInt y) {
+        if (Compare(this, y) <= 0) {
+            return true;
+        }
+        return false;
+    }
+
+    // Greater Than
+    public boolean IsGreater(BigInt y) {
+        if (Compare(this, y) == 1) {
+            return true;
+        }
+        return false;
+    }
+
+    // Greater Than or Equal
+    public boolean IsGreaterOrEqual(BigInt y) {
+        if (Compare(this, y) >= 0) {
+            return true;
+        }
+        return false;
+    }
+
+    // Compare a BigInt value with another
+    public static int Compare(BigInt x, BigInt y) {
+        BigInt temp_x, temp_y;
+
+        temp_x = x;
+        temp_y = y;
+
+        // make copies only if we have to change the bit size
+        if ((temp_x.BitSize > temp_y.BitSize)) {
+            temp_y = y.Copy();
+            temp_y.SetSize(temp_x.BitSize);
+        }
+        if ((temp_y.BitSize > temp_x.BitSize)) {
+            temp_x = x.Copy();
+            temp_x.SetSize(temp_y.BitSize);
+        }
+
+        // Comparing negative number is a bit easier, since we know that any
+        // positive number is greater than any negative number
+        if (x.pBIArithMode != ArithMode.Unsigned) {
+            boolean sign_x = temp_x.SignBit();
+            boolean sign_y = temp_y.SignBit();
+
+            // when either is negative (but not both)
+            if (sign_x ^ sign_y) {
+                if (sign_y) {
+                    return 1;
+                }
+                return -1;
+            }
+            // UNDONE: In some situations you might want 1's comp mode 0 = -0
+        }
+        for (int i = temp_x.LastLimb; i >= 0; i--) {
+            if ((temp_x.n[i] & LIMB_MASK) > (temp_y.n[i] & LIMB_MASK)) {
+                // x > y
+                return 1;
+            }
+            if ((temp_x.n[i] & LIMB_MASK) < (temp_y.n[i] & LIMB_MASK)) {
+                // x < y
+                return -1;
+            }
+        }
+        // must be equal
+        return 0;
+    }
+
+    /*
+     * ************************* Import/Export functions *****************************
+     */
+
+    // Convert to an integer
+    public int ToInteger() {
+        BigInt x;
+
+        x = this.Copy();
+        x.SetSize(32);
+        pLossOfPrecision = !Equals(x);
+
+        // 2's complement mode rules apply!
+        return x.n[0];
+    }
+
+    // Convert to a Long
+    public long ToLong() {
+        BigInt x;
+
+        x = this.Copy();
+        x.SetSize(64);
+        pLossOfPrecision = !Equals(x);
+
+        // 2's complement mode rules apply!
+        return ((long) x.n[1] << LIMB_BITS) | (x.n[0] & LIMB_MASK);
+    }
+
+    // Convert to a double
+    public double ToDouble() {
+        // To Double (actually from long)
+        return (double) this.ToLong();
+    }
+
+    // Override the default ToString() method
+    public String ToString() {
+        return ("&H" + ToStringHex());
+    }
+
+    // To Hexadecimal string
+    public String ToStringHex() {
+        int j, ending;
+        StringBuilder sb = new StringBuilder();
+
+        // How many digits are possible
+        ending = (BitSize - 1) / 4;
+
+        // Instead of using the normal method, we use the GetAt function to
+        // extract the digit's value directly from the n() array.
+        for (int i = 0; i <= ending; i++) {
+            // Sneaky trick to prevent multiplication and division
+            j = GetAt((i * 4), 4);
+            if (j > 9) {
+                // UNDONE: This will probably break globalization
+                sb.insert(0, (char) ((int) ('a') + j - 10));
+            } else {
+                sb.insert(0, j);
+            }
+        }
+        return sb.toString();
+    }
+
+    // To Binary string
+    public String ToStringBin() {
+        return ToStringBin(false);
+    }
+
+    // To Binary string
+    public String ToStringBin(boolean pad) {
+        StringBuilder sb = new StringBuilder();
+
+        // Only walk the bits of the current word length, with an optional
+        // space between each group of 8 bits
+        for (int i = BitSize - 1; i >= 0; i--) {
+            if (BitTest(i)) {
+                sb.append("1");
+            } else {
+                sb.append("0");
+            }
+            if ((i % 8 == 0) && (i != 0) && (pad == true)) {
+                sb.append(" ");
+            }
+        }
+        return sb.toString();
+    }
+
+    // To Octal String
+    public String ToStringOct() {
+        int j, ending;
+        StringBuilder sb = new StringBuilder();
+
+        // How many digits are possible
+        ending = (BitSize - 1) / 3;
+
+        // Instead of using the normal method, we use the GetAt function to
+        // extract the digit's value directly from the n() array.
+        for (int i = 0; i <= ending; i++) {
+            // Sneaky trick to prevent multiplication and division
+            j = GetAt((i * 3), 3);
+            sb.insert(0, j);
+        }
+        return sb.toString();
+    }
+
+    // To Decimal String
+    public String ToStringDec() {
+        int ending, len;
+        long chunk;
+        BigInt tempx;
+        boolean is_neg;
+        StringBuilder sb = new StringBuilder();
+
+        tempx = this.Copy();
+        tempx.SetSize(RoundUp(BitSize));
+        is_neg = false;
+
+        switch (pBIArithMode) {
+        case Unsigned:
+            break;
+        // Do nothing
+        case OnesComplement:
+            if (SignBit()) {
+                is_neg = true;
+                tempx.OnesComplement(tempx.BitSize);
+            }
+            break;
+        case TwosComplement:
+            if (SignBit()) {
+                is_neg = true;
+                tempx.OnesComplement(tempx.BitSize);
+                tempx._Increment();
+            }
+            break;
+        }
+
+        // How many decimal digits are possible (the same as it always was up
+        // to 102 bits, but dividing by 3.333 falls a digit short after that)
+        ending = (int) (this.BitSize * LOG10_2) + 1;
+
+        // This normal stuff... To get each digit, divide the number by 10
+        // and then get the remainder. Repeat. Except we divide by 10^9, and
+        // then split the remainder into digits with ordinary arithmetic.
+        len = tempx.MaxLimb() + 1;
+        while (sb.length() < ending) {
+            chunk = DivideInt(tempx.n, len, POWERS_OF_TEN[DEC_CHUNK_DIGITS]);
+            for (int i = 0; i < DEC_CHUNK_DIGITS && sb.length() < ending; i++) {
+                sb.append((char) ('0' + (chunk % 10)));
+                chunk = chunk / 10;
+            }
+        }
+        sb.reverse();
+
+        if (is_neg) {
+            sb.insert(0, "-");
+        }
+
+        return sb.toString();
+    }
+
+    /*
+     * ************************ Misc Utilities *****************************
+     */
+
+    // The number 1 as a Big Integer
+    public static BigInt One(int size) {
+        BigInt ans = new BigInt(size, ArithMode.TwosComplement);
+        ans.n[0] = 1;
+        return ans;
+    }
+
+    /*
+     * The shared constants. These are made once per size and mode, and are
+     * read-only (trying to change one throws an exception), so use One(size)
+     * or a Copy when you need something you can change.
+     */
+
+    // The number 0
+    public static BigInt Zero(int size, ArithMode mode) {
+        return SizeOf(size).Constant(mode, CONSTANT_ZERO);
+    }
+
+    // The number 1
+    public static BigInt One(int size, ArithMode mode) {
+        return SizeOf(size).Constant(mode, CONSTANT_ONE);
+    }
+
+    // The number 10
+    public static BigInt Ten(int size, ArithMode mode) {
+        return SizeOf(size).Constant(mode, CONSTANT_TEN);
+    }
+
+    // Every bit set
+    public static BigInt AllOnes(int size, ArithMode mode) {
+        return SizeOf(size).Constant(mode, CONSTANT_ALL_ONES);
+    }
+
+    // Just the sign bit set
+    public static BigInt SignMask(int size, ArithMode mode) {
+        return SizeOf(size).Constant(mode, CONSTANT_SIGN_MASK);
+    }
+
+    // Is this one of the shared (read-only) constants?
+    public boolean isReadOnly() {
+        return pReadOnly;
+    }
+
+    // Split a BigInt into two equal size words (even bit sizes only!)
+    public BigInt[] Split() throws Exception {
+        int half_bitsize, half_maxlimb;
+        BigInt Right_Hand, Left_Hand;
+        BigInt[] ans = new BigInt[2];
+
+        // A wee bit of sanity checking
+        if ((BitSize % 2) > 0) {
+            throw new Exception("Bit size is not divisible by two");
+        }
+
+        half_bitsize = (int) (BitSize / 2);
+        half_maxlimb = (half_bitsize - 1) / LIMB_BITS;
+        Right_Hand = new BigInt(half_bitsize, pBIArithMode);
+        Left_Hand = new BigInt(half_bitsize, pBIArithMode);
+
+        // Right size (is easy)
+        for (int i = 0; i <= half_maxlimb; i++) {
+            Right_Hand.n[i] = this.n[i];
+        }
+        Right_Hand.Mask();
+
+        // Left side (right shift "half_bitsize" number of times)
+        BigInt temp_x = this.Copy();
+        temp_x.RightShift(half_bitsize, false, BitSize);
+
+        for (int i = 0; i <= half_maxlimb; i++) {
+            Left_Hand.n[i] = temp_x.n[i];
+        }
+        Left_Hand.Mask();
+
+        ans[0] = Right_Hand;
+        ans[1] = Left_Hand;
+        return ans;
+    }
+
+    // Create a bit mask
+    public static BigInt CreateMask(int bits, boolean LeftJustify, int size) {
+        BigInt ans = new BigInt(size, ArithMode.Unsigned);
+
+        bits = Math.min(bits, ans.BitSize);
+        if (bits <= 0) {
+            return ans;
+        }
+        if (LeftJustify) {
+            ans.SetHighBits(ans.BitSize - bits);
+        } else {
+            for (int i = 0; i < bits / LIMB_BITS; i++) {
+                ans.n[i] = -1;
+            }
+            if ((bits % LIMB_BITS) != 0) {
+                ans.n[bits / LIMB_BITS] = LowMask(bits % LIMB_BITS);
+            }
+        }
+        return ans;
+    }
+
+    // Move the bit pattern as many spaces as needed to
+    public static BigInt[] LeftJustify(BigInt x) {
+        int d;
+        BigInt Justified, distance;
+        BigInt[] ans = new BigInt[2];
+
+        Justified = x.Copy();
+        // (zero stays where it is, and takes no steps. It used to report
+        // BitSize - 1 steps, as if only bit 0 were set.)
+        d = x.IsZero() ? 0 : x.BitSize - x.MaxBit() - 1;
+
+        Justified.LeftShift(d, x.BitSize);
+        distance = new BigInt(d, x.BitSize, x.pBIArithMode);
+
+        ans[0] = Justified;
+        ans[1] = distance;
+        return ans;
+    }
+
+    // Convert x into its absolute value
+    public static BigInt AbsoluteValue(BigInt x) {
+        BigInt temp_x = x.Copy();
+        temp_x.AbsoluteValue();
+        return temp_x;
+    }
+
+    // Converts the number into its absolute value
+    public void AbsoluteValue() {
+        CheckWritable();
+
+        // Is there anything to do?
+        if (!this.SignBit()) {
+            return;
+        }
+        switch (pBIArithMode) {
+        case Unsigned:
+            break;
+        case OnesComplement:
+            // (this used to take 1 off first, as if it were 2's complement,
+            // which left the answer 1 too big)
+            OnesComplement(BitSize);
+            break;
+        case TwosComplement:
+            // Check for largest possible negative number in order
+            // to set the Overflow flag
+            if (IsSignOnly()) {
+                pOverflow = true;
+            } else {
+                _Decrement();
+                OnesComplement(BitSize);
+            }
+            break;
+        }
+    }
+
+    // Change the sign of the Big Integer
+    public void ChangeSign() {
+        CheckWritable();
+
+        if (SignBit()) {
+            // is already negative, so go to positive
+            switch (pBIArithMode) {
+            case Unsigned:
+                _Decrement();
+                OnesComplement(BitSize);
+                // Not really an error, but we do set the overflow flag
+                pOverflow = true;
+                break;
+            case OnesComplement:
+                OnesComplement(BitSize);
+                break;
+            case TwosComplement:
+                _Decrement();
+                OnesComplement(BitSize);
+                break;
+            }
+        } else {
+            // is already positive, so go to negative
+            switch (pBIArithMode) {
+            case Unsigned:
+                OnesComplement(BitSize);
+                _Increment();
+                // Not really an error, but we do set the overflow flag
+                pOverflow = true;
+                break;
+            case OnesComplement:
+                OnesComplement(BitSize);
+                break;
+            case TwosComplement:
+                OnesComplement(BitSize);
+                _Increment();
+                break;
+            }
+        }
+    }
+
+    // Combine two halves into one value.
+    public void Combine(BigInt Left_Hand, BigInt Right_Hand) throws Exception {
+        BigInt temp;
+        int i;
+
+        CheckWritable();
+
+        // A wee bit of sanity checking
+        if ((Left_Hand.BitSize != Right_Hand.BitSize)) {
+            throw new Exception("Bits sizes do not match");
+        }
+
+        SetSize((Left_Hand.BitSize * 2));
+        Clear();
+
+        // Right side
+        for (i = 0; i <= Right_Hand.MaxLimb(); i++) {
+            n[i] = Right_Hand.n[i];
+        }
+
+        // Left side (shift left "left_hand.bitsize" number of times)
+        temp = Left_Hand.Copy();
+        temp.SetSize((Left_Hand.BitSize * 2));
+        temp.LeftShift(Left_Hand.BitSize, BitSize);
+
+        // combine with the existing (all of it, the right side may well
+        // be shorter than the left)
+        for (i = 0; i <= LastLimb; i++) {
+            n[i] = n[i] | temp.n[i];
+        }
+    }
+
+    // Count the number of set bits.
+    public void SumBits() {
+        int count = bitCount();
+
+        CheckWritable();
+
+        // (there can't be more bits set than there are bits to hold the count)
+        Clear();
+        n[0] = count;
+    }
+
+    // The number of bits that are set
+    public int bitCount() {
+        int count = 0;
+
+        for (int i = 0; i <= LastLimb; i++) {
+            count = count + Integer.bitCount(n[i]);
+        }
+        return count;
+    }
+
+    // The location of the highest bit that is set (-1 if there aren't any)
+    public int highestSetBit() {
+        for (int i = LastLimb; i >= 0; i--) {
+            if (n[i] != 0) {
+                return (i * LIMB_BITS) + (LIMB_BITS - 1)
+                        - Integer.numberOfLeadingZeros(n[i]);
+            }
+        }
+        return -1;
+    }
+
+    // The location of the lowest bit that is set (-1 if there aren't any)
+    public int lowestSetBit() {
+        for (int i = 0; i <= LastLimb; i++) {
+            if (n[i] != 0) {
+                return (i * LIMB_BITS) + Integer.numberOfTrailingZeros(n[i]);
+            }
+        }
+        return -1;
+    }
+
+    // Clear the bit at the given location
+    public void BitClear(int location) {
+        CheckWritable();
+
+        int n_limb;
+        n_limb = location / LIMB_BITS;
+
+        if (n_limb <= LastLimb) {
+            this.n[n_limb] = this.n[n_limb] & ~BitOf(location);
+        }
+    }
+
+    // Set the bit at the given location
+    public void BitSet(int location) {
+        CheckWritable();
+
+        int n_limb;
+        n_limb = location / LIMB_BITS;
+
+        if (n_limb <= LastLimb) {
+            this.n[n_limb] = this.n[n_limb] | BitOf(location);
+        }
+    }
+
+    // Test to see if bit at the given location is set or not
+    public boolean BitTest(int location) {
+        int n_limb;
+        n_limb = location / LIMB_BITS;
+
+        if (n_limb <= LastLimb) {
+            if ((this.n[n_limb] & BitOf(location)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Build a BigInt from a run of (little-endian) longs, which is how a
+    // BigIntVector keeps its values
+    static BigInt FromWords(long[] words, int offset, int count, int size,
+            ArithMode mode) {
+        BigInt ans = new BigInt(size, mode);
+
+        for (int i = 0; i < count && 2 * i <= ans.LastLimb; i++) {
+            ans.n[2 * i] = (int) words[offset + i];
+            if (2 * i + 1 <= ans.LastLimb) {
+                ans.n[2 * i + 1] = (int) (words[offset + i] >>> LIMB_BITS);
+            }
+        }
+        ans.Mask();
+        return ans;
+    }
+
+    // Copy the value into a run of (little-endian) longs
+    void ToWords(long[] words, int offset, int count) {
+        long low, high;
+
+        for (int i = 0; i < count; i++) {
+            low = (2 * i <= LastLimb) ? n[2 * i] & LIMB_MASK : 0;
+            high = (2 * i + 1 <= LastLimb) ? n[2 * i + 1] & LIMB_MASK : 0;
+            words[offset + i] = (high << LIMB_BITS) | low;
+        }
+    }
+
+    /*
+     * ************************** Private Methods ****************************
+     */
+
+    // Clone the BigInt value
+    private BigInt Copy() {
+        BigInt ans = new BigInt();
+
+        // start with copying field variables
+        ans.UseSize(this.pSize);
+        ans.pBIArithMode = this.pBIArithMode;
+        ans.pCarryBit = this.pCarryBit;
+        ans.pLossOfPrecision = this.pLossOfPrecision;
+        ans.pOverflow = this.pOverflow;
+
+        // Now we make a copy of the array
+        ans.n = new int[LastLimb + 1];
+        System.arraycopy(n, 0, ans.n, 0, LastLimb + 1);
+        return ans;
+    }
+
+    // The pieces of an operation "dest = x op y". Copies x into dest, and
+    // returns the y to use (which has to be moved out of the way first if
+    // it is also the destination).
+    private static BigInt Operands(BigInt x, BigInt y, BigInt dest) {
+        if (dest == y && dest != x) {
+            y = SCRATCH.get().operand.Set(y);
+        }
+        dest.Set(x);
+        return y;
+    }
+
+    // Set/Reset the bit size
+    private void SetSize(int size) {
+        if (size != BitSize) {
+            int old_bitsize = BitSize;
+            boolean extend = (size > BitSize)
+                    && (SignBit() && (pBIArithMode != ArithMode.Unsigned));
+
+            UseSize(SizeOf(size));
+            this.n = ArrayResize(this.n, LastLimb + 1);
+            Mask();
+
+            // apply the extended sign
+            if (extend) {
+                SetHighBits(old_bitsize);
+            }
+        }
+    }
+
+    // Add an extra limb for padding
+    private void AddPadding(int size) {
+        UseSize(SizeOf(size));
+        this.n = ArrayResize(this.n, LastLimb + 1);
+        Mask();
+    }
+
+    // The shared constants can't be changed
+    private void CheckWritable() {
+        if (pReadOnly) {
+            throw new UnsupportedOperationException(
+                    "BigInt constants are read-only");
+        }
+    }
+
+    // Switch to the given size descriptor (the limbs are up to the caller)
+    private void UseSize(Size size) {
+        pSize = size;
+        BitSize = size.bits;
+        LastLimb = size.lastLimb;
+    }
+
+    // The (shared) size descriptor for a bit size
+    private static Size SizeOf(int bits) {
+        Size size;
+
+        if (bits <= LONG_BITS) {
+            return WORD_SIZES[bits];
+        }
+        size = LARGE_SIZES.get(bits);
+        if (size == null) {
+            LARGE_SIZES.putIfAbsent(bits, new Size(bits));
+            size = LARGE_SIZES.get(bits);
+        }
+        return size;
+    }
+
+    // Find the location of the most significant bit
+    private int MaxBit() {
+        // Zero counts as bit 0
+        return Math.max(highestSetBit(), 0);
+    }
+
+    // The bottom two limbs as an (unsigned) long
+    private long GetLow64() {
+        if (LastLimb == 0) {
+            return n[0] & LIMB_MASK;
+        }
+        return ((long) n[1] << LIMB_BITS) | (n[0] & LIMB_MASK);
+    }
+
+    // The value (as an unsigned long) after a SetSize(size), for a size of
+    // no more than 64 bits. The BigInt itself is left alone.
+    private long Low64At(int size) {
+        long value = GetLow64();
+
+        // apply the extended sign
+        if ((size > BitSize) && (pBIArithMode != ArithMode.Unsigned)
+                && SignBit()) {
+            value = value | (-1L << BitSize);
+        }
+        return value & Mask64(size);
+    }
+
+    // A mask of the bottom bits (1 to 64) of a long
+    private static long Mask64(int bits) {
+        return (bits >= LONG_BITS) ? -1L : (1L << bits) - 1;
+    }
+
+    // Test a bit (0 to 63) of a long
+    private static boolean TestBit64(long value, int location) {
+        return ((value >>> location) & 1) != 0;
+    }
+
+    // The top 64 bits of the (unsigned) 128 bit product of x and y. This is
+    // the same long multiplication as MultiplyLimbs, just with two limbs.
+    private static long MultiplyHigh(long x, long y) {
+        long x_lo, x_hi, y_lo, y_hi, lo, mid1, mid2;
+
+        x_lo = x & LIMB_MASK;
+        x_hi = x >>> LIMB_BITS;
+        y_lo = y & LIMB_MASK;
+        y_hi = y >>> LIMB_BITS;
+
+        lo = x_lo * y_lo;
+        mid1 = x_hi * y_lo + (lo >>> LIMB_BITS);
+        mid2 = x_lo * y_hi + (mid1 & LIMB_MASK);
+        return x_hi * y_hi + (mid1 >>> LIMB_BITS) + (mid2 >>> LIMB_BITS);
+    }
+
+    // Unsigned division of two longs (Long.divideUnsigned isn't around on
+    // older versions of Android)
+    private static long DivideUnsigned(long x, long y) {
+        long quotient;
+
+        // A huge divisor... the answer is either 0 or 1
+        if (y < 0) {
+            return IsGreaterUnsigned(y, x) ? 0 : 1;
+        }
+        if (x >= 0) {
+            return x / y;
+        }
+        // Halve x so a signed division works, then fix up the last bit
+        quotient = ((x >>> 1) / y) << 1;
+        if (!IsGreaterUnsigned(y, x - quotient * y)) {
+            quotient = quotient + 1;
+        }
+        return quotient;
+    }
+
+    // Set the value from an (unsigned) long, clearing the higher limbs
+    private void SetLow64(long value) {
+        n[0] = (int) value;
+        if (LastLimb > 0) {
+            n[1] = (int) (value >>> LIMB_BITS);
+        }
+        for (int i = 2; i <= LastLimb; i++) {
+            n[i] = 0;
+        }
+        Mask();
+    }
+
+    // Reset the BigInt to Zero
+    private void Clear() {
+        for (int i = 0; i <= LastLimb; i++) {
+            n[i] = 0;
+        }
+        // Also reset the status flags
+        pCarryBit = false;
+        pOverflow = false;
+        pLossOfPrecision = false;
+    }
+
+    // Are all of the limbs zero?
+    private static boolean IsZero(int[] limbs) {
+        for (int i = 0; i < limbs.length; i++) {
+            if (limbs[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the location of the most significant digit (limb) in the array
+    private int MaxLimb() {
+        for (int i = LastLimb; i >= 0; i--) {
+            if (n[i] != 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Shift the whole array one bit to the right (the top bit becomes zero)
+    private void ShiftRightOne() {
+        for (int i = 0; i < LastLimb; i++) {
+            this.n[i] = (this.n[i] >>> 1) | (this.n[i + 1] << (LIMB_BITS - 1));
+        }
+        this.n[LastLimb] = this.n[LastLimb] >>> 1;
+    }
+
+    // Shift left by any number of bits. Whole limbs are moved first, then
+    // the rest of the distance is shifted in one pass. Anything going past
+    // the top is lost.
+    private void ShiftLeftBits(int distance) {
+        int limbs, bits, from;
+
+        limbs = distance / LIMB_BITS;
+        bits = distance % LIMB_BITS;
+        for (int i = LastLimb; i >= 0; i--) {
+            from = i - limbs;
+            if (from < 0) {
+                this.n[i] = 0;
+            } else if (bits == 0 || from == 0) {
+                this.n[i] = this.n[from] << bits;
+            } else {
+                this.n[i] = (this.n[from] << bits)
+                        | (this.n[from - 1] >>> (LIMB_BITS - bits));
+            }
+        }
+        Mask();
+    }
+
+    // Shift right by any number of bits (a "logical" shift)
+    private void ShiftRightBits(int distance) {
+        int limbs, bits, from;
+
+        limbs = distance / LIMB_BITS;
+        bits = distance % LIMB_BITS;
+        for (int i = 0; i <= LastLimb; i++) {
+            from = i + limbs;
+            if (from > LastLimb) {
+                this.n[i] = 0;
+            } else if (bits == 0 || from == LastLimb) {
+                this.n[i] = this.n[from] >>> bits;
+            } else {
+                this.n[i] = (this.n[from] >>> bits)
+                        | (this.n[from + 1] << (LIMB_BITS - bits));
+            }
+        }
+    }
+
+    // Rotate right by a distance that is less than the bit size
+    private void _RotateRight(int distance) {
+        BigInt temp;
+
+        if (distance == 0) {
+            return;
+        }
+        temp = SCRATCH.get().x.Set(this);
+        temp.ShiftLeftBits(BitSize - distance);
+        ShiftRightBits(distance);
+        for (int i = 0; i <= LastLimb; i++) {
+            this.n[i] = this.n[i] | temp.n[i];
+        }
+    }
+
+    // Set every bit from the given location on up
+    private void SetHighBits(int location) {
+        int n_limb = location / LIMB_BITS;
+
+        this.n[n_limb] = this.n[n_limb] | ~LowMask(location % LIMB_BITS);
+        for (int i = n_limb + 1; i <= LastLimb; i++) {
+            this.n[i] = -1;
+        }
+        Mask();
+    }
+
+    // Put the (unsigned) long value at the specified starting bit location
+    // within the array
+    private void PutAt(long i, int Location) {
+        int n_bit, n_limb;
+        long high;
+
+        n_limb = Location / LIMB_BITS;
+        n_bit = Location % LIMB_BITS;
+
+        // The value can straddle up to three limbs
+        n[n_limb] = (int) (i << n_bit);
+        high = (n_bit == 0) ? (i >>> LIMB_BITS) : (i >>> (LIMB_BITS - n_bit));
+        for (int j = n_limb + 1; high != 0; j++) {
+            if (j <= LastLimb) {
+                n[j] = (int) high;
+            } else {
+                pOverflow = true;
+                break;
+            }
+            high = high >>> LIMB_BITS;
+        }
+    }
+
+    // Get an integer value from the specified location (and length) within the
+    // array
+    private int GetAt(int Location, int Length) {
+        int n_bit, n_limb;
+        long temp;
+
+        n_limb = Location / LIMB_BITS;
+        n_bit = (Location % LIMB_BITS);
+
+        temp = n[n_limb] & LIMB_MASK;
+        if (n_limb < LastLimb) {
+            temp = temp | ((n[n_limb + 1] & LIMB_MASK) << LIMB_BITS);
+        }
+        return (int) (temp >>> n_bit) & LowMask(Length);
+    }
+
+    // Mask the current value to the proper number of bits (package private
+    // for the benchmarks)
+    void Mask() {
+        n[LastLimb] = n[LastLimb] & pSize.topMask;
+    }
+
+    // Check to see if only the Sign Bit is set (the largest negative number)
+    private boolean IsSignOnly() {
+        if (n[LastLimb] != pSize.signMask) {
+            return false;
+        }
+        for (int i = 0; i < LastLimb; i++) {
+            if (n[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Check to see if the Sign Bit is set (package private for the
+    // benchmarks)
+    boolean SignBit() {
+        return (n[LastLimb] & pSize.signMask) != 0;
+    }
+
+    /*
+     * The bit primitives. Everything that needs "2 to the n" for a bit
+     * within a limb comes here, rather than working it out each time.
+     */
+
+    // The bit for the given location, within its limb
+    static int BitOf(int location) {
+        return 1 << (location & (LIMB_BITS - 1));
+    }
+
+    // The bottom bits (0 to 32) of a limb
+    static int LowMask(int bits) {
+        return LOW_MASKS[bits];
+    }
+
+    // The bits of the top limb that are used by the given bit size
+    static int TopMask(int size) {
+        return LOW_MASKS[size - ((size - 1) / LIMB_BITS) * LIMB_BITS];
+    }
+
+    // Round up the bitsize to the next limb and add 1 limb
+    private static int RoundUp(int bit_size) {
+        return (((bit_size - 1) / LIMB_BITS) + 2) * LIMB_BITS;
+    }
+
+    // import an array of limbs into a BigInt
+    private void Import(int[] limbs, int size, boolean negative) {
+        int last;
+
+        SetSize(size);
+
+        last = (LastLimb > limbs.length - 1) ? limbs.length - 1 : LastLimb;
+
+        for (int i = 0; i <= last; i++) {
+            this.n[i] = limbs[i];
+        }
+
+        // Do we have any leftover limbs?
+        pLossOfPrecision = false;
+        if (last < limbs.length - 1) {
+            for (int i = last + 1; i < limbs.length; i++) {
+                if (limbs[i] != 0) {
+                    pLossOfPrecision = true;
+                    break;
+                }
+            }
+        }
+
+        // How about any leftover bits?
+        if (!pLossOfPrecision) {
+            pLossOfPrecision = (MaxBit() >= BitSize);
+        }
+
+        // Fill in the missing sign extension
+        if ((limbs.length - 1 < LastLimb) && negative) {
+            for (int i = limbs.length; i <= LastLimb; i++) {
+                this.n[i] = -1;
+            }
+        }
+        Mask();
+    }
+
+    // convert an integer into an array of limbs
+    private static int[] GetLimbs(int value) {
+        return new int[] { value };
+    }
+
+    // convert a long into an array of limbs
+    private static int[] GetLimbs(long value) {
+        return new int[] { (int) value, (int) (value >>> LIMB_BITS) };
+    }
+
+    // pack a (little-endian) byte array into an array of limbs
+    private static int[] PackBytes(byte[] b) {
+        int[] ans = new int[(b.length + 3) / 4];
+
+        for (int i = 0; i < b.length; i++) {
+            ans[i / 4] = ans[i / 4] | ((b[i] & 0xff) << ((i % 4) * 8));
+        }
+        return ans;
+    }
+
+    // Resize an array of limbs. The array we have is kept when it is already
+    // big enough (with everything above the new size zeroed), so bouncing
+    // between the real size and the "wiggle room" size doesn't allocate.
+    private int[] ArrayResize(int[] b, int size) {
+        if (b.length >= size) {
+            Arrays.fill(b, size, b.length, 0);
+            return b;
+        }
+        int[] ans = new int[size];
+
+        int len = Math.min(b.length, size);
+        System.arraycopy(b, 0, ans, 0, len);
+        return ans;
+    }
+}
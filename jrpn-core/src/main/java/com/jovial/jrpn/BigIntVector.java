@@ -0,0 +1,523 @@
+package com.jovial.jrpn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+// A batch of BigInt values that all have the same word size and arithmetic
+// mode, kept together in one long[] so that an operation can run over the
+// whole lot at once. Each value gets its own Carry and Overflow flags, and
+// the answers (flags included) are exactly what the BigInt methods give.
+// Word sizes up to 64 bits are done right on the longs; anything wider goes
+// through BigInt one value at a time. Big batches are split across threads.
+public final class BigIntVector {
+
+    // Batches smaller than this aren't worth splitting up
+    private final static int PARALLEL_THRESHOLD = 1 << 15;
+    private final static int THREADS = Runtime.getRuntime()
+            .availableProcessors();
+    private final static int LONG_BITS = 64;
+
+    // The per-value flags
+    private final static byte CARRY = 1;
+    private final static byte OVERFLOW = 2;
+
+    private static ExecutorService pool;
+
+    private final int pWordSize;
+    private final BigInt.ArithMode pArithMode;
+    private final int pLength;
+    private final int pWords;
+    private final long pMask;
+    private final long[] pValues;
+    private final byte[] pFlags;
+
+    // A "run" of the batch, from (inclusive) to (exclusive)
+    private interface Kernel {
+        void Run(int from, int to);
+    }
+
+    /*
+     * **************************** Constructors ******************************
+     */
+
+    // A batch of length zeros, given the size and mode
+    public BigIntVector(int length, int size, BigInt.ArithMode mode) {
+        pLength = length;
+        pWordSize = size;
+        pArithMode = mode;
+        pWords = (size - 1) / LONG_BITS + 1;
+        pMask = (size >= LONG_BITS) ? -1L : (1L << size) - 1;
+        pValues = new long[length * pWords];
+        pFlags = new byte[length];
+    }
+
+    /*
+     * **************************** Properties ******************************
+     */
+
+    public int getLength() {
+        return pLength;
+    }
+
+    public int getWordSize() {
+        return pWordSize;
+    }
+
+    public BigInt.ArithMode getBIArithMode() {
+        return pArithMode;
+    }
+
+    // A copy of one value (with its flags)
+    public BigInt get(int index) {
+        BigInt ans = BigInt.FromWords(pValues, index * pWords, pWords,
+                pWordSize, pArithMode);
+        return ans;
+    }
+
+    // Put a value into the batch (resized to the word size of the batch)
+    public void set(int index, BigInt value) {
+        BigInt temp = new BigInt(value, pWordSize, pArithMode);
+
+        temp.ToWords(pValues, index * pWords, pWords);
+        pFlags[index] = 0;
+    }
+
+    // The flags of one value, from the last operation
+    public boolean isCarryBit(int index) {
+        return (pFlags[index] & CARRY) != 0;
+    }
+
+    public boolean isOverflow(int index) {
+        return (pFlags[index] & OVERFLOW) != 0;
+    }
+
+    /*
+     * ************************** Math Operators ******************************
+     */
+
+    // Add y to each value (BigInt.Add)
+    public void Add(final BigIntVector y) {
+        CheckMatch(y);
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                if (pWords > 1) {
+                    for (int i = from; i < to; i++) {
+                        BigInt x = get(i);
+                        x.Add(y.get(i), 0);
+                        Put(i, x, true, true);
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    AddWord(i, y.pValues[i]);
+                }
+            }
+        });
+    }
+
+    // Add one value (masked to the word size) and set its flags, the same
+    // way BigInt does it for word sizes up to 64 bits
+    private void AddWord(int index, long y_val) {
+        long x_val, sum;
+        boolean sign_x, sign_y, sign, carry, overflow = false;
+
+        x_val = pValues[index];
+        sign_x = SignBit(x_val);
+        sign_y = SignBit(y_val);
+
+        sum = x_val + y_val;
+        carry = (pWordSize == LONG_BITS) ? (x_val + Long.MIN_VALUE) > (sum + Long.MIN_VALUE)
+                : ((sum >>> pWordSize) & 1) != 0;
+        switch (pArithMode) {
+        case Unsigned:
+            overflow = carry;
+            break;
+        case OnesComplement:
+        case TwosComplement:
+            // the "wrap around" rule for adding 1's complement numbers
+            if (carry && (pArithMode == BigInt.ArithMode.OnesComplement)) {
+                sum = sum + 1;
+            }
+            sign = SignBit(sum);
+            overflow = (sign_x && sign_y && !sign && carry)
+                    || (!sign_x && !sign_y && sign && !carry);
+            break;
+        }
+        pValues[index] = sum & pMask;
+        pFlags[index] = (byte) ((carry ? CARRY : 0) | (overflow ? OVERFLOW : 0));
+    }
+
+    /*
+     * ************************ Bitwise Operators *****************************
+     * (like BigInt, these leave the flags alone)
+     */
+
+    // Bitwise AND of each value with y
+    public void BitwiseAnd(final BigIntVector y) {
+        CheckMatch(y);
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from * pWords; i < to * pWords; i++) {
+                    pValues[i] = pValues[i] & y.pValues[i];
+                }
+            }
+        });
+    }
+
+    // Bitwise OR of each value with y
+    public void BitwiseOr(final BigIntVector y) {
+        CheckMatch(y);
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from * pWords; i < to * pWords; i++) {
+                    pValues[i] = pValues[i] | y.pValues[i];
+                }
+            }
+        });
+    }
+
+    // Bitwise Exclusive OR of each value with y
+    public void Xor(final BigIntVector y) {
+        CheckMatch(y);
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from * pWords; i < to * pWords; i++) {
+                    pValues[i] = pValues[i] ^ y.pValues[i];
+                }
+            }
+        });
+    }
+
+    // Bitwise NOT of each value
+    public void OnesComplement() {
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    for (int j = 0; j < pWords; j++) {
+                        pValues[i * pWords + j] = ~pValues[i * pWords + j];
+                    }
+                    // only the top word has unused bits
+                    pValues[i * pWords + pWords - 1] &= TopMask();
+                }
+            }
+        });
+    }
+
+    // Shift each value to the Left (BigInt.LeftShift)
+    public void LeftShift(final int distance) {
+        if (distance <= 0) {
+            return;
+        }
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                if (pWords > 1) {
+                    for (int i = from; i < to; i++) {
+                        BigInt x = get(i);
+                        x.LeftShift(distance, 0);
+                        Put(i, x, true, false);
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    long x_val = pValues[i];
+                    // Carry is the last bit shifted out of the top
+                    SetCarry(i, (distance <= pWordSize)
+                            && TestBit(x_val, pWordSize - distance));
+                    pValues[i] = ShiftLeft(x_val, distance) & pMask;
+                }
+            }
+        });
+    }
+
+    // Shift each value to the Right (BigInt.RightShift)
+    public void RightShift(final int distance, final boolean SaveSign) {
+        if (distance <= 0) {
+            return;
+        }
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                if (pWords > 1) {
+                    for (int i = from; i < to; i++) {
+                        BigInt x = get(i);
+                        x.RightShift(distance, SaveSign, 0);
+                        Put(i, x, true, false);
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    long x_val = pValues[i];
+                    boolean arithmetic = SaveSign && SignBit(x_val)
+                            && (pArithMode != BigInt.ArithMode.Unsigned);
+
+                    SetCarry(i, (distance <= pWordSize) ? TestBit(x_val,
+                            distance - 1) : arithmetic);
+                    x_val = ShiftRight(x_val, distance);
+                    if (arithmetic) {
+                        // fill in the sign from the top
+                        x_val = x_val | (pMask & ~LowBits(Math.max(pWordSize
+                                - distance, 0)));
+                    }
+                    pValues[i] = x_val;
+                }
+            }
+        });
+    }
+
+    // Rotate each value to the Right (BigInt.RotateRight)
+    public void RotateRight(final int distance, final boolean WithCarry,
+            final boolean StartingCarry) {
+        if (distance <= 0) {
+            return;
+        }
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                if (pWords > 1) {
+                    for (int i = from; i < to; i++) {
+                        BigInt x = get(i);
+                        x.RotateRight(distance, WithCarry, StartingCarry, 0);
+                        Put(i, x, true, false);
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    if (WithCarry) {
+                        RotateWithCarry(i, distance % (pWordSize + 1),
+                                StartingCarry);
+                    } else {
+                        pValues[i] = Rotate(pValues[i], distance % pWordSize);
+                        // the last bit rotated out of the bottom
+                        SetCarry(i, SignBit(pValues[i]));
+                    }
+                }
+            }
+        });
+    }
+
+    // Rotate each value to the Left (BigInt.RotateLeft)
+    public void RotateLeft(final int distance, final boolean WithCarry,
+            final boolean StartingCarry) {
+        if (distance <= 0) {
+            return;
+        }
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                if (pWords > 1) {
+                    for (int i = from; i < to; i++) {
+                        BigInt x = get(i);
+                        x.RotateLeft(distance, WithCarry, StartingCarry, 0);
+                        Put(i, x, true, false);
+                    }
+                    return;
+                }
+                // Rotating left is rotating right the "other way around"
+                for (int i = from; i < to; i++) {
+                    if (WithCarry) {
+                        RotateWithCarry(i, (pWordSize + 1 - distance
+                                % (pWordSize + 1)) % (pWordSize + 1),
+                                StartingCarry);
+                    } else {
+                        pValues[i] = Rotate(pValues[i], (pWordSize - distance
+                                % pWordSize) % pWordSize);
+                        // the last bit rotated out of the top
+                        SetCarry(i, (pValues[i] & 1) != 0);
+                    }
+                }
+            }
+        });
+    }
+
+    // Rotate one value right by a distance less than the word size
+    private long Rotate(long x_val, int distance) {
+        if (distance == 0) {
+            return x_val;
+        }
+        return (ShiftRight(x_val, distance) | ShiftLeft(x_val, pWordSize
+                - distance)) & pMask;
+    }
+
+    // Rotate one value right through the carry. The carry is one more bit
+    // on top, so bit i ends up with what was at bit i + distance (going
+    // around the word size + 1 bits).
+    private void RotateWithCarry(int index, int distance, boolean carry) {
+        long x_val = pValues[index];
+
+        if (distance == 0) {
+            SetCarry(index, carry);
+            return;
+        }
+        pValues[index] = (ShiftRight(x_val, distance)
+                | ShiftLeft(carry ? 1 : 0, pWordSize - distance)
+                | ShiftLeft(x_val, pWordSize + 1 - distance)) & pMask;
+        SetCarry(index, TestBit(x_val, distance - 1));
+    }
+
+    /*
+     * ************************ Counting and Comparing ************************
+     */
+
+    // The number of bits set in each value (BigInt.bitCount)
+    public int[] bitCount() {
+        final int[] ans = new int[pLength];
+
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    int count = 0;
+                    for (int j = 0; j < pWords; j++) {
+                        count = count + Long.bitCount(pValues[i * pWords + j]);
+                    }
+                    ans[i] = count;
+                }
+            }
+        });
+        return ans;
+    }
+
+    // Compare each value with y (-1, 0 or 1, just like BigInt.Compare)
+    public int[] Compare(final BigIntVector y) {
+        final int[] ans = new int[pLength];
+
+        CheckMatch(y);
+        Run(new Kernel() {
+            public void Run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    ans[i] = CompareOne(i, y);
+                }
+            }
+        });
+        return ans;
+    }
+
+    private int CompareOne(int index, BigIntVector y) {
+        int top = (index + 1) * pWords - 1;
+        long x_val, y_val;
+
+        // any positive number is greater than any negative number
+        if (pArithMode != BigInt.ArithMode.Unsigned) {
+            boolean sign_x = TestBit(pValues[top], (pWordSize - 1) % LONG_BITS);
+            boolean sign_y = TestBit(y.pValues[top], (pWordSize - 1) % LONG_BITS);
+
+            if (sign_x ^ sign_y) {
+                return sign_y ? 1 : -1;
+            }
+        }
+        for (int j = top; j >= index * pWords; j--) {
+            x_val = pValues[j] + Long.MIN_VALUE;
+            y_val = y.pValues[j] + Long.MIN_VALUE;
+            if (x_val != y_val) {
+                return (x_val > y_val) ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    /*
+     * ************************** Private Methods ****************************
+     */
+
+    // Both batches need the same length, size and mode
+    private void CheckMatch(BigIntVector y) {
+        if (y.pLength != pLength || y.pWordSize != pWordSize
+                || y.pArithMode != pArithMode) {
+            throw new IllegalArgumentException(
+                    "BigIntVector length, word size and mode must match");
+        }
+    }
+
+    // Put a value (worked out by BigInt) back, along with its flags
+    private void Put(int index, BigInt value, boolean carry, boolean overflow) {
+        value.ToWords(pValues, index * pWords, pWords);
+        if (carry) {
+            SetCarry(index, value.isCarryBit());
+        }
+        if (overflow) {
+            pFlags[index] = (byte) ((pFlags[index] & ~OVERFLOW)
+                    | (value.isOverflow() ? OVERFLOW : 0));
+        }
+    }
+
+    private void SetCarry(int index, boolean carry) {
+        pFlags[index] = (byte) ((pFlags[index] & ~CARRY) | (carry ? CARRY : 0));
+    }
+
+    private boolean SignBit(long value) {
+        return TestBit(value, pWordSize - 1);
+    }
+
+    // The used bits of the top word of a value
+    private long TopMask() {
+        int bits = pWordSize - (pWords - 1) * LONG_BITS;
+        return LowBits(bits);
+    }
+
+    private static boolean TestBit(long value, int location) {
+        return ((value >>> location) & 1) != 0;
+    }
+
+    private static long LowBits(int bits) {
+        return (bits >= LONG_BITS) ? -1L : (1L << bits) - 1;
+    }
+
+    // Java only uses the bottom 6 bits of a shift distance, so these make
+    // shifting by 64 (or more) come out as zero
+    private static long ShiftLeft(long value, int distance) {
+        return (distance >= LONG_BITS) ? 0 : value << distance;
+    }
+
+    private static long ShiftRight(long value, int distance) {
+        return (distance >= LONG_BITS) ? 0 : value >>> distance;
+    }
+
+    // Run a kernel over the whole batch, split across the threads when the
+    // batch is big enough to be worth it. (Android before 5.0 has no
+    // fork/join pool, so this just uses a fixed pool of threads.)
+    private void Run(final Kernel kernel) {
+        int chunk;
+        List<Future<?>> parts;
+
+        if (pLength < PARALLEL_THRESHOLD || THREADS < 2) {
+            kernel.Run(0, pLength);
+            return;
+        }
+        chunk = (pLength + THREADS - 1) / THREADS;
+        parts = new ArrayList<Future<?>>();
+        for (int start = 0; start < pLength; start = start + chunk) {
+            final int from = start;
+            final int to = Math.min(start + chunk, pLength);
+            parts.add(Pool().submit(new Runnable() {
+                public void run() {
+                    kernel.Run(from, to);
+                }
+            }));
+        }
+        try {
+            for (Future<?> part : parts) {
+                part.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // The (shared) worker threads, started the first time they're needed
+    private static synchronized ExecutorService Pool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "BigIntVector");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,93 @@
+package com.jovial.jrpn;
+
+import java.util.Properties;
+
+// The configuration settings that the engine uses. These are read from the
+// Properties every time they're asked for (and not copied), since the app
+// lets the user change them while the calculator is running. A setting
+// that's missing gets the same default that a new config file would have.
+public class CalcConfig {
+
+    public final static int DEFAULT_NUM_REGISTERS = 32;
+    public final static int DEFAULT_PRGM_MEMORY_LINES = 302;
+    public final static int DEFAULT_SLEEP_DELAY = 1500;
+    public final static String DEFAULT_VERSION = "1.1.3";
+
+    private Properties pProp;
+
+    // A configuration with all of the default settings, for running the
+    // engine without the app
+    public CalcConfig() {
+        this(new Properties());
+    }
+
+    // A configuration backed by the app's settings
+    public CalcConfig(Properties prop) {
+        pProp = prop;
+    }
+
+    // The underlying settings
+    public Properties getProperties() {
+        return pProp;
+    }
+
+    // The number of storage registers
+    public int getNumRegisters() {
+        return getInt("NumRegisters", DEFAULT_NUM_REGISTERS);
+    }
+
+    // The number of lines of program memory
+    public int getPrgmMemoryLines() {
+        return getInt("PrgmMemoryLines", DEFAULT_PRGM_MEMORY_LINES);
+    }
+
+    // How long (in ms) a PSE or a "show" key leaves the display up
+    public int getSleepDelay() {
+        return getInt("SleepDelay", DEFAULT_SLEEP_DELAY);
+    }
+
+    // Keep the integer and float values of the registers in step when
+    // switching modes, instead of following the real calculator
+    public boolean isSyncConversions() {
+        return Boolean.parseBoolean(pProp.getProperty("SyncConversions",
+                "true"));
+    }
+
+    // Allow word sizes above 64 bits
+    public boolean isExtendedWordSize() {
+        return Boolean.parseBoolean(pProp.getProperty("ExtendedWordSize",
+                "false"));
+    }
+
+    // How float values are formatted (Default, American or European)
+    public String getFloatFormat() {
+        return pProp.getProperty("FloatFormat", "Default");
+    }
+
+    // How long a running program's pauses last (Faithful, Fast or Turbo)
+    public ProgramExecutor.SpeedProfile getSpeedProfile() {
+        String v = pProp.getProperty("SpeedProfile", "Faithful");
+
+        for (ProgramExecutor.SpeedProfile profile : ProgramExecutor.SpeedProfile
+                .values()) {
+            if (profile.name().equals(v)) {
+                return profile;
+            }
+        }
+        return ProgramExecutor.SpeedProfile.Faithful;
+    }
+
+    // The version of the configuration
+    public String getVersion() {
+        return pProp.getProperty("Version", DEFAULT_VERSION);
+    }
+
+    private int getInt(String name, int def) {
+        String v = pProp.getProperty(name);
+
+        if (v == null) {
+            return def;
+        }
+        return Integer.parseInt(v.trim());
+    }
+}
@@ -0,0 +1,29 @@
+package com.jovial.jrpn;
+
+// What a front end needs from the calculator engine. The app drives it from
+// the keyboard, but nothing here knows about Android, so the same engine can
+// be run headless (from a test, a benchmark or a server) just by feeding it
+// key codes and reading back the DisplayPackets.
+public interface CalcEngine {
+
+    // Process a calculator key stroke (one of the Calculator.k key codes)
+    // and return what the display should show
+    DisplayPacket ProcessKey(int CalcKey);
+
+    // Put the given text into the X register, as if it had been typed
+    void PasteToDisplay(String text) throws Exception;
+
+    // Pick up the float format from the configuration
+    void setFloatFormatLocale();
+
+    // Stop any running program before the engine is thrown away
+    void TerminateOnExit();
+
+    // The state that the engine works on
+    CalcState getState();
+
+    // Format the X register for the display, as it is right now. A running
+    // program's keys don't update the display, so this is how a front end
+    // gets a look at it part way through.
+    String getDisplayText();
+}
@@ -8,8 +8,6 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
-import org.xmlpull.v1.XmlSerializer;
-import android.util.Xml;
 
 // The internal state of the calculator.  These setting are what get
 // stored while the calculator is turned off.
@@ -104,24 +102,38 @@ public class CalcState {
 
     private final int NUM_FLAGS = 6;
 
+    // The largest word size of the real calculator, and the largest one we
+    // allow when the "ExtendedWordSize" option is turned on
+    public final static int MAX_WORD_SIZE = 64;
+    public final static int MAX_EXTENDED_WORD_SIZE = 4096;
+
     private Boolean pSaveOnExit;
     private Integer pWordSize;
     private CalcOpMode pOpMode;
     private CalcArithMode pArithMode;
     private Integer pFloatPrecision;
     private Boolean[] pFlags = new Boolean[NUM_FLAGS];
-    private Register[] pReg = new Register[Integer.parseInt(fmMain.prop
-            .getProperty("NumRegisters"))];
+    private CalcConfig pConfig;
+    private Register[] pReg;
     private Register pRegIndex;
     private CStack pStack;
     private Register pRegLastX;
     private Integer pPrgmPosition;
-    private java.util.List<String> pPrgmMemory;
+    private ProgramMemory pPrgmMemory;
+    private CompiledProgram pCompiledPrgm;
+    private int pCompiledVersion;
     private java.util.Stack<Integer> pPrgmRetStack;
     private Boolean pPrgmRunning;
 
-    // Default constructor
+    // Default constructor, with the default configuration
     public CalcState() {
+        this(new CalcConfig());
+    }
+
+    // A CalcState that takes its settings from the given configuration
+    public CalcState(CalcConfig config) {
+        pConfig = config;
+        pReg = new Register[pConfig.getNumRegisters()];
         pSaveOnExit = true;
         pWordSize = 16;
         pOpMode = CalcOpMode.Float;
@@ -131,19 +143,23 @@ public class CalcState {
             pFlags[i] = false;
         }
         pFlags[3] = true; // leading zeros
-        for (int i = 0; i < Integer.parseInt(fmMain.prop
-                .getProperty("NumRegisters")); i++) {
+        for (int i = 0; i < pConfig.getNumRegisters(); i++) {
             pReg[i] = new Register(pWordSize, pArithMode);
         }
         pRegIndex = new Register(64, pArithMode); // RegIndex has a fixed size
         pStack = new CStack(pWordSize, pArithMode);
         pRegLastX = new Register(pWordSize, pArithMode);
         pPrgmPosition = 0;
-        pPrgmMemory = new java.util.ArrayList<String>();
+        pPrgmMemory = new ProgramMemory();
         pPrgmRetStack = new java.util.Stack<Integer>();
         pPrgmRunning = false;
     }
 
+    // The configuration settings
+    public CalcConfig getConfig() {
+        return pConfig;
+    }
+
     // Save the configuration on Exit
     public boolean isSaveOnExit() {
         return pSaveOnExit;
@@ -189,6 +205,14 @@ public class CalcState {
         return pWordSize;
     }
 
+    // The largest word size that WSIZE will accept
+    public int getMaxWordSize() {
+        if (pConfig.isExtendedWordSize()) {
+            return MAX_EXTENDED_WORD_SIZE;
+        }
+        return MAX_WORD_SIZE;
+    }
+
     public void setWordSize(int size) {
         if (pWordSize != size) {
             // change the size of everything
@@ -247,6 +271,24 @@ public class CalcState {
         return pPrgmMemory;
     }
 
+    // Locate the line number for a given program label (searching forward
+    // from the start line, and then wrapping around), or -1 if there's no
+    // such label
+    public int FindLabel(int start, int label) {
+        return pPrgmMemory.FindLabel(start, label);
+    }
+
+    // The program memory decoded for running. This is only rebuilt when the
+    // program has changed since the last time it was asked for.
+    public CompiledProgram getCompiledProgram() {
+        if (pCompiledPrgm == null
+                || pCompiledVersion != pPrgmMemory.getVersion()) {
+            pCompiledPrgm = new CompiledProgram(pPrgmMemory);
+            pCompiledVersion = pPrgmMemory.getVersion();
+        }
+        return pCompiledPrgm;
+    }
+
     // Program Return Stack
     public java.util.Stack<Integer> getPrgmRetStack() {
         return pPrgmRetStack;
@@ -269,139 +311,135 @@ public class CalcState {
     // Save the CalcState as an XML string
     public String Serialize() throws ParserConfigurationException,
             IllegalArgumentException, IllegalStateException, IOException {
-        XmlSerializer s = Xml.newSerializer();
-        s.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output",
-                true);
         StringWriter sw = new StringWriter();
+        XmlWriter s = new XmlWriter(sw);
 
-        s.setOutput(sw);
         s.startDocument("UTF-8", true);
 
         // create the root element
-        s.startTag("", "CalcState");
-        s.attribute("", "saved", new java.util.Date().toString());
+        s.startTag("CalcState");
+        s.attribute("saved", new java.util.Date().toString());
 
         s.comment("JRPN CalcState v"
-                + fmMain.prop.getProperty("Version").substring(0, 3));
+                + pConfig.getVersion().substring(0, 3));
 
-        s.startTag("", "SaveOnExit");
+        s.startTag("SaveOnExit");
         s.text(pSaveOnExit.toString());
-        s.endTag("", "SaveOnExit");
+        s.endTag("SaveOnExit");
 
-        s.startTag("", "WordSize");
+        s.startTag("WordSize");
         s.text(pWordSize.toString());
-        s.endTag("", "WordSize");
+        s.endTag("WordSize");
 
-        s.startTag("", "OpMode");
+        s.startTag("OpMode");
         s.text(pOpMode.toString());
-        s.endTag("", "OpMode");
+        s.endTag("OpMode");
 
-        s.startTag("", "ArithMode");
+        s.startTag("ArithMode");
         s.text(pArithMode.toString());
-        s.endTag("", "ArithMode");
+        s.endTag("ArithMode");
 
-        s.startTag("", "FloatPrecision");
+        s.startTag("FloatPrecision");
         s.text(pFloatPrecision.toString());
-        s.endTag("", "FloatPrecision");
+        s.endTag("FloatPrecision");
 
         String[] FlagName = { "User0", "User1", "User2", "LeadingZero",
                 "Carry", "Overflow" };
-        s.startTag("", "Flags");
+        s.startTag("Flags");
         for (int i = 0; i < NUM_FLAGS; i++) {
-            s.startTag("", "Flag");
-            s.attribute("", "name", FlagName[i]);
+            s.startTag("Flag");
+            s.attribute("name", FlagName[i]);
             s.text(pFlags[i].toString());
-            s.endTag("", "Flag");
+            s.endTag("Flag");
         }
-        s.endTag("", "Flags");
+        s.endTag("Flags");
 
         String[] RegName = { "0", "1", "2", "3", "4", "5", "6", "7", "8", "9",
                 "A", "B", "C", "D", "E", "F", ".0", ".1", ".2", ".3", ".4",
                 ".5", ".6", ".7", ".8", ".9", ".A", ".B", ".C", ".D", ".E",
                 ".F" };
-        s.startTag("", "Regs");
-        for (int i = 0; i < Integer.parseInt(fmMain.prop
-                .getProperty("NumRegisters")); i++) {
-            s.startTag("", "Reg");
+        s.startTag("Regs");
+        for (int i = 0; i < pConfig.getNumRegisters(); i++) {
+            s.startTag("Reg");
             if (i < RegName.length) {
-                s.attribute("", "name", RegName[i]);
+                s.attribute("name", RegName[i]);
             } else {
-                s.attribute("", "name", "Reg" + i);
+                s.attribute("name", "Reg" + i);
             }
-            s.startTag("", "FVal");
+            s.startTag("FVal");
             s.text(pReg[i].getFVal().toString());
-            s.endTag("", "FVal");
-            s.startTag("", "BiVal");
+            s.endTag("FVal");
+            s.startTag("BiVal");
             s.text(pReg[i].getBiVal().ToStringHex());
-            s.endTag("", "BiVal");
-            s.endTag("", "Reg");
+            s.endTag("BiVal");
+            s.endTag("Reg");
         }
-        s.endTag("", "Regs");
+        s.endTag("Regs");
 
-        s.startTag("", "RegIndex");
-        s.startTag("", "FVal");
+        s.startTag("RegIndex");
+        s.startTag("FVal");
         s.text(pRegIndex.getFVal().toString());
-        s.endTag("", "FVal");
-        s.startTag("", "BiVal");
+        s.endTag("FVal");
+        s.startTag("BiVal");
         s.text(pRegIndex.getBiVal().ToStringHex());
-        s.endTag("", "BiVal");
-        s.endTag("", "RegIndex");
+        s.endTag("BiVal");
+        s.endTag("RegIndex");
 
         String[] StackName = { "T", "Z", "Y", "X" };
         Register[] StackArray = pStack.ToArray();
-        s.startTag("", "Stacks");
+        s.startTag("Stacks");
         for (int i = 0; i < 4; i++) {
-            s.startTag("", "Stack");
-            s.attribute("", "name", StackName[i]);
-            s.startTag("", "FVal");
+            s.startTag("Stack");
+            s.attribute("name", StackName[i]);
+            s.startTag("FVal");
             s.text(StackArray[i].getFVal().toString());
-            s.endTag("", "FVal");
-            s.startTag("", "BiVal");
+            s.endTag("FVal");
+            s.startTag("BiVal");
             s.text(StackArray[i].getBiVal().ToStringHex());
-            s.endTag("", "BiVal");
-            s.endTag("", "Stack");
+            s.endTag("BiVal");
+            s.endTag("Stack");
         }
-        s.endTag("", "Stacks");
+        s.endTag("Stacks");
 
-        s.startTag("", "RegLastX");
-        s.startTag("", "FVal");
+        s.startTag("RegLastX");
+        s.startTag("FVal");
         s.text(pRegLastX.getFVal().toString());
-        s.endTag("", "FVal");
-        s.startTag("", "BiVal");
+        s.endTag("FVal");
+        s.startTag("BiVal");
         s.text(pRegLastX.getBiVal().ToStringHex());
-        s.endTag("", "BiVal");
-        s.endTag("", "RegLastX");
+        s.endTag("BiVal");
+        s.endTag("RegLastX");
 
-        s.startTag("", "PrgmPosition");
+        s.startTag("PrgmPosition");
         s.text(pPrgmPosition.toString());
-        s.endTag("", "PrgmPosition");
+        s.endTag("PrgmPosition");
 
         // start with 1, since that's what the display uses
         Integer num = 1;
-        s.startTag("", "PrgmMemory");
+        s.startTag("PrgmMemory");
         for (String line : pPrgmMemory) {
-            s.startTag("", "Line");
-            s.attribute("", "name", String.format("%1$03d", num));
+            s.startTag("Line");
+            s.attribute("name", String.format("%1$03d", num));
             s.text(line);
-            s.endTag("", "Line");
+            s.endTag("Line");
             num++;
         }
-        s.endTag("", "PrgmMemory");
+        s.endTag("PrgmMemory");
 
         num = 0;
-        s.startTag("", "PrgmRetStack");
+        s.startTag("PrgmRetStack");
         if (pPrgmRetStack.size() > 0) {
             for (Integer i : pPrgmRetStack.toArray(new Integer[pPrgmRetStack
                     .size()])) {
-                s.startTag("", "Return");
-                s.attribute("", "name", num.toString());
+                s.startTag("Return");
+                s.attribute("name", num.toString());
                 s.text(i.toString());
-                s.endTag("", "Return");
+                s.endTag("Return");
                 num++;
             }
         }
-        s.endTag("", "PrgmRetStack");
-        s.endTag("", "CalcState");
+        s.endTag("PrgmRetStack");
+        s.endTag("CalcState");
         s.endDocument();
 
         return sw.toString();
@@ -458,7 +496,7 @@ public class CalcState {
             // it's possible that somebody changed the configuration, so we
             // can't count on NumRegisters
             int num_regs = Math.min(nl.getLength(),
-                    Integer.parseInt(fmMain.prop.getProperty("NumRegisters")));
+                    pConfig.getNumRegisters());
             for (int i = 0; i < num_regs; i++) {
                 subnl = nl.item(i).getChildNodes();
                 pReg[i].setFVal(Double.parseDouble(subnl.item(0)
@@ -527,10 +565,11 @@ public class CalcState {
     }
 
     // Resize all of the Big Integer values inside the registers
+    // (a resize only swaps in the size descriptor and masks, so this is cheap)
     private void ReSizeAll(int size) {
-        if (Boolean.parseBoolean(fmMain.prop.getProperty("SyncConversions"))) {
-            for (int i = 0; i < Integer.parseInt(fmMain.prop
-                    .getProperty("NumRegisters")); i++) {
+        if (pConfig.isSyncConversions()) {
+            int numRegisters = pConfig.getNumRegisters();
+            for (int i = 0; i < numRegisters; i++) {
                 pReg[i].getBiVal().setWordSize(size);
             }
             pRegLastX.getBiVal().setWordSize(size);
@@ -568,8 +607,7 @@ public class CalcState {
     // registers
     private void ReArithAll(CalcArithMode mode) {
         BigInt.ArithMode bimode = BigInt.ArithMode.toArithMode(mode.index());
-        for (int i = 0; i < Integer.parseInt(fmMain.prop
-                .getProperty("NumRegisters")); i++) {
+        for (int i = 0; i < pConfig.getNumRegisters(); i++) {
             pReg[i].getBiVal().setBIArithMode(bimode);
         }
         pRegLastX.getBiVal().setBIArithMode(bimode);
@@ -582,7 +620,7 @@ public class CalcState {
 
     // Synchronize the Big Integer and Float values within a Register
     public void SyncValues() {
-        if (Boolean.parseBoolean(fmMain.prop.getProperty("SyncConversions"))) {
+        if (pConfig.isSyncConversions()) {
             // With SyncConversion set to true, we do NOT follow the behavior
             // of the real calculator. Instead, we synchronize the integer
             // and float values when switching between modes. Obviously, there
@@ -594,8 +632,7 @@ public class CalcState {
 
                 // if we're currently in the float mode, then we need to
                 // copy those values to the to the integer mode
-                for (int i = 0; i < Integer.parseInt(fmMain.prop
-                        .getProperty("NumRegisters")); i++) {
+                for (int i = 0; i < pConfig.getNumRegisters(); i++) {
                     pReg[i].setBiVal(new BigInt(pReg[i].getFVal(), pWordSize,
                             bimode));
                 }
@@ -612,8 +649,7 @@ public class CalcState {
                 pRegIndex.setBiVal(new BigInt(pRegIndex.getFVal(), 64, bimode));
             } else {
                 // copy the values to the float mode
-                for (int i = 0; i < Integer.parseInt(fmMain.prop
-                        .getProperty("NumRegisters")); i++) {
+                for (int i = 0; i < pConfig.getNumRegisters(); i++) {
                     pReg[i].setFVal(pReg[i].getBiVal().ToLong());
                 }
                 pRegLastX.setFVal(pRegLastX.getBiVal().ToLong());
@@ -644,9 +680,9 @@ public class CalcState {
                         neg = true;
                         x = x * -1;
                     }
-                    temp = x / Math.pow(2, 32);
+                    temp = Math.scalb(x, -32);
                     tempX = (long) (Math.log(temp) / Math.log(2));
-                    tempY = (long) (x / Math.pow(2, tempX));
+                    tempY = (long) Math.scalb(x, (int) -tempX);
                     if (neg) {
                         tempY = tempY * -1;
                     }
@@ -664,12 +700,15 @@ public class CalcState {
                 pStack.getT().setFVal(0);
                 pRegLastX.setFVal(0);
 
-                // set x = (y)(2^x)
-                pStack.getX()
-                        .setFVal(
-                                pStack.getY().getBiVal().ToLong()
-                                        * Math.pow(2, pStack.getX().getBiVal()
-                                                .ToLong()));
+                // set x = (y)(2^x). Anything past +/-2200 is already
+                // infinity (or zero) as a double, so it's safe to clamp the
+                // exponent to an int. A y of 0 always gives 0 (multiplying
+                // by Math.pow(2, x) gave NaN when 2^x was infinity).
+                long exponent = pStack.getX().getBiVal().ToLong();
+                exponent = Math.max(Math.min(exponent, 2200), -2200);
+                pStack.getX().setFVal(
+                        Math.scalb((double) pStack.getY().getBiVal().ToLong(),
+                                (int) exponent));
             }
         }
     }
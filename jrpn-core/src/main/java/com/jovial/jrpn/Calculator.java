@@ -0,0 +1,2577 @@
+package com.jovial.jrpn;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+// This is the calculator "engine"... it processes keystrokes and
+// performs the appropriate functions
+public class Calculator implements CalcEngine {
+
+    private Locale floatFormatLocale = null;
+    private final static int F_KEY = 128;
+    private final static int G_KEY = 256;
+
+    // The native key codes
+    // Digits (0-9 and A-F) use their own hex values, all others use a grid
+    // system like this:
+    //  A,  B,  C,  D,  E,  F, 7,  8,  9, 10
+    // 21, 22, 23, 24, 25, 26, 4,  5,  6, 20
+    // 31, 32, 33, 35, 35, 36, 1,  2,  3, 30
+    // 41, 42, 43, 44, 45,     0, 48, 49, 40
+    public enum k {
+
+        // The normal un-shifted keys
+        KeyA(0xa), KeyB(0xb), KeyC(0xc), KeyD(0xd), KeyE(0xe), KeyF(0xf), Key7(
+                0x7), Key8(0x8), Key9(0x9), KeyDiv(0x10), KeyGSB(0x21), KeyGTO(
+                0x22), KeyHEX(0x23), KeyDEC(0x24), KeyOCT(0x25), KeyBIN(0x26), Key4(
+                0x4), Key5(0x5), Key6(0x6), KeyMul(0x20), KeyRS(0x31), KeySST(
+                0x32), KeyRol(0x33), KeyXY(0x34), KeyBSP(0x35), KeyEnt(0x36), Key1(
+                0x1), Key2(0x2), Key3(0x3), KeyMin(0x30), KeyON(0x41), KeyFKey(
+                0x42), KeyGKey(0x43), KeySTO(0x44), KeyRCL(0x45), Key0(0x0), KeyDp(
+                0x48), KeyCHS(0x49), KeyAdd(0x40),
+
+        // The Yellow (F key) shifted functions
+        FnSL(k.KeyA.index() + F_KEY), FnSR(k.KeyB.index() + F_KEY), FnRL(k.KeyC
+                .index() + F_KEY), FnRR(k.KeyD.index() + F_KEY), FnRLn(k.KeyE
+                .index() + F_KEY), FnRRn(k.KeyF.index() + F_KEY), FnMASKL(
+                k.Key7.index() + F_KEY), FnMASKR(k.Key8.index() + F_KEY), FnRMD(
+                k.Key9.index() + F_KEY), FnXOR(k.KeyDiv.index() + F_KEY), FnXIndex(
+                k.KeyGSB.index() + F_KEY), FnXI(k.KeyGTO.index() + F_KEY), FnShowHex(
+                k.KeyHEX.index() + F_KEY), FnShowDec(k.KeyDEC.index() + F_KEY), FnShowOct(
+                k.KeyOCT.index() + F_KEY), FnShowBin(k.KeyBIN.index() + F_KEY), FnSB(
+                k.Key4.index() + F_KEY), FnCB(k.Key5.index() + F_KEY), FnBSet(
+                k.Key6.index() + F_KEY), FnAND(k.KeyMul.index() + F_KEY), FnIndex(
+                k.KeyRS.index() + F_KEY), FnI(k.KeySST.index() + F_KEY), FnClearPrgm(
+                k.KeyRol.index() + F_KEY), FnClearReg(k.KeyXY.index() + F_KEY), FnClearPrefix(
+                k.KeyBSP.index() + F_KEY), FnWINDOW(k.KeyEnt.index() + F_KEY), FnSet1s(
+                k.Key1.index() + F_KEY), FnSet2s(k.Key2.index() + F_KEY), FnSetUnsgn(
+                k.Key3.index() + F_KEY), FnNOT(k.KeyMin.index() + F_KEY), FnWSIZE(
+                k.KeySTO.index() + F_KEY), FnFLOAT(k.KeyRCL.index() + F_KEY), FnMEM(
+                k.Key0.index() + F_KEY), FnSTATUS(k.KeyDp.index() + F_KEY), FnEEX(
+                k.KeyCHS.index() + F_KEY), FnOR(k.KeyAdd.index() + F_KEY),
+
+        // The Blue (G key) shifted functions
+        FnLJ(k.KeyA.index() + G_KEY), FnASR(k.KeyB.index() + G_KEY), FnRLC(
+                k.KeyC.index() + G_KEY), FnRRC(k.KeyD.index() + G_KEY), FnRLCn(
+                k.KeyE.index() + G_KEY), FnRRCn(k.KeyF.index() + G_KEY), FnNumB(
+                k.Key7.index() + G_KEY), FnABS(k.Key8.index() + G_KEY), FnDBLR(
+                k.Key9.index() + G_KEY), FnDBLDiv(k.KeyDiv.index() + G_KEY), FnRTN(
+                k.KeyGSB.index() + G_KEY), FnLBL(k.KeyGTO.index() + G_KEY), FnDSZ(
+                k.KeyHEX.index() + G_KEY), FnISZ(k.KeyDEC.index() + G_KEY), FnSqrt(
+                k.KeyOCT.index() + G_KEY), FnInv(k.KeyBIN.index() + G_KEY), FnSF(
+                k.Key4.index() + G_KEY), FnCF(k.Key5.index() + G_KEY), FnFSet(
+                k.Key6.index() + G_KEY), FnDBLMul(k.KeyMul.index() + G_KEY), FnPR(
+                k.KeyRS.index() + G_KEY), FnBST(k.KeySST.index() + G_KEY), FnRolUp(
+                k.KeyRol.index() + G_KEY), FnPSE(k.KeyXY.index() + G_KEY), FnCLX(
+                k.KeyBSP.index() + G_KEY), FnLSTX(k.KeyEnt.index() + G_KEY), FnXlteY(
+                k.Key1.index() + G_KEY), FnXlt0(k.Key2.index() + G_KEY), FnXgtY(
+                k.Key3.index() + G_KEY), FnXgt0(k.KeyMin.index() + G_KEY), FnSLeft(
+                k.KeySTO.index() + G_KEY), FnSRight(k.KeyRCL.index() + G_KEY), FnXneY(
+                k.Key0.index() + G_KEY), FnXne0(k.KeyDp.index() + G_KEY), FnXeqY(
+                k.KeyCHS.index() + G_KEY), FnXeq0(k.KeyAdd.index() + G_KEY),
+            
+        // a pseudo key for refreshing the screen
+                Refresh(-1);
+        
+        // make a java enum a bit more civilized
+        private int pindex;
+
+        k() {
+            this.pindex = pindex + 1;
+        }
+
+        k(int val) {
+            this.pindex = val;
+        }
+
+        public int index() {
+            return pindex;
+        }
+
+        // the keys, by their code
+        private final static k[] BY_INDEX = new k[F_KEY + G_KEY];
+
+        static {
+            for (k enum_val : k.values()) {
+                if (enum_val.pindex >= 0
+                        && BY_INDEX[enum_val.pindex] == null) {
+                    BY_INDEX[enum_val.pindex] = enum_val;
+                }
+            }
+        }
+
+        public static k toK(int val) {
+            if (val >= 0 && val < BY_INDEX.length) {
+                return BY_INDEX[val];
+            }
+            if (val == Refresh.pindex) {
+                return Refresh;
+            }
+            // should this throw an exception?
+            return null;
+        }
+    }
+
+    private CalcState cs;
+    private CalcConfig config;
+    private DisplayPacket Packet;
+    private StringBuilder RawDisplay;
+    private int WinPos;
+
+    private k[] ShortCutAllowed = { k.KeySTO, k.KeyRCL, k.KeyGSB,
+        k.KeyGTO };
+    private k[] DpNotAllowed = { k.FnWINDOW, k.FnSF, k.FnCF, k.FnFSet,
+        k.FnLBL, k.KeyGSB };
+    private k[] TerminateInput = { k.KeyBSP, k.KeyDp, k.KeyCHS, k.FnEEX };
+    private k[] DoNotResetWinPos = { k.FnSLeft, k.FnSRight, k.KeySTO,
+        k.FnMEM, k.FnSTATUS, k.FnPR, k.FnLBL, k.FnRTN, k.FnSF, k.FnCF,
+        k.FnFSet, k.FnPSE, k.KeyRS, k.KeyGSB, k.KeyGTO, k.KeySST, k.FnABS,
+        k.FnDSZ, k.FnISZ, k.FnShowBin, k.FnClearPrgm, k.FnClearReg,
+        k.FnClearPrefix, k.FnXeq0, k.FnXeqY, k.FnXgt0, k.FnXgtY, k.FnXlt0,
+        k.FnXlteY, k.FnXne0, k.FnXneY, k.FnWINDOW };
+
+    private final static String DIGITS = "0123456789ABCDEF";
+
+    // Which modes a key works in (in the others, it just beeps)
+    private enum Modes {
+        Any, IntegerOnly, FloatOnly
+    }
+
+    // What a key does. Most keys go through the same few steps around
+    // their own work, and ProcessKey does those from what the Op says
+    // about itself: the key is checked against the current mode; in
+    // program mode, a key with a name is stored as a program line instead
+    // of being run; and X can be saved in Last X first. The clean up
+    // afterwards (the stage, the prefix, the window and the display) is
+    // the same for every key.
+    private abstract class Op {
+        // the name in the program listing (null if the key stores itself,
+        // or can't be stored)
+        final String name;
+        final Modes modes;
+        // save X in Last X (and enable the stack) before running
+        final boolean lastX;
+        // these are filled in when the Op is added to the table
+        String listing;
+        boolean terminatesInput;
+        boolean keepsWindow;
+
+        Op() {
+            this(null, Modes.Any, false);
+        }
+
+        Op(String name) {
+            this(name, Modes.Any, false);
+        }
+
+        Op(String name, Modes modes) {
+            this(name, modes, false);
+        }
+
+        Op(String name, Modes modes, boolean lastX) {
+            this.name = name;
+            this.modes = modes;
+            this.lastX = lastX;
+        }
+
+        // Is this valid for the current mode?
+        final boolean Allowed() {
+            switch (modes) {
+            case IntegerOnly:
+                return cs.getOpMode() != CalcState.CalcOpMode.Float;
+            case FloatOnly:
+                return cs.getOpMode() == CalcState.CalcOpMode.Float;
+            default:
+                return true;
+            }
+        }
+
+        // The key's own work. Returns the packet to send straight back
+        // (skipping the clean up), or null to carry on as usual.
+        abstract DisplayPacket Run();
+    }
+
+    // save X in Last X, for the Op constructor
+    private final static boolean LAST_X = true;
+
+    // The Ops, by key code (the shifted functions are at their code plus
+    // F_KEY or G_KEY)
+    private Op[] Ops = new Op[F_KEY + G_KEY];
+
+    // The Refresh pseudo key, which just updates the display
+    private Op NoOp = new Op() {
+        DisplayPacket Run() {
+            return null;
+        }
+    };
+
+    // The default constructor
+    public Calculator(CalcState calc_state) {
+        cs = calc_state;
+        config = cs.getConfig();
+        RawDisplay = new StringBuilder();
+        WinPos = 0;
+
+        AddDigits();
+        AddArithmetic();
+        AddStackKeys();
+        AddRegisterKeys();
+        AddBitKeys();
+        AddModeKeys();
+        AddProgramKeys();
+
+        Packet = new DisplayPacket();
+        Packet.setCarry_Annunciator(cs.isFlag(CalcState.CalcFlag.Carry));
+        Packet.setOverflow_Annunciator(cs.isFlag(CalcState.CalcFlag.Overflow));
+        Packet.setDisplayText(FormatDisplay());
+    }
+
+    // The keystroke state belongs to this Calculator, so that any number of
+    // them can run side by side
+    private int Prefix = 0;
+    private java.util.Stack<Integer> Stage = new java.util.Stack<Integer>();
+    private boolean PrgmEntry = false;
+    private boolean StackDisable = false;
+    private boolean PadDecimal = false;
+
+    // Process a calculator key stroke
+    public DisplayPacket ProcessKey(int CalcKey) {
+        k key;
+        Op op;
+
+        // There are 3 types of "keys" that we deal with here:
+        // 1) Ordinary "white" keys (like the plus key for addition)
+        // 2) Shifted functions (the yellow or blue functions) that
+        //    require the yellow f or blue g key followed by an ordinary key
+        // 3) Multi-stage functions that require 1 or more additional
+        //    keystrokes as operands. Example: the STO function
+        //    can't be processed until a 2nd key is pressed to indicate
+        //    the register number. Note: Multi-stage can also be
+        //    shifted.
+
+        // Shifted functions are handled by adding the prefix value
+        if (CalcKey == k.KeyFKey.index() || CalcKey == k.KeyGKey.index()) {
+            // in case we accidently "double" shifted
+            key = k.toK(CalcKey);
+        } else {
+            if (CalcKey == -1) {
+                key = k.Refresh;
+            } else {
+                key = k.toK(CalcKey + Prefix);
+                if (key == null) {
+                    key = k.Refresh;
+                }
+            }
+        }
+        op = (key == k.Refresh) ? NoOp : Ops[key.index()];
+
+        // clean up the packet for this next run
+        Packet.setAlternateText("");
+        Packet.setF_Annunciator(false);
+        Packet.setG_Annunciator(false);
+        Packet.setPrgm_Annunciator(PrgmEntry);
+        Packet.setMenuNeedsUpdating(false);
+        Packet.setDelay(0);
+        Packet.setBeep(false);
+        Packet.setStart(DisplayPacket.StartType.None);
+
+        // This is the main step for processing the keys and functions
+        if (!op.Allowed()) {
+            Packet.setBeep(true);
+        } else if (PrgmEntry && op.listing != null) {
+            Record(op.listing);
+        } else {
+            if (op.lastX) {
+                cs.setRegLastX(cs.getStack().getX().Copy());
+                StackDisable = false;
+            }
+
+            DisplayPacket ans = op.Run();
+            if (ans != null) {
+                return ans;
+            }
+        }
+
+        // There are three types of clean up operations...
+        // 1) Terminate an incomplete stage
+        // 2) Clear the prefix
+        // 3) Reset the display window to 0
+
+        // Terminate an incomplete stage (if any)
+        if (Stage.size() > 0 && Stage.firstElement() != key.index()) {
+            if (key.index() > 15 && key != k.KeyDp && key != k.FnI
+                    && key != k.FnIndex) {
+                // The real calculator is very forgiving (and silent) when you
+                // enter a nonsensical stage operand (such as "STO +"). So, I
+                // guess I'll do the same here (except for the silent part)
+                Packet.setBeep(true);
+                Stage.clear();
+            }
+        }
+
+        // clear the prefix (if set)
+        Prefix = 0;
+
+        // should we reset the window position?
+        if (!op.keepsWindow) {
+            WinPos = 0;
+        }
+
+        // There are 3 things that could be showing in the display
+        // 1) program lines during the "Program Entry" mode
+        // 2) Raw input before it has been formatted
+        // 3) Fully formatted register values
+
+        if (PrgmEntry) {
+            // Is this test even necessary? The PrgmMemoryLines value is quite
+            // arbitrary. I could just not bother, and nobody would notice.
+            if (cs.getPrgmMemory().size() == config.getPrgmMemoryLines()) {
+                Packet.setAlternateText("Error 4 - Improper Line Number");
+                cs.getPrgmMemory().remove(config.getPrgmMemoryLines());
+                cs.setPrgmPosition(config.getPrgmMemoryLines() - 1);
+                return Packet;
+            }
+
+            if (cs.getPrgmPosition() > 0) {
+                Packet.setDisplayText(String.format("%1$03d",
+                        cs.getPrgmPosition())
+                        + "- "
+                        + cs.getPrgmMemory().get(cs.getPrgmPosition() - 1)
+                                .substring(0, 8));
+            } else {
+                Packet.setDisplayText("000-");
+            }
+        } else {
+            // Should we terminate any existing digit entry? There are only
+            // a few keys that do NOT terminate entry (page 99)
+            if (op.terminatesInput) {
+                RawDisplay.setLength(0);
+            }
+
+            // Either display the raw text or show the value of the
+            // X register
+            if (RawDisplay.length() > 0) {
+                // is this a new entry? If so, then push the existing value of
+                // the X register deeper onto the stack.
+                // v6.0.4 - 29 May 12
+                if ((RawDisplay.length() == 1 || PadDecimal) && !StackDisable) {
+                    cs.getStack().Push(cs.getStack().getX());
+                }
+                StackDisable = false;
+                PadDecimal = false;
+
+                // put it in X, but don't (yet) format the display
+                ConvertInput(RawDisplay.toString());
+
+                // does the input fit in the size of our register
+                if (cs.getStack().getX().getBiVal().isLossOfPrecision()
+                        || Double.isInfinite(cs.getStack().getX().getFVal())) {
+                    // remove the last digit you typed
+                    RawDisplay.delete(RawDisplay.length() - 1,
+                            RawDisplay.length());
+                    Packet.setBeep(true);
+                    // try it again
+                    ConvertInput(RawDisplay.toString());
+                }
+
+                // Display the partial "raw" (unformatted) input. If the input
+                // exceeds 37 characters, we trim to show the right-most
+                // portion of the string. There is no scrolling/windowing in
+                // the raw input mode. This trimming does NOT affect how the
+                // string gets converted into a number.
+                if (!cs.isPrgmRunning()) {
+                    switch (cs.getOpMode()) {
+                    case Float:
+                        Packet.setDisplayText(StringRight(
+                                RawDisplay.toString(), 37));
+                        break;
+                    case Hex:
+                        Packet.setDisplayText(String.format("%1$39s",
+                                StringRight(RawDisplay.toString(), 37) + " h"));
+                        break;
+                    case Dec:
+                        Packet.setDisplayText(String.format("%1$39s",
+                                StringRight(RawDisplay.toString(), 37) + " d"));
+                        break;
+                    case Oct:
+                        Packet.setDisplayText(String.format("%1$39s",
+                                StringRight(RawDisplay.toString(), 37) + " o"));
+                        break;
+                    case Bin:
+                        Packet.setDisplayText(String.format("%1$39s",
+                                StringRight(RawDisplay.toString(), 37) + " b"));
+                        break;
+                    }
+                }
+            } else {
+                // display the formatted value of the X register
+                if (!cs.isPrgmRunning()) {
+                    Packet.setDisplayText(FormatDisplay(cs.getOpMode(), WinPos));
+                }
+            }
+        }
+
+        // update the packet info
+        Packet.setCarry_Annunciator(cs.isFlag(CalcState.CalcFlag.Carry));
+        Packet.setOverflow_Annunciator(cs.isFlag(CalcState.CalcFlag.Overflow));
+        return Packet;
+    }
+
+    // Put the Op in the table, under the key's code
+    private void Add(k key, Op op) {
+        if (op.name != null) {
+            op.listing = Listing(key, op.name);
+        }
+        op.terminatesInput = key.index() > 15
+                && ArrayindexOf(TerminateInput, key) < 0;
+        op.keepsWindow = ArrayindexOf(DoNotResetWinPos, key) >= 0;
+        Ops[key.index()] = op;
+    }
+
+    // How a key is stored as a program line: the shifted functions are
+    // the prefix key's code followed by the unshifted key's code
+    private static String Listing(k key, String name) {
+        if (key.index() >= G_KEY) {
+            return String.format("%1$5X%2$3X    '%3$s", k.KeyGKey.index(),
+                    key.index() - G_KEY, name);
+        } else if (key.index() >= F_KEY) {
+            return String.format("%1$5X%2$3X    '%3$s", k.KeyFKey.index(),
+                    key.index() - F_KEY, name);
+        }
+        return String.format("%1$8X    '%2$s", key.index(), name);
+    }
+
+    // Store a line in the program, at the current position
+    private void Record(String line) {
+        cs.getPrgmMemory().add(cs.getPrgmPosition(), line);
+        cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+    }
+
+    // Put the key on the stage, as an operand of a multi-stage command
+    private DisplayPacket Operand(int code) {
+        Stage.push(code);
+
+        // return to the first stage for processing
+        return ProcessKey(Stage.firstElement());
+    }
+
+    // Start the stage for a multi-stage command, if it hasn't been started
+    // yet (or was started by some other command). Returns true if it was,
+    // and the command has to wait for its operands.
+    private boolean StartStage(k key) {
+        if (Stage.size() == 0) {
+            Stage.push(key.index());
+            return true;
+        }
+
+        // a quick sanity check
+        if (Stage.firstElement() != key.index()) {
+            Stage.clear();
+            Stage.push(key.index());
+            return true;
+        }
+        return false;
+    }
+
+    // Show an error in the display
+    private DisplayPacket Error(String text) {
+        Packet.setAlternateText(text);
+        Prefix = 0;
+        return Packet;
+    }
+
+    // The digits that can be keyed in the given OpMode
+    private static int Radix(CalcState.CalcOpMode Op) {
+        switch (Op) {
+        case Hex:
+            return 16;
+        case Oct:
+            return 8;
+        case Bin:
+            return 2;
+        default:
+            return 10;
+        }
+    }
+
+    // The 0 to 9 and A to F keys
+    private class Digit extends Op {
+        private final int value;
+        private final String line;
+
+        Digit(int value) {
+            this.value = value;
+            line = String.format("%1$8X", value);
+        }
+
+        DisplayPacket Run() {
+            // Is this just a part of a multi-stage command?
+            if (Stage.size() > 0) {
+                return Operand(value);
+            }
+
+            // Is this valid for the current mode?
+            if (value >= Radix(cs.getOpMode())) {
+                Packet.setBeep(true);
+                return null;
+            }
+
+            if (PrgmEntry) {
+                Record(line);
+            } else {
+                RawDisplay.append(DIGITS.charAt(value));
+            }
+            return null;
+        }
+    }
+
+    private void AddDigits() {
+        for (int i = 0; i < DIGITS.length(); i++) {
+            Add(k.toK(i), new Digit(i));
+        }
+    }
+
+    private void AddArithmetic() {
+        Add(k.KeyDiv, new Op("/", Modes.Any, LAST_X) { // Division
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    // v6.0.7 - 22 Jul 2015
+                    if (cs.getStack().getX().getFVal() == 0) {
+                        return Error("Error 0 - Improper Math Operation");
+                    }
+
+                    double y;
+                    y = cs.getStack().Pop().getFVal();
+                    temp.setFVal(cs.getStack().Pop().getFVal() / y);
+                    cs.setFlag(CalcState.CalcFlag.Overflow,
+                            Double.isInfinite(temp.getFVal()));
+                } else {
+                    // v6.0.7 - 22 Jul 2015
+                    if (cs.getStack().getX().getBiVal().IsZeroValue()) {
+                        return Error("Error 0 - Improper Math Operation");
+                    }
+
+                    BigInt y;
+                    y = cs.getStack().Pop().getBiVal();
+                    BigInt.Divide(cs.getStack().Pop().getBiVal(), y, 0,
+                            temp.getBiVal());
+                    cs.setFlag(CalcState.CalcFlag.Carry, temp.getBiVal()
+                            .isCarryBit());
+                    cs.setFlag(CalcState.CalcFlag.Overflow, temp.getBiVal()
+                            .isOverflow());
+                }
+                Packet.setMenuNeedsUpdating(true);
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        Add(k.KeyMul, new Op("*", Modes.Any, LAST_X) { // Multiplication
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    temp.setFVal(cs.getStack().Pop().getFVal()
+                            * cs.getStack().Pop().getFVal());
+                    cs.setFlag(CalcState.CalcFlag.Overflow,
+                            Double.isInfinite(temp.getFVal()));
+                } else {
+                    BigInt.Multiply(cs.getStack().Pop().getBiVal(), cs
+                            .getStack().Pop().getBiVal(), 0, temp.getBiVal());
+                    cs.setFlag(CalcState.CalcFlag.Overflow, temp.getBiVal()
+                            .isOverflow());
+                }
+                Packet.setMenuNeedsUpdating(true);
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        Add(k.KeyMin, new Op("-", Modes.Any, LAST_X) { // Subtraction
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    double y = cs.getStack().Pop().getFVal();
+                    temp.setFVal(cs.getStack().Pop().getFVal() - y);
+                    cs.setFlag(CalcState.CalcFlag.Overflow,
+                            Double.isInfinite(temp.getFVal()));
+                } else {
+                    BigInt y = cs.getStack().Pop().getBiVal();
+                    BigInt.Subtract(cs.getStack().Pop().getBiVal(), y, 0,
+                            temp.getBiVal());
+                    cs.setFlag(CalcState.CalcFlag.Carry, temp.getBiVal()
+                            .isCarryBit());
+                    cs.setFlag(CalcState.CalcFlag.Overflow, temp.getBiVal()
+                            .isOverflow());
+                }
+                Packet.setMenuNeedsUpdating(true);
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        Add(k.KeyAdd, new Op("+", Modes.Any, LAST_X) { // Addition
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    temp.setFVal(cs.getStack().Pop().getFVal()
+                            + cs.getStack().Pop().getFVal());
+                    cs.setFlag(CalcState.CalcFlag.Overflow,
+                            Double.isInfinite(temp.getFVal()));
+                } else {
+                    BigInt.Add(cs.getStack().Pop().getBiVal(), cs.getStack()
+                            .Pop().getBiVal(), 0, temp.getBiVal());
+                    cs.setFlag(CalcState.CalcFlag.Carry, temp.getBiVal()
+                            .isCarryBit());
+                    cs.setFlag(CalcState.CalcFlag.Overflow, temp.getBiVal()
+                            .isOverflow());
+                }
+                Packet.setMenuNeedsUpdating(true);
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        Add(k.KeyCHS, new Op("CHS") { // Change sign
+            DisplayPacket Run() {
+                // an exception to the rule for terminating input (page 99)
+                if (RawDisplay.length() > 0
+                        && cs.getOpMode() != CalcState.CalcOpMode.Float) {
+                    RawDisplay.setLength(0);
+                }
+
+                // changing signs while keying digits
+                if (RawDisplay.length() > 0) {
+                    String t = RawDisplay.toString();
+                    RawDisplay.setLength(0);
+                    // is there an exponent showing?
+                    if (t.contains("e")) {
+                        // it's rather odd that once there is an exponent
+                        // you can no longer change the sign of the mantissa
+                        if (t.contains("e-")) {
+                            t = t.replace("e-", "e");
+                        } else {
+                            t = t.replace("e", "e-");
+                        }
+                        RawDisplay.append(t);
+                    } else {
+                        if (t.startsWith("-")) {
+                            RawDisplay.append(t.substring(1));
+                        } else {
+                            RawDisplay.append("-");
+                            RawDisplay.append(t);
+                        }
+                    }
+                } else {
+                    // just change the sign of what's in the X Register
+                    if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                        cs.getStack().getX()
+                                .setFVal(-cs.getStack().getX().getFVal());
+                    } else {
+                        // LastX is updated only in the integer mode (page 100)
+                        cs.setRegLastX(cs.getStack().getX().Copy());
+                        cs.getStack().getX().getBiVal().ChangeSign();
+                        cs.setFlag(CalcState.CalcFlag.Overflow, cs.getStack()
+                                .getX().getBiVal().isOverflow());
+                        Packet.setMenuNeedsUpdating(true);
+                    }
+                    StackDisable = false;
+                }
+                return null;
+            }
+        });
+        // Remainder after division
+        Add(k.FnRMD, new Op("f RMD", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                BigInt y;
+
+                // v6.0.7 - 22 Jul 2015
+                if (cs.getStack().getX().getBiVal().IsZeroValue()) {
+                    return Error("Error 0 - Improper Math Operation");
+                }
+                y = cs.getStack().Pop().getBiVal();
+                BigInt.Remainder(cs.getStack().Pop().getBiVal(), y, 0,
+                        temp.getBiVal());
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        Add(k.FnABS, new Op("g ABS", Modes.Any, LAST_X) { // Absolute value
+            DisplayPacket Run() {
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    cs.getStack().getX()
+                            .setFVal(Math.abs(cs.getStack().getX().getFVal()));
+                } else {
+                    cs.getStack().getX().getBiVal().AbsoluteValue();
+                    cs.setFlag(CalcState.CalcFlag.Carry, cs.getStack().getX()
+                            .getBiVal().isCarryBit());
+                    Packet.setMenuNeedsUpdating(true);
+                }
+                return null;
+            }
+        });
+        // Double remainder (after division)
+        Add(k.FnDBLR, new Op("g DBLR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                if (cs.getStack().getX().getBiVal().IsZeroValue()) {
+                    return Error("Error 0 - Improper Math Operation");
+                }
+
+                Register x, y, z;
+                Register large = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                x = cs.getStack().Pop();
+                y = cs.getStack().Pop();
+                z = cs.getStack().Pop();
+                try {
+                    large.getBiVal().Combine(y.getBiVal(), z.getBiVal());
+                } catch (Exception e) {
+                    // Not likely!
+                }
+                large.setBiVal(BigInt.Remainder(large.getBiVal(),
+                        x.getBiVal()));
+                if (large.getBiVal().isOverflow()) {
+                    return Error("Error 0 - Improper Math Operation");
+                }
+                large.getBiVal().setWordSize(cs.getWordSize());
+                cs.getStack().Push(large);
+                return null;
+            }
+        });
+        // Double division
+        Add(k.FnDBLDiv, new Op("g DBL/", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                if (cs.getStack().getX().getBiVal().IsZeroValue()) {
+                    return Error("Error 0 - Improper Math Operation");
+                }
+                Register x, y, z;
+                Register temp2;
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                x = cs.getStack().Pop();
+                y = cs.getStack().Pop();
+                z = cs.getStack().Pop();
+                try {
+                    temp.getBiVal().Combine(y.getBiVal(), z.getBiVal());
+                } catch (Exception e) {
+                    // Not likely!
+                }
+                temp.getBiVal().Divide(x.getBiVal(), cs.getWordSize() * 2);
+
+                // does the answer fit?
+                temp2 = temp.Copy();
+                temp2.getBiVal().setWordSize(cs.getWordSize());
+                if (!temp2.getBiVal().Equals(temp.getBiVal())) {
+                    // if not, then set error zero (page 53)
+                    return Error("Error 0 - Improper Math Operation");
+                }
+
+                cs.getStack().Push(temp2);
+                cs.setFlag(CalcState.CalcFlag.Carry, cs.getStack().getX()
+                        .getBiVal().isCarryBit());
+
+                // always clears the overflow flag (page 98)
+                cs.setFlag(CalcState.CalcFlag.Overflow, false);
+                Packet.setMenuNeedsUpdating(true);
+                return null;
+            }
+        });
+        // Double multiplication
+        Add(k.FnDBLMul, new Op("g DBL*", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register large_y;
+                Register x = new Register(cs.getWordSize(), cs.getArithMode());
+                Register y = new Register(cs.getWordSize(), cs.getArithMode());
+                large_y = cs.getStack().Pop();
+                large_y.getBiVal().setWordSize(cs.getWordSize() * 2);
+                // the whole (double size) product is kept
+                large_y.getBiVal().Multiply(cs.getStack().Pop().getBiVal(),
+                        cs.getWordSize() * 2);
+                BigInt[] ret = new BigInt[2];
+                try {
+                    ret = large_y.getBiVal().Split();
+                } catch (Exception e) {
+                    // not likely!
+                }
+                x.setBiVal(ret[0]);
+                y.setBiVal(ret[1]);
+                cs.getStack().Push(x);
+                cs.getStack().Push(y);
+
+                // always clears overflow (page 98)
+                cs.setFlag(CalcState.CalcFlag.Overflow, false);
+                Packet.setMenuNeedsUpdating(true);
+                return null;
+            }
+        });
+        Add(k.FnSqrt, new Op("g Sqrt", Modes.Any, LAST_X) { // Square root
+            DisplayPacket Run() {
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    if (cs.getStack().getX().getFVal() <= 0.0) {
+                        return Error("Error 0 - Improper Math Operation");
+                    }
+                    cs.getStack().getX()
+                            .setFVal(Math.sqrt(cs.getStack().getX().getFVal()));
+                } else {
+                    BigInt zero = new BigInt(cs.getWordSize(),
+                            BigInt.ArithMode.toArithMode(cs.getArithMode()
+                                    .index()));
+                    if (cs.getStack().getX().getBiVal().IsLessOrEqual(zero)) {
+                        return Error("Error 0 - Improper Math Operation");
+                    }
+                    cs.getStack().getX().getBiVal()
+                            .SquareRoot(cs.getWordSize());
+                    cs.setFlag(CalcState.CalcFlag.Carry, cs.getStack().getX()
+                            .getBiVal().isCarryBit());
+                    Packet.setMenuNeedsUpdating(true);
+                }
+                return null;
+            }
+        });
+        Add(k.FnInv, new Op("g 1/x", Modes.FloatOnly, LAST_X) { // Inverse
+            DisplayPacket Run() {
+                if (cs.getStack().getX().getFVal() == 0.0) {
+                    return Error("Error 0 - Improper Math Operation");
+                }
+                cs.getStack().getX()
+                        .setFVal(1.0 / cs.getStack().getX().getFVal());
+                return null;
+            }
+        });
+    }
+
+    private void AddStackKeys() {
+        Add(k.KeyRol, new Op("Rv") { // Roll the stack
+            DisplayPacket Run() {
+                Register temp;
+                temp = cs.getStack().getX().Copy();
+                cs.getStack().setX(cs.getStack().getY().Copy());
+                cs.getStack().setY(cs.getStack().getZ().Copy());
+                cs.getStack().setZ(cs.getStack().getT().Copy());
+                cs.getStack().setT(temp);
+                StackDisable = false;
+                return null;
+            }
+        });
+        Add(k.FnRolUp, new Op("g R^") { // Roll the stack up
+            DisplayPacket Run() {
+                Register temp;
+                temp = cs.getStack().getT().Copy();
+                cs.getStack().setT(cs.getStack().getZ().Copy());
+                cs.getStack().setZ(cs.getStack().getY().Copy());
+                cs.getStack().setY(cs.getStack().getX().Copy());
+                cs.getStack().setX(temp);
+                StackDisable = false;
+                return null;
+            }
+        });
+        Add(k.KeyXY, new Op("X:Y") { // Exchange X and Y
+            DisplayPacket Run() {
+                Register temp;
+                // v6.0.1 - 29 Mar 12
+                temp = cs.getStack().getY().Copy();
+                cs.getStack().setY(cs.getStack().getX().Copy());
+                cs.getStack().setX(temp);
+                StackDisable = false;
+                return null;
+            }
+        });
+        // Note: BSP can not be stored in Program Mode
+        Add(k.KeyBSP, new Op() { // The Backspace Key
+            DisplayPacket Run() {
+                if (PrgmEntry) {
+                    if (cs.getPrgmPosition() > 0) {
+                        cs.getPrgmMemory().remove(cs.getPrgmPosition() - 1);
+                        cs.setPrgmPosition(cs.getPrgmPosition() - 1);
+                    }
+                    return null;
+                }
+
+                // If digit entry has already been terminated, then this
+                // acts just like CLx
+                if (RawDisplay.length() == 0) {
+                    cs.getStack().setX(
+                            new Register(cs.getWordSize(), cs.getArithMode()));
+                    StackDisable = true;
+                    return null;
+                }
+
+                RawDisplay.delete(RawDisplay.length() - 1,
+                        RawDisplay.length());
+                if (RawDisplay.length() == 0) {
+                    cs.getStack().setX(
+                            new Register(cs.getWordSize(), cs.getArithMode()));
+                }
+
+                // Since we allow you to backspace over a number
+                // in scientific notation, we must make sure the
+                // raw display will still parse
+                String temp = RawDisplay.toString();
+                if (temp.endsWith("e")) {
+                    RawDisplay.delete(RawDisplay.length() - 1,
+                            RawDisplay.length());
+                } else if (temp.endsWith("e-")) {
+                    RawDisplay.delete(RawDisplay.length() - 2,
+                            RawDisplay.length());
+                }
+
+                // What about leaving a "naked" minus sign
+                if (temp.equals("-")) {
+                    RawDisplay.setLength(0);
+                    cs.getStack().setX(
+                            new Register(cs.getWordSize(), cs.getArithMode()));
+                }
+
+                // Here is a strange twist... if we only have 1 digit
+                // remaining then we have to explicitly tell the code that
+                // follows this select statement that this 1 digit is not
+                // a new entry. We do with via the StackDisable variable
+                // (although this has nothing to do with disabling the
+                // stack).
+                if (RawDisplay.length() == 1) {
+                    StackDisable = true;
+                }
+                return null;
+            }
+        });
+        Add(k.KeyEnt, new Op("Enter") { // The Enter key
+            DisplayPacket Run() {
+                // push the X value on the stack
+                cs.getStack().Push(cs.getStack().getX().Copy());
+                // "disable" the stack for the next entry
+                StackDisable = true;
+                return null;
+            }
+        });
+        Add(k.FnCLX, new Op("g CLx") { // Clear the X register
+            DisplayPacket Run() {
+                cs.getStack().setX(
+                        new Register(cs.getWordSize(), cs.getArithMode()));
+                // "disable" the stack for the next entry
+                StackDisable = true;
+                return null;
+            }
+        });
+        // Recall the contents of Last X register
+        Add(k.FnLSTX, new Op("g LSTx") {
+            DisplayPacket Run() {
+                cs.getStack().setX(cs.getRegLastX().Copy());
+                StackDisable = false;
+                return null;
+            }
+        });
+        Add(k.KeyDp, new Op() { // Decimal point
+            DisplayPacket Run() {
+                // Is this just a part of a multi-stage command?
+                if (Stage.size() > 0) {
+                    // Check for valid stages that accept a decimal point. It
+                    // makes since to check here so we can get immediate
+                    // feedback
+                    if (ArrayindexOf(DpNotAllowed,
+                            k.toK(Stage.firstElement())) >= 0) {
+                        // Note: The real calculator is very forgiving (and
+                        // silent) under these conditions. It just processes
+                        // the decimal point as if there was no staging.
+                        Stage.clear();
+                    } else {
+                        return Operand(k.KeyDp.index());
+                    }
+                }
+
+                // Is this valid for the current mode?
+                if (cs.getOpMode() != CalcState.CalcOpMode.Float) {
+                    Packet.setBeep(true);
+                    return null;
+                }
+
+                if (PrgmEntry) {
+                    Record(Listing(k.KeyDp, "."));
+                } else if (RawDisplay.length() == 0) {
+                    RawDisplay.append("0.");
+                    // v6.0.4 - 29 May 12
+                    // Since we have artificially padded the display we need
+                    // another way to indicate that this is a new digit
+                    PadDecimal = true;
+                } else {
+                    // extra decimal points are silently ignored
+                    if (RawDisplay.indexOf(".") < 0) {
+                        RawDisplay.append(".");
+                    }
+                }
+                return null;
+            }
+        });
+        // Enter exponent
+        Add(k.FnEEX, new Op("f EEX", Modes.FloatOnly) {
+            DisplayPacket Run() {
+                // This is a bit strange... if this is the first keystroke,
+                // then let's insert a 1 before it
+                if (RawDisplay.length() == 0) {
+                    RawDisplay.append("1");
+                }
+                RawDisplay.append("e");
+                return null;
+            }
+        });
+    }
+
+    // The register an STO or RCL is for: 0 to 31 (the ones after F being
+    // the "dot" registers), or FnI or FnIndex
+    private String RegisterName(int val) {
+        if (val == k.FnI.index()) {
+            return "I";
+        } else if (val == k.FnIndex.index()) {
+            return "(i)";
+        } else if (val >= 16) {
+            return "." + String.format("%1$X", val - 16);
+        }
+        return String.format("%1$X", val);
+    }
+
+    // The program line for an STO or RCL
+    private String RegisterListing(k key, int val, String name) {
+        name = name + " " + RegisterName(val);
+        if (val == k.FnI.index()) {
+            return String.format("%1$5X%2$3X    '%3$s", key.index(),
+                    k.KeySST.index(), name);
+        } else if (val == k.FnIndex.index()) {
+            return String.format("%1$5X%2$3X    '%3$s", key.index(),
+                    k.KeyRS.index(), name);
+        } else if (val >= 16) {
+            return String.format("%1$5X .%2$1X    '%3$s", key.index(),
+                    val - 16, name);
+        }
+        return String.format("%1$5X%2$3X    '%3$s", key.index(), val, name);
+    }
+
+    // Collect the register number for an STO or RCL. There could be 2 or
+    // 3 stages. Returns -1 if it has to wait for more, and -2 (having
+    // shown the error) if the number is no good.
+    private int RegisterOperand(k key) {
+        int val;
+
+        if (StartStage(key)) {
+            return -1;
+        }
+
+        // This is an odd, one... there could be 2 or 3 stages
+        if (Stage.peek() == k.KeyDp.index()) {
+            // we need another digit to continue
+            return -1;
+        }
+
+        // convert the values in the stages into a register number
+        val = Stage.pop();
+        if (val >= config.getNumRegisters() && val != k.FnI.index()
+                && val != k.FnIndex.index()) {
+            Packet.setAlternateText("Error 3 - Improper Register Number");
+            Stage.clear();
+            return -2;
+        }
+
+        if (Stage.pop() == k.KeyDp.index()) {
+            val = val + 16;
+        }
+
+        // clear the stage, we've completed a sequence
+        Stage.clear();
+        return val;
+    }
+
+    // The register number that's in I
+    private int Indirect() {
+        if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+            // The absolute value of the integer portion
+            return (int) (Math.abs(cs.getRegIndex().getFVal()));
+        }
+        return Math.abs(cs.getRegIndex().getBiVal().ToInteger());
+    }
+
+    private void AddRegisterKeys() {
+        Add(k.KeySTO, new Op() { // Store a value to a register
+            DisplayPacket Run() {
+                int val = RegisterOperand(k.KeySTO);
+                if (val == -1) {
+                    return null;
+                } else if (val == -2) {
+                    return Packet;
+                }
+
+                if (PrgmEntry) {
+                    Record(RegisterListing(k.KeySTO, val, "STO"));
+                    return null;
+                }
+
+                StackDisable = false;
+                // does not effect stack
+
+                if (val == k.FnI.index()) {
+                    // Store into the I register
+                    cs.setRegIndex(cs.getStack().getX().Copy());
+                    cs.getRegIndex().getBiVal().setWordSize(64);
+                } else if (val == k.FnIndex.index()) {
+                    // Store into the register who's number is stored in I
+                    int i = Indirect();
+                    if (i >= config.getNumRegisters()) {
+                        return Error("Error 3 - Improper Register Number");
+                    }
+                    cs.setReg(i, cs.getStack().getX().Copy());
+                } else {
+                    // Just store into a normal "named" register
+                    cs.setReg(val, cs.getStack().getX().Copy());
+                }
+                return null;
+            }
+        });
+        Add(k.KeyRCL, new Op() { // Recall a value from a register
+            DisplayPacket Run() {
+                int val = RegisterOperand(k.KeyRCL);
+                if (val == -1) {
+                    return null;
+                } else if (val == -2) {
+                    return Packet;
+                }
+
+                if (PrgmEntry) {
+                    Record(RegisterListing(k.KeyRCL, val, "RCL"));
+                    return null;
+                }
+
+                Register temp;
+                if (val == k.FnI.index()) {
+                    // recall value from the I register
+                    temp = cs.getRegIndex().Copy();
+                } else if (val == k.FnIndex.index()) {
+                    // recall the value from the register who's number is
+                    // stored in I
+                    int i = Indirect();
+                    if (i >= config.getNumRegisters()) {
+                        return Error("Error 3 - Improper Register Number");
+                    }
+                    temp = cs.getReg(i).Copy();
+                } else {
+                    // Just recall from a normal "named" register
+                    temp = cs.getReg(val).Copy();
+                }
+                // v6.0.6 - 1 Mar 2014
+                if (StackDisable) {
+                    cs.getStack().setX(temp);
+                    StackDisable = false;
+                } else {
+                    cs.getStack().Push(temp);
+                }
+                return null;
+            }
+        });
+        // Swap X with indirect value of I
+        Add(k.FnXIndex, new Op("f X:(i)") {
+            DisplayPacket Run() {
+                Register temp;
+                int val = Indirect();
+                StackDisable = false;
+
+                // a quick sanity check
+                if (val >= config.getNumRegisters()) {
+                    return Error("Error 3 - Improper Register Number");
+                }
+
+                temp = cs.getReg(val).Copy();
+                cs.setReg(val, cs.getStack().getX().Copy());
+                cs.getStack().setX(temp);
+                return null;
+            }
+        });
+        Add(k.FnXI, new Op("f X:I") { // Swap X and I
+            DisplayPacket Run() {
+                Register temp;
+                temp = cs.getRegIndex().Copy();
+                temp.getBiVal().setWordSize(cs.getWordSize());
+                cs.setRegIndex(cs.getStack().getX().Copy());
+                cs.getRegIndex().getBiVal().setWordSize(64);
+                cs.getStack().setX(temp);
+                StackDisable = false;
+                return null;
+            }
+        });
+        // Note: No PrgmMode processing is required for (i) and I, since
+        // they're always a stage operand
+        Add(k.FnIndex, new Op() { // Indirect value of I
+            DisplayPacket Run() {
+                // OK, this one is a bit odd... if there is no stage, then
+                // act like a RCL was staged.
+                if (Stage.size() == 0) {
+                    Stage.push(k.KeyRCL.index());
+                }
+                Prefix = 0;
+                return Operand(k.FnIndex.index());
+            }
+        });
+        Add(k.FnI, new Op() { // Index
+            DisplayPacket Run() {
+                // OK, this one is a bit odd... if there is no stage, then
+                // act like a RCL was staged.
+                if (Stage.size() == 0) {
+                    Stage.push(k.KeyRCL.index());
+                }
+                Prefix = 0;
+                return Operand(k.FnI.index());
+            }
+        });
+        // Clear all storage registers
+        Add(k.FnClearReg, new Op("f ClearREG") {
+            DisplayPacket Run() {
+                // Clears storage registers (and Index), but not the stack
+                for (int i = 0; i <= config.getNumRegisters() - 1; i++) {
+                    cs.setReg(i,
+                            new Register(cs.getWordSize(), cs.getArithMode()));
+                }
+                cs.setRegIndex(new Register(64, cs.getArithMode()));
+                return null;
+            }
+        });
+    }
+
+    // Take a bit number (or a number of bits) off the stack
+    private int PopBitNumber() {
+        return Math.abs(cs.getStack().Pop().getBiVal().ToInteger());
+    }
+
+    // Shifts and rotates leave the bit that fell off in the carry
+    private void SetCarryFromX() {
+        cs.setFlag(CalcState.CalcFlag.Carry, cs.getStack().getX().getBiVal()
+                .isCarryBit());
+        Packet.setMenuNeedsUpdating(true);
+    }
+
+    private void AddBitKeys() {
+        Add(k.FnSL, new Op("f SL", Modes.IntegerOnly, LAST_X) { // Shift left
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal().LeftShift(1, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        Add(k.FnSR, new Op("f SR", Modes.IntegerOnly, LAST_X) { // Shift Right
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal()
+                        .RightShift(1, false, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        Add(k.FnRL, new Op("f RL", Modes.IntegerOnly, LAST_X) { // Rotate Left
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal()
+                        .RotateLeft(1, false, false, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Right
+        Add(k.FnRR, new Op("f RR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal()
+                        .RotateRight(1, false, false, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Left n times
+        Add(k.FnRLn, new Op("f RLn", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal()
+                        .RotateLeft(val, false, false, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Right n times
+        Add(k.FnRRn, new Op("f RRn", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal()
+                        .RotateRight(val, false, false, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Create Left justified Mask
+        Add(k.FnMASKL, new Op("f MASKL", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                temp.setBiVal(BigInt.CreateMask(val, true, cs.getWordSize()));
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        // Create Right justified Mask
+        Add(k.FnMASKR, new Op("f MASKR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register(cs.getWordSize(),
+                        cs.getArithMode());
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                temp.setBiVal(BigInt.CreateMask(val, false, cs.getWordSize()));
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        // Bitwise Exclusive OR
+        Add(k.FnXOR, new Op("f XOR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register();
+                BigInt y = cs.getStack().Pop().getBiVal();
+                temp.setBiVal(BigInt.Xor(cs.getStack().Pop().getBiVal(), y));
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        // Bitwise AND operator
+        Add(k.FnAND, new Op("f AND", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register();
+                BigInt y = cs.getStack().Pop().getBiVal();
+                temp.setBiVal(BigInt.BitwiseAnd(cs.getStack().Pop()
+                        .getBiVal(), y));
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        // The Bitwise OR operator
+        Add(k.FnOR, new Op("f OR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                Register temp = new Register();
+                BigInt y = cs.getStack().Pop().getBiVal();
+                temp.setBiVal(BigInt.BitwiseOr(cs.getStack().Pop().getBiVal(),
+                        y));
+                cs.getStack().Push(temp);
+                return null;
+            }
+        });
+        // The Bitwise NOT operator
+        Add(k.FnNOT, new Op("f NOT", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal()
+                        .OnesComplement(cs.getWordSize());
+                return null;
+            }
+        });
+        Add(k.FnSB, new Op("f SB", Modes.IntegerOnly, LAST_X) { // Set Bit
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val >= cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal().BitSet(val);
+                return null;
+            }
+        });
+        Add(k.FnCB, new Op("f CB", Modes.IntegerOnly, LAST_X) { // Clear Bit
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val >= cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal().BitClear(val);
+                return null;
+            }
+        });
+        // Is the bit set?
+        Add(k.FnBSet, new Op("f B?", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val >= cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                if (!cs.getStack().getX().getBiVal().BitTest(val)) {
+                    cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                }
+                return null;
+            }
+        });
+        Add(k.FnLJ, new Op("g LJ", Modes.IntegerOnly, LAST_X) { // Left Justify
+            DisplayPacket Run() {
+                BigInt[] ret;
+                Register x = new Register(cs.getWordSize(), cs.getArithMode());
+                Register y = new Register(cs.getWordSize(), cs.getArithMode());
+                ret = BigInt.LeftJustify(cs.getStack().Pop().getBiVal());
+                x.setBiVal(ret[0]);
+                y.setBiVal(ret[1]);
+                cs.getStack().Push(x);
+                cs.getStack().Push(y);
+                return null;
+            }
+        });
+        // Arithmetic Shift
+        Add(k.FnASR, new Op("g ASR", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal()
+                        .RightShift(1, true, cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Left with Carry
+        Add(k.FnRLC, new Op("g RLC", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal().RotateLeft(1, true,
+                        cs.isFlag(CalcState.CalcFlag.Carry), cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Right with Carry
+        Add(k.FnRRC, new Op("g RRC", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal().RotateRight(1, true,
+                        cs.isFlag(CalcState.CalcFlag.Carry), cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Left with Carry n times
+        Add(k.FnRLCn, new Op("g RLCn", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal().RotateLeft(val, true,
+                        cs.isFlag(CalcState.CalcFlag.Carry), cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Rotate Right with Carry n times
+        Add(k.FnRRCn, new Op("g RRCn", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = PopBitNumber();
+                if (val > cs.getWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.getStack().getX().getBiVal().RotateRight(val, true,
+                        cs.isFlag(CalcState.CalcFlag.Carry), cs.getWordSize());
+                SetCarryFromX();
+                return null;
+            }
+        });
+        // Number of bits
+        Add(k.FnNumB, new Op("g #B", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                cs.getStack().getX().getBiVal().SumBits();
+                return null;
+            }
+        });
+    }
+
+    // The HEX, DEC, OCT and BIN keys
+    private class OpModeKey extends Op {
+        private final CalcState.CalcOpMode mode;
+        private final String line;
+
+        OpModeKey(k key, String name, CalcState.CalcOpMode mode) {
+            this.mode = mode;
+            line = Listing(key, name);
+        }
+
+        DisplayPacket Run() {
+            // This is a bit strange... if you are entering a program, then
+            // you also need to convert to that mode.
+            if (PrgmEntry) {
+                Record(line);
+            }
+
+            if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                cs.SyncValues();
+            }
+            cs.setOpMode(mode);
+            Packet.setMenuNeedsUpdating(true);
+            return null;
+        }
+    }
+
+    // Show X in another mode for a moment
+    private class ShowKey extends Op {
+        private final CalcState.CalcOpMode mode;
+        private final String line;
+
+        ShowKey(k key, String name, CalcState.CalcOpMode mode) {
+            this.mode = mode;
+            line = Listing(key, name);
+        }
+
+        DisplayPacket Run() {
+            if (config.isSyncConversions()) {
+                // Note: The real calculator doesn't allow this in the float
+                // mode
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    // synchronize the float and integer values
+                    cs.SyncValues();
+                }
+            } else {
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    Packet.setBeep(true);
+                    return null;
+                }
+            }
+
+            if (PrgmEntry) {
+                Record(line);
+                return null;
+            }
+            Prefix = 0;
+            Packet.setAlternateText(FormatDisplay(mode, 0));
+            Packet.setDelay(config.getSleepDelay());
+            return Packet;
+        }
+    }
+
+    // The keys that set the arithmetic mode
+    private class ArithModeKey extends Op {
+        private final CalcState.CalcArithMode mode;
+
+        ArithModeKey(String name, CalcState.CalcArithMode mode) {
+            super(name);
+            this.mode = mode;
+        }
+
+        DisplayPacket Run() {
+            cs.setArithMode(mode);
+            Packet.setMenuNeedsUpdating(true);
+            return null;
+        }
+    }
+
+    // The operand for WINDOW, FLOAT and the flags, or -1 if the command
+    // has to wait for it
+    private int SingleOperand(k key) {
+        if (StartStage(key)) {
+            return -1;
+        }
+        return Stage.pop();
+    }
+
+    private void AddModeKeys() {
+        Add(k.KeyHEX, new OpModeKey(k.KeyHEX, "HEX", CalcState.CalcOpMode.Hex));
+        Add(k.KeyDEC, new OpModeKey(k.KeyDEC, "DEC", CalcState.CalcOpMode.Dec));
+        Add(k.KeyOCT, new OpModeKey(k.KeyOCT, "OCT", CalcState.CalcOpMode.Oct));
+        Add(k.KeyBIN, new OpModeKey(k.KeyBIN, "BIN", CalcState.CalcOpMode.Bin));
+
+        Add(k.FnShowHex, new ShowKey(k.FnShowHex, "f ShowHEX",
+                CalcState.CalcOpMode.Hex));
+        Add(k.FnShowDec, new ShowKey(k.FnShowDec, "f ShowDEC",
+                CalcState.CalcOpMode.Dec));
+        Add(k.FnShowOct, new ShowKey(k.FnShowOct, "f ShowOCT",
+                CalcState.CalcOpMode.Oct));
+        Add(k.FnShowBin, new ShowKey(k.FnShowBin, "f ShowBIN",
+                CalcState.CalcOpMode.Bin));
+
+        Add(k.FnSet1s, new ArithModeKey("f Set1's",
+                CalcState.CalcArithMode.OnesComp));
+        Add(k.FnSet2s, new ArithModeKey("f Set2's",
+                CalcState.CalcArithMode.TwosComp));
+        Add(k.FnSetUnsgn, new ArithModeKey("f SetUNSGN",
+                CalcState.CalcArithMode.Unsigned));
+
+        // set the word size
+        Add(k.FnWSIZE, new Op("f WSIZE", Modes.IntegerOnly, LAST_X) {
+            DisplayPacket Run() {
+                int val = Math.abs(cs.getStack().Pop().getBiVal().ToInteger());
+
+                // This is the "escape clause", allowing you to select a new
+                // word size when the current word size won't allow the new
+                // larger number to be entered.
+                if (val == 0) {
+                    val = CalcState.MAX_WORD_SIZE;
+                }
+
+                // a quick sanity check
+                if (val > cs.getMaxWordSize()) {
+                    return Error("Error 2 - Improper Bit Number");
+                }
+                cs.setWordSize(val);
+                Packet.setMenuNeedsUpdating(true);
+                return null;
+            }
+        });
+        Add(k.FnFLOAT, new Op() { // set the float mode
+            DisplayPacket Run() {
+                // This is a multi-stage command, so we have to store 1
+                // more keystroke before we can do anything
+                int val = SingleOperand(k.FnFLOAT);
+                if (val < 0) {
+                    return null;
+                }
+
+                // Check for valid stage operands
+                if (val != k.KeyDp.index() && val > 9) {
+                    Stage.clear();
+                    return Error("Error 1 - Improper Float Number");
+                }
+                Stage.clear();
+
+                if (PrgmEntry) {
+                    // For some reason, a program line with 3 elements uses
+                    // commas
+                    Record(String.format("%1$2X,%2$2X,%3$2X    '%4$s",
+                            k.KeyFKey.index(), k.FnFLOAT.index() - F_KEY, val,
+                            "f FLOAT " + val));
+                    return null;
+                }
+
+                if (cs.getOpMode() != CalcState.CalcOpMode.Float) {
+                    // Here is a strange LastX rule (page 100)
+                    cs.setRegLastX(new Register(cs.getWordSize(), cs
+                            .getArithMode()));
+                    cs.SyncValues();
+
+                    // reset the carry and overflow flags
+                    cs.setFlag(CalcState.CalcFlag.Carry, false);
+                    cs.setFlag(CalcState.CalcFlag.Overflow, false);
+                } else {
+                    // only in float mode
+                    StackDisable = false;
+                }
+                cs.setOpMode(CalcState.CalcOpMode.Float);
+                cs.setFloatPrecision(val);
+                Packet.setMenuNeedsUpdating(true);
+                return null;
+            }
+        });
+        Add(k.FnSF, new FlagKey(k.FnSF, "g SF"));
+        Add(k.FnCF, new FlagKey(k.FnCF, "g CF"));
+        Add(k.FnFSet, new FlagKey(k.FnFSet, "g F?"));
+
+        Add(k.FnWINDOW, new Op() { // show a window
+            DisplayPacket Run() {
+                // This is a multi-stage command, so we have to store 1
+                // more keystroke before we can do anything
+                int val = SingleOperand(k.FnWINDOW);
+                if (val < 0) {
+                    return null;
+                }
+                if (val > 7) {
+                    Stage.clear();
+                    return Error("Error 1 - Improper Windows Number");
+                }
+                Stage.clear();
+
+                if (PrgmEntry) {
+                    // For some reason, a program line with 3 elements uses
+                    // commas
+                    Record(String.format("%1$2X,%2$2X,%3$2X    '%4$s",
+                            k.KeyFKey.index(), k.FnWINDOW.index() - F_KEY,
+                            val, "f WINDOW " + val));
+                }
+                // only allow this when the conditions warrant it
+                int digits = DisplayDigits(cs.getOpMode()).length();
+                if (digits > 35) {
+                    // Since our display holds 35 digits, there are fewer
+                    // windows than on the real calculator (at 64 bits or
+                    // less). Stop at the left-most one.
+                    int width = WindowWidth(cs.getOpMode());
+                    while (val > 0 && val * width >= digits) {
+                        val--;
+                    }
+                    WinPos = val * width;
+                }
+                return null;
+            }
+        });
+        // Scroll the display Left
+        Add(k.FnSLeft, new Op("g <", Modes.IntegerOnly) {
+            DisplayPacket Run() {
+                // only allow this when the conditions warrant it
+                if (DisplayDigits(cs.getOpMode()).length() > 35) {
+                    WinPos--;
+                    if (WinPos < 0) {
+                        WinPos = 0;
+                    }
+                }
+                return null;
+            }
+        });
+        // Scroll the display Right
+        Add(k.FnSRight, new Op("g >", Modes.IntegerOnly) {
+            DisplayPacket Run() {
+                // only allow this when the conditions warrant it
+                int len = DisplayDigits(cs.getOpMode()).length();
+                if (len > 35) {
+                    WinPos++;
+                    if (WinPos > len - 35) {
+                        // this is just a code to indicate window 1
+                        WinPos = len - 35;
+                    }
+                }
+                return null;
+            }
+        });
+        // Note: MEM and STATUS can not be stored in Program Mode
+        Add(k.FnMEM, new Op() { // Display the Memory configuration
+            DisplayPacket Run() {
+                // It should be obvious that these values don't change
+                Packet.setAlternateText(String.format("P-%1$03d R-%2$03d",
+                        config.getPrgmMemoryLines(), config.getNumRegisters()));
+                Packet.setDelay(config.getSleepDelay());
+                Prefix = 0;
+                return Packet;
+            }
+        });
+        Add(k.FnSTATUS, new Op() { // Display the Calculator configuration
+            DisplayPacket Run() {
+                // Combine flags 0-3 into a single number
+                int FlagVal = 0;
+                for (int i = 0; i <= 3; i++) {
+                    FlagVal += cs.isFlag(CalcState.CalcFlag.toCalcFlag(i))
+                            ? (int) (Math.pow(10, i)) : 0;
+                }
+
+                Packet.setDelay(config.getSleepDelay());
+                // v6.0.3 - 5 May 12
+                Packet.setAlternateText(String.format("%1$1d-%2$02d-%3$04d",
+                        cs.getArithMode().index(), cs.getWordSize(), FlagVal));
+                Prefix = 0;
+                return Packet;
+            }
+        });
+    }
+
+    // Set Flag, Clear Flag and Is the Flag set
+    private class FlagKey extends Op {
+        private final k key;
+        private final String label;
+
+        FlagKey(k key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        DisplayPacket Run() {
+            // This is a multi-stage command, so we have to store 1
+            // more keystroke before we can do anything
+            int val = SingleOperand(key);
+            if (val < 0) {
+                return null;
+            }
+            if (key != k.FnFSet) {
+                StackDisable = false;
+            }
+
+            // Check for valid stage operand
+            if (val > 5) {
+                Stage.clear();
+                return Error("Error 1 - Improper Flag Number");
+            }
+            Stage.clear();
+
+            if (PrgmEntry) {
+                // For some reason, a program line with 3 elements uses commas
+                Record(String.format("%1$2X,%2$2X,%3$2X    '%4$s",
+                        k.KeyGKey.index(), key.index() - G_KEY, val, label
+                                + " " + val));
+            } else if (key == k.FnSF) {
+                cs.setFlag(CalcState.CalcFlag.toCalcFlag(val), true);
+                Packet.setMenuNeedsUpdating(true);
+            } else if (key == k.FnCF) {
+                cs.setFlag(CalcState.CalcFlag.toCalcFlag(val), false);
+                Packet.setMenuNeedsUpdating(true);
+            } else if (!cs.isFlag(CalcState.CalcFlag.toCalcFlag(val))) {
+                cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+            }
+            return null;
+        }
+    }
+
+    // The conditional tests skip the next program line if they're false
+    private abstract class TestKey extends Op {
+        TestKey(String name) {
+            super(name);
+        }
+
+        DisplayPacket Run() {
+            boolean skip;
+            if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                skip = Skip(cs.getStack().getX().getFVal(),
+                        cs.getStack().getY().getFVal());
+            } else {
+                skip = Skip(cs.getStack().getX().getBiVal(),
+                        cs.getStack().getY().getBiVal());
+            }
+            if (skip) {
+                cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+            }
+            return null;
+        }
+
+        // Is the test false (so the next line gets skipped)?
+        abstract boolean Skip(double x, double y);
+
+        abstract boolean Skip(BigInt x, BigInt y);
+    }
+
+    // Is R/S or SST the operand of a function that lets the f be left out
+    // (so they mean (i) and I)?
+    private boolean ShortCut() {
+        return Stage.size() == 1
+                && ArrayindexOf(ShortCutAllowed, k.toK(Stage.peek())) >= 0;
+    }
+
+    private void AddProgramKeys() {
+        Add(k.KeyGSB, new Op() { // Go to Subroutine (Program Mode)
+            DisplayPacket Run() {
+                // This is a multi-stage command, so we have to store 1
+                // more keystroke before we can do anything
+                if (Stage.size() == 0) {
+                    Stage.push(k.KeyGSB.index());
+                    return null;
+                }
+
+                // Get the stage operand
+                int val = Stage.pop();
+                Stage.clear();
+
+                if (PrgmEntry) {
+                    Record(String.format("%1$5X%2$3X    '%3$s",
+                            k.KeyGSB.index(), val,
+                            "GSB " + String.format("%1$X", val)));
+                    return null;
+                }
+                StackDisable = false;
+
+                // A quick sanity check
+                if (cs.getPrgmMemory().isEmpty()) {
+                    Packet.setAlternateText("Error 4 - Improper Label");
+                    return Packet;
+                }
+
+                // find the starting location
+                int start = cs.FindLabel(cs.getPrgmPosition(), val);
+                if (start < 0) {
+                    Packet.setAlternateText("Error 4 - Improper Label");
+                    return Packet;
+                }
+
+                // Store the current location for an eventual RTN
+                // Note: Unlike the real calculator, I did not limit the stack
+                // depth to 4 (so there is no "Error 5 - Subroutine Level Too
+                // Deep")
+                cs.getPrgmRetStack().push(cs.getPrgmPosition());
+                cs.setPrgmPosition(start);
+
+                // start a program
+                if (!cs.isPrgmRunning()) {
+                    cs.setPrgmRunning(true);
+                    cs.getPrgmRetStack().clear();
+
+                    Packet.setAlternateText("Running");
+                    Packet.setStart(DisplayPacket.StartType.RunProgram);
+                }
+                return null;
+            }
+        });
+        // Note: the "GTO.nnn" version can not be stored in Program Mode
+        Add(k.KeyGTO, new Op() { // Go To Label (Program/Record Mode)
+            DisplayPacket Run() {
+                int val;
+
+                // There are two version of GTO... during execution of a
+                // program it accepts a single operand. However, during
+                // editing of a program GTO accepts a decimal point and 3
+                // digits (for the line number)
+                if (Stage.size() == 0) {
+                    Stage.push(k.KeyGTO.index());
+                    return null;
+                }
+
+                // check for the decimal point as the 2nd item
+                if (Stage.size() >= 2 && Stage.get(1) == k.KeyDp.index()) {
+                    if (Stage.size() < 5) {
+                        // we're not done yet... we need more digits
+                        return null;
+                    }
+
+                    // decode the 3-digit line number
+                    int digit1, digit2, digit3, line;
+                    digit3 = Stage.pop();
+                    digit2 = Stage.pop();
+                    digit1 = Stage.pop();
+
+                    Stage.clear();
+                    // do some sanity checking for digit entry
+                    if (digit1 > 9 || digit2 > 9 || digit3 > 9) {
+                        Packet.setAlternateText("Error 1 - Improper GTO. Number");
+                        return Packet;
+                    }
+                    line = (digit1 * 100) + (digit2 * 10) + digit3;
+
+                    // and some more checking on the decoded number
+                    // v6.0.2 - 26 Apr 12
+                    if (line < 0 || line > cs.getPrgmMemory().size()) {
+                        Packet.setAlternateText("Error 4 - Improper Line Number");
+                        return Packet;
+                    }
+
+                    cs.setPrgmPosition(line);
+                    return null;
+                }
+
+                // Get the stage operand
+                val = Stage.pop();
+                Stage.clear();
+
+                if (PrgmEntry) {
+                    Record(String.format("%1$5X%2$3X    '%3$s",
+                            k.KeyGTO.index(), val,
+                            "GTO " + String.format("%1$X", val)));
+                    return null;
+                }
+
+                val = cs.FindLabel(cs.getPrgmPosition(), val);
+                if (val < 0) {
+                    cs.setPrgmRunning(false);
+                    return Error("Error 4 - Improper Label");
+                }
+                cs.setPrgmPosition(val);
+                return null;
+            }
+        });
+        Add(k.KeyRS, new Op() { // Run / Stop (Program Mode)
+            DisplayPacket Run() {
+                // There is a strange shortcut allowed here... When used as an
+                // operand with a function, then you can ignore the Yellow
+                // shift (f) key and still get the affect of k.FnIndex (rather
+                // than k.KeyRS)
+                if (ShortCut()) {
+                    return Operand(k.FnIndex.index());
+                }
+
+                if (PrgmEntry) {
+                    Record(Listing(k.KeyRS, "R/S"));
+                    return null;
+                }
+
+                // a quick sanity check
+                if (cs.getPrgmMemory().size() > 0) {
+                    if (cs.isPrgmRunning()) {
+                        // if inside a program, the only option is to stop
+                        cs.setPrgmRunning(false);
+                    } else {
+                        // If outside a program, the only option is to start
+                        // since any keystroke would have stopped a running
+                        // application.
+                        cs.setPrgmRunning(true);
+                        Packet.setAlternateText("Running");
+                        Packet.setStart(DisplayPacket.StartType.RunProgram);
+                    }
+                }
+                return null;
+            }
+        });
+        // Note: SST can not be stored in Program Mode
+        Add(k.KeySST, new Op() { // Single step (Program Mode)
+            DisplayPacket Run() {
+                // There is a strange shortcut allowed here... When used as an
+                // operand with a function, then you can ignore the Yellow
+                // shift (f) key and still get the affect of k.FnI (rather
+                // than k.KeySST)
+                if (ShortCut()) {
+                    return Operand(k.FnI.index());
+                }
+
+                // In PrgmEntry mode, we just increment the position, but in
+                // the run mode, we actually execute the instructions
+                if (PrgmEntry) {
+                    cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    if (cs.getPrgmPosition() > cs.getPrgmMemory().size()) {
+                        cs.setPrgmPosition(0);
+                    }
+                    return null;
+                }
+
+                // a quick sanity check
+                if (cs.getPrgmMemory().size() > 0) {
+                    // v6.0.2 - 26 Apr 12
+                    if (cs.getPrgmPosition() >= cs.getPrgmMemory().size()) {
+                        cs.setPrgmPosition(0);
+                    }
+                    // temporarily show the program codes
+                    Packet.setAlternateText(String.format("%1$03d",
+                            cs.getPrgmPosition() + 1)
+                            + "- "
+                            + cs.getPrgmMemory().get(cs.getPrgmPosition())
+                                    .substring(0, 8));
+                    Packet.setDelay(config.getSleepDelay() / 2);
+
+                    // run one line
+                    Packet.setStart(DisplayPacket.StartType.RunLine);
+
+                    cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    if (cs.getPrgmPosition() >= cs.getPrgmMemory().size()) {
+                        cs.setPrgmPosition(0);
+                    }
+                }
+                return null;
+            }
+        });
+        // Return from subroutine (Program Mode)
+        Add(k.FnRTN, new Op("g RTN") {
+            DisplayPacket Run() {
+                // pop the return position from the subroutine stack
+                if (cs.getPrgmRetStack().size() == 0) {
+                    // an "empty" return also means stop
+                    cs.setPrgmRunning(false);
+                } else {
+                    cs.setPrgmPosition(cs.getPrgmRetStack().pop());
+                }
+                return null;
+            }
+        });
+        Add(k.FnLBL, new Op() { // A program Label (Program Mode)
+            DisplayPacket Run() {
+                // This is a multi-stage command, so we have to store 1
+                // more keystroke before we can do anything
+                int val = SingleOperand(k.FnLBL);
+                if (val < 0) {
+                    return null;
+                }
+                Stage.clear();
+
+                if (PrgmEntry) {
+                    // For some reason, a program line with 3 elements uses
+                    // commas
+                    Record(String.format("%1$2X,%2$2X,%3$2X    '%4$s",
+                            k.KeyGKey.index(), k.FnLBL.index() - G_KEY, val,
+                            "g LBL " + String.format("%1$X", val)));
+                }
+                return null;
+            }
+        });
+        // Decrement, skip on zero (Program Mode)
+        Add(k.FnDSZ, new Op("g DSZ") {
+            DisplayPacket Run() {
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    cs.getRegIndex().setFVal(cs.getRegIndex().getFVal() - 1);
+                    if (cs.getRegIndex().getFVal() == 0) {
+                        cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    }
+                } else {
+                    cs.getRegIndex()
+                            .getBiVal()
+                            .Subtract(BigInt.One(cs.getWordSize(),
+                                    BigInt.ArithMode.TwosComplement),
+                                    cs.getWordSize());
+                    if (cs.getRegIndex().getBiVal().IsZero()) {
+                        cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    }
+                }
+                return null;
+            }
+        });
+        // Increment, skip on zero (Program Mode)
+        Add(k.FnISZ, new Op("g ISZ") {
+            DisplayPacket Run() {
+                if (cs.getOpMode() == CalcState.CalcOpMode.Float) {
+                    cs.getRegIndex().setFVal(cs.getRegIndex().getFVal() + 1);
+                    // v6.0.8 - 11 Jan 16 (thanks Andru)
+                    if (cs.getRegIndex().getFVal() == 0) {
+                        cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    }
+                } else {
+                    cs.getRegIndex()
+                            .getBiVal()
+                            .Add(BigInt.One(cs.getWordSize(),
+                                    BigInt.ArithMode.TwosComplement),
+                                    cs.getWordSize());
+                    // v6.0.8 - 11 Jan 16 (thanks Andru)
+                    if (cs.getRegIndex().getBiVal().IsZero()) {
+                        cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+                    }
+                }
+                return null;
+            }
+        });
+        // Toggle between Program and Run mode
+        Add(k.FnPR, new Op() {
+            DisplayPacket Run() {
+                PrgmEntry = !PrgmEntry;
+                Packet.setPrgm_Annunciator(PrgmEntry);
+                return null;
+            }
+        });
+        // Note: BST can not be stored
+        Add(k.FnBST, new Op() { // Back step (Program Mode)
+            DisplayPacket Run() {
+                if (cs.getPrgmPosition() > 0) {
+                    cs.setPrgmPosition(cs.getPrgmPosition() - 1);
+                } else {
+                    cs.setPrgmPosition(cs.getPrgmMemory().size());
+                }
+                return null;
+            }
+        });
+        // Pause execution (Program Mode)
+        Add(k.FnPSE, new Op("g PSE") {
+            DisplayPacket Run() {
+                Packet.setDisplayText(FormatDisplay());
+                Packet.setDelay(config.getSleepDelay());
+                return null;
+            }
+        });
+        Add(k.FnClearPrgm, new Op() { // Clear Program
+            DisplayPacket Run() {
+                // This has two different meanings... if in the program
+                // mode it will clear all program lines. However, if in
+                // the Run mode, it will merely reset the program position
+                // to zero (the program is NOT erased)
+                if (PrgmEntry) {
+                    cs.getPrgmMemory().clear();
+                    cs.getPrgmRetStack().clear();
+                }
+                StackDisable = false;
+                cs.setPrgmPosition(0);
+                return null;
+            }
+        });
+        // Note: No PrgmMode, since this is just used for editing
+        Add(k.FnClearPrefix, new Op() { // Clear any pending prefix/stage
+            DisplayPacket Run() {
+                Prefix = 0;
+                Stage.clear();
+                return null;
+            }
+        });
+
+        // Is X less than or equal to Y (Program Mode)
+        Add(k.FnXlteY, new TestKey("g X<Y") {
+            boolean Skip(double x, double y) {
+                return x > y;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.IsGreater(y);
+            }
+        });
+        // Is X less than 0 (Program Mode)
+        Add(k.FnXlt0, new TestKey("g X<0") {
+            boolean Skip(double x, double y) {
+                return x >= 0.0;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.ToLong() >= 0L;
+            }
+        });
+        // Is X greater than Y (Program Mode)
+        Add(k.FnXgtY, new TestKey("g X>Y") {
+            boolean Skip(double x, double y) {
+                return x <= y;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.IsLessOrEqual(y);
+            }
+        });
+        // Is X greater than 0 (Program Mode)
+        Add(k.FnXgt0, new TestKey("g X>0") {
+            boolean Skip(double x, double y) {
+                return x <= 0.0;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.ToLong() <= 0L;
+            }
+        });
+        // Is X not equal to Y (Program Mode)
+        Add(k.FnXneY, new TestKey("g X<>Y") {
+            boolean Skip(double x, double y) {
+                return x == y;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.Equals(y);
+            }
+        });
+        // Is X not equal to 0 (Program Mode)
+        Add(k.FnXne0, new TestKey("g X=0") {
+            boolean Skip(double x, double y) {
+                return x == 0.0;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return x.IsZero();
+            }
+        });
+        // Is X equal to Y (Program Mode)
+        Add(k.FnXeqY, new TestKey("g X=Y") {
+            boolean Skip(double x, double y) {
+                return x != y;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return !x.Equals(y);
+            }
+        });
+        // Is X equal to 0 (Program Mode)
+        Add(k.FnXeq0, new TestKey("g X=0") {
+            boolean Skip(double x, double y) {
+                return x != 0.0;
+            }
+
+            boolean Skip(BigInt x, BigInt y) {
+                return !x.IsZero();
+            }
+        });
+
+        Add(k.KeyON, new Op() { // The ON key
+            DisplayPacket Run() {
+//              // used for calibrating the automatic screen widths
+//              Packet.setDisplayText("00000000 00000000 00000000 00000000 .b.");
+//              Packet.setF_Annunciator(true);
+//              Packet.setG_Annunciator(true);
+//              Packet.setCarry_Annunciator(true);
+//              Packet.setOverflow_Annunciator(true);
+//              Packet.setPrgm_Annunciator(true);
+//              return Packet;
+                return null;
+            }
+        });
+        Add(k.KeyFKey, new Op() { // The yellow F prefix key
+            DisplayPacket Run() {
+                Prefix = F_KEY;
+
+                Packet.setF_Annunciator(true);
+                return Packet;
+            }
+        });
+        Add(k.KeyGKey, new Op() { // The blue G prefix key
+            DisplayPacket Run() {
+                Prefix = G_KEY;
+
+                Packet.setG_Annunciator(true);
+                return Packet;
+            }
+        });
+    }
+
+    // Parse the raw input based upon the current operating mode
+    private void ConvertInput(String text) {
+        Register temp = new Register(cs.getWordSize(), cs.getArithMode());
+        BigInt.ArithMode bimode = BigInt.ArithMode.toArithMode(cs
+                .getArithMode().index());
+        switch (cs.getOpMode()) {
+        case Float:
+            // make an incomplete Scientific Notation parseable (is that a
+            // word?)
+            if (text.endsWith("e")) {
+                text += "0";
+            }
+            try {
+                // v6.0.7 - 22 Jul 2015
+                NumberFormat nf = NumberFormat.getInstance(java.util.Locale.US);
+                temp.setFVal(nf.parse(text).doubleValue());
+            } catch (Exception e) {
+                // We need some sort of marker to show that an error occurred
+                temp.setFVal(Double.POSITIVE_INFINITY);
+            }
+            break;
+        case Hex:
+            temp.setBiVal(new BigInt("&H" + text, cs.getWordSize(), bimode));
+            break;
+        case Dec:
+            temp.setBiVal(new BigInt(text, cs.getWordSize(), bimode));
+            break;
+        case Oct:
+            temp.setBiVal(new BigInt("&O" + text, cs.getWordSize(), bimode));
+            break;
+        case Bin:
+            // Note: the "&B" is a made up notation
+            temp.setBiVal(new BigInt("&B" + text, cs.getWordSize(), bimode));
+            break;
+        }
+
+        cs.getStack().setX(temp);
+    }
+
+    // Format the value of the X register for the display using the default
+    // OpMode
+    private String FormatDisplay() {
+        return FormatDisplay(cs.getOpMode(), 0);
+    }
+
+    public void setFloatFormatLocale() {
+        String v = config.getFloatFormat();
+        floatFormatLocale = null;
+        if ("American".equals(v)) {
+            floatFormatLocale = Locale.US;
+        } else if ("European".equals(v)) {
+            floatFormatLocale = Locale.GERMAN;
+        }
+        if (floatFormatLocale == null) {
+            floatFormatLocale = Locale.getDefault();
+        }
+    }
+
+    // Format the value of the X register for the display using the given OpMode
+    private String FormatDisplay(CalcState.CalcOpMode Op, int Position) {
+        String DisplayText, temp;
+
+        DisplayText = "";
+        switch (Op) {
+        case Float:
+            // format the screen as scientific notation?
+            String Formatter;
+            if (cs.getFloatPrecision() == k.KeyDp.index()) {
+                // You can't adjust the precision of scientific notation in
+                // the real calculator, so I just picked 13... I hope you like
+                // it
+                Formatter = "%1$.13e";
+            } else {
+                Formatter = "%1$,." + cs.getFloatPrecision() + "f";
+            }
+            DisplayText = String.format(floatFormatLocale, Formatter, cs.getStack().getX()
+                    .getFVal());
+            // Check to see if we need to automatically switch to scientific
+            // notation
+            // Note: this is for display purposes only, the float/EEX mode does
+            // not change
+            if (DisplayText.length() > 37
+                    || (DisplayText.equals(String.format(floatFormatLocale, Formatter, 0.0))
+                            && cs .getStack().getX().getFVal() != 0.0)) {
+                DisplayText = String.format(floatFormatLocale, "%1$.13e", cs.getStack().getX()
+                        .getFVal());
+            }
+            break;
+        case Hex:
+        case Dec:
+        case Oct:
+        case Bin:
+            temp = DisplayDigits(Op);
+            // Anything too long for the display gets windows/scrolling
+            if (temp.length() > 35) {
+                DisplayText = FormatWindow(temp, Position, Op);
+            } else {
+                if (!cs.isFlag(CalcState.CalcFlag.LeadingZero)) {
+                    temp = TrimZeros(temp);
+                }
+                DisplayText = String.format("%1$39s", temp + " "
+                        + OpModeSuffix(Op));
+            }
+            break;
+        }
+
+        return DisplayText;
+    }
+
+    // The digits of the X register in the given (integer) OpMode, before
+    // any windowing
+    private String DisplayDigits(CalcState.CalcOpMode Op) {
+        String temp = "";
+
+        switch (Op) {
+        case Hex:
+            temp = cs.getStack().getX().getBiVal().ToStringHex().toUpperCase();
+            if (!cs.isFlag(CalcState.CalcFlag.LeadingZero)) {
+                temp = TrimZeros(temp);
+            }
+            break;
+        case Dec:
+            // Note: the decimal mode is the only one that has to deal with the
+            // Arithmetic mode
+            temp = TrimZeros(cs.getStack().getX().getBiVal().ToStringDec());
+            // It's rather odd, that the LeadingZero feature is forced off (page
+            // 36)
+            break;
+        case Oct:
+            temp = cs.getStack().getX().getBiVal().ToStringOct();
+            if (!cs.isFlag(CalcState.CalcFlag.LeadingZero)) {
+                temp = TrimZeros(temp);
+            }
+            break;
+        case Bin:
+            // Note: the leading zeros are always kept here, since they decide
+            // where the windows are
+            temp = cs.getStack().getX().getBiVal().ToStringBin(true);
+            break;
+        }
+        return temp;
+    }
+
+    // The little letter after the digits
+    private static String OpModeSuffix(CalcState.CalcOpMode Op) {
+        switch (Op) {
+        case Hex:
+            return "h";
+        case Dec:
+            return "d";
+        case Oct:
+            return "o";
+        default:
+            return "b";
+        }
+    }
+
+    // How far apart the windows are. Binary skips the space between two
+    // groups of 8 bits, so that each window starts on a whole group.
+    private static int WindowWidth(CalcState.CalcOpMode Op) {
+        return (Op == CalcState.CalcOpMode.Bin) ? 36 : 35;
+    }
+
+    // Show the part of a long number that is "Position" digits in from the
+    // right. Window 0 is the right-most 35 digits, and each window after
+    // that is one WindowWidth further left. The dots around the suffix show
+    // which way the rest of the number is.
+    private String FormatWindow(String temp, int Position,
+            CalcState.CalcOpMode Op) {
+        String suffix = OpModeSuffix(Op);
+        int end;
+
+        if (Position == 0) {
+            // Window 0
+            // Note: We ignore the Leading Zero flag for window 0
+            return String.format("%1$39s", StringRight(temp, 35) + " ."
+                    + suffix);
+        }
+
+        // (the number may have gotten shorter since we scrolled)
+        end = Math.max(temp.length() - Position, 1);
+        if (end < 35 || (end == 35 && Position % WindowWidth(Op) == 0)) {
+            // The left-most window
+            temp = temp.substring(0, end);
+            if (!cs.isFlag(CalcState.CalcFlag.LeadingZero)) {
+                temp = TrimZeros(temp);
+            }
+            return String.format("%1$39s", temp + " " + suffix + ".");
+        }
+
+        // Note: This is not exactly the way that the real calculator does
+        // things... it allows you to "walk off the edge" of the left-most
+        // digits, whereas I just stop at the edge of the screen.
+        // We ignore the Leading Zero flag while scrolling
+        temp = temp.substring(end - 35, end);
+        return String.format("%1$39s", temp + " ." + suffix + ".");
+    }
+
+    // Trim leading zeros from a String
+    private static String TrimZeros(String buf) {
+        int i = 0;
+        String b;
+        boolean is_neg;
+
+        is_neg = false;
+        if (buf.startsWith("-")) {
+            i = 1;
+            is_neg = true;
+        }
+
+        do {
+            b = buf.substring(i, i + 1);
+            i = i + 1;
+            if (i >= buf.length()) {
+                break;
+            }
+        } while (b.equals("0") || b.equals(" "));
+        i = i - 1;
+
+        // Leave at least the last zero
+        if (i == buf.length()) {
+            i = i - 1;
+        }
+
+        if (is_neg) {
+            return "-" + buf.substring(i);
+        } else {
+            return buf.substring(i);
+        }
+    }
+
+    // The state this Calculator works on
+    public CalcState getState() {
+        return cs;
+    }
+
+    // The display for the X register as it is now (ProcessKey doesn't
+    // format it while a program is running)
+    public String getDisplayText() {
+        return FormatDisplay(cs.getOpMode(), WinPos);
+    }
+
+    // Clean up before we shut down
+    public void TerminateOnExit() {
+        // stop any running application
+        if (cs.isPrgmRunning()) {
+            cs.setPrgmRunning(false);
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+            }
+        }
+    }
+
+    public void PasteToDisplay(String text) throws Exception {
+        try {
+            if (StackDisable) {
+                StackDisable = false;
+            } else {
+                cs.getStack().Push(cs.getStack().getX());
+            }
+            RawDisplay.setLength(0);
+            ConvertInput(text);
+        } catch (Exception ex) {
+            RawDisplay.setLength(0);
+            throw new Exception("Can't import pasted data", ex);
+        }
+
+        // does the input fit in the size of our register
+        if (cs.getStack().getX().getBiVal().isLossOfPrecision()
+                || Double.isInfinite(cs.getStack().getX().getFVal())) {
+            RawDisplay.setLength(0);
+            throw new Exception("Imported data out of range");
+        }
+        FormatDisplay();
+    }
+
+    // The right-most part of a String
+    private static String StringRight(String s, int len) {
+        if (s.length() <= len) {
+            return s;
+        }
+        return s.substring(s.length() - len, s.length());
+    }
+
+    // Create a string of duplicated characters
+    private static String StringStrDup(char c, int len) {
+        char[] s = new char[len];
+        for (int i = 0; i < len; i++) {
+            s[i] = c;
+        }
+        return new String(s);
+    }
+
+    // the missing Array.IndexOf() method
+    private static int ArrayindexOf(k[] list, k key) {
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] != null && list[i].equals(key) || key == null
+                    && list[i] == null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.jovial.jrpn;
+
+import java.util.List;
+
+// The program memory decoded into key codes, so running a line is just a
+// matter of feeding its keys to the Calculator, instead of slicing up and
+// parsing the text of the line every time it runs. Every line takes up
+// STRIDE ints: the number of keys on the line (or BAD_LINE if the line
+// can't be decoded), followed by the key codes themselves.
+//
+// The program lines come in 3 formats, depending on how many keys they
+// hold (a program can also be edited by hand in the saved state, so any of
+// them may be corrupt):
+//       "       A"  one key
+//       "   44  3"  two keys
+//       "43,22, A"  three keys
+public class CompiledProgram {
+    final static int STRIDE = 4;
+    final static int BAD_LINE = -1;
+
+    private int[] code;
+    private int lines;
+    // why each bad line couldn't be decoded (null if they all were)
+    private String[] errors;
+
+    // Decode all of the program lines
+    public CompiledProgram(List<String> memory) {
+        lines = memory.size();
+        code = new int[lines * STRIDE];
+        for (int i = 0; i < lines; i++) {
+            try {
+                Decode(memory.get(i), i * STRIDE);
+            } catch (Exception e) {
+                code[i * STRIDE] = BAD_LINE;
+                if (errors == null) {
+                    errors = new String[lines];
+                }
+                errors[i] = e.getMessage();
+            }
+        }
+    }
+
+    private void Decode(String line, int at) {
+        if (line.startsWith("      ")) {
+            code[at + 1] = Integer.parseInt(line.substring(6, 8).trim(), 16);
+            code[at] = 1;
+        } else if (line.startsWith("   ")) {
+            code[at + 1] = Integer.parseInt(line.substring(3, 5).trim(), 16);
+            code[at + 2] = Integer.parseInt(line.substring(6, 8).trim(), 16);
+            code[at] = 2;
+        } else {
+            code[at + 1] = Integer.parseInt(line.substring(0, 2).trim(), 16);
+            code[at + 2] = Integer.parseInt(line.substring(3, 5).trim(), 16);
+            code[at + 3] = Integer.parseInt(line.substring(6, 8).trim(), 16);
+            code[at] = 3;
+        }
+    }
+
+    // The number of program lines
+    public int size() {
+        return lines;
+    }
+
+    // Could the line be decoded?
+    public boolean isValid(int line) {
+        return line >= 0 && line < lines && code[line * STRIDE] != BAD_LINE;
+    }
+
+    // Why the line couldn't be decoded
+    public String getError(int line) {
+        if (line < 0 || line >= lines) {
+            return "No line " + line;
+        }
+        return errors == null ? null : errors[line];
+    }
+
+    // The number of keys on a (valid) line
+    public int getKeyCount(int line) {
+        return code[line * STRIDE];
+    }
+
+    // One of the keys on a line
+    public int getKey(int line, int index) {
+        return code[line * STRIDE + 1 + index];
+    }
+
+    // Run the keys on a (valid) line, and return what the last of them left
+    // on the display
+    public DisplayPacket Execute(CalcEngine c, int line) {
+        int at = line * STRIDE;
+
+        switch (code[at]) {
+        case 1:
+            return c.ProcessKey(code[at + 1]);
+        case 2:
+            c.ProcessKey(code[at + 1]);
+            return c.ProcessKey(code[at + 2]);
+        case 3:
+            c.ProcessKey(code[at + 1]);
+            c.ProcessKey(code[at + 2]);
+            return c.ProcessKey(code[at + 3]);
+        default:
+            throw new IllegalArgumentException("Can't run line " + line
+                    + ": " + getError(line));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.jovial.jrpn;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs the program in program memory, one line at a time, from wherever
+// the program position is. This is the loop the app runs on its background
+// thread, but it knows nothing about views or threads: the display only
+// goes out through the Listener, and only when a line pauses (PSE and the
+// "show" keys) or, if asked for, every so many lines.
+//
+// How long a pause lasts depends on the speed profile. Faithful (the
+// default, same as the configuration's) waits the whole SleepDelay, like
+// the real calculator; Fast waits a fraction of it; and Turbo doesn't wait
+// at all, and only shows whatever the last pause would have left on the
+// display once the run is over. A headless or batch run will want to ask
+// for Turbo. The pauses that were cut short are kept track of, so a
+// program's "progress reports" can still be looked at afterwards.
+public class ProgramExecutor {
+
+    // How long the pauses last
+    public enum SpeedProfile {
+        Faithful, Fast, Turbo
+    }
+
+    // In the Fast profile, pauses last this much less time
+    public final static int FAST_DIVISOR = 10;
+
+    // How many of the cut short pauses to remember (the most recent ones)
+    public final static int MAX_RECORDED_PAUSES = 1000;
+
+    // A pause that didn't last as long as the program asked for
+    public static class SkippedPause {
+        private final long step;
+        private final int line;
+        private final String text;
+        private final int delay;
+        private final int waited;
+
+        SkippedPause(long step, int line, String text, int delay, int waited) {
+            this.step = step;
+            this.line = line;
+            this.text = text;
+            this.delay = delay;
+            this.waited = waited;
+        }
+
+        // The number of lines that had been run (over all runs) when the
+        // pause came up
+        public long getStep() {
+            return step;
+        }
+
+        // The program line that paused
+        public int getLine() {
+            return line;
+        }
+
+        // What the pause would have shown
+        public String getText() {
+            return text;
+        }
+
+        // How long (in ms) the pause should have been
+        public int getDelay() {
+            return delay;
+        }
+
+        // How long (in ms) it actually waited
+        public int getWaited() {
+            return waited;
+        }
+    }
+
+    // Why the last run stopped
+    public enum Stop {
+        // ran off the end of program memory
+        End,
+        // the program stopped itself (R/S or RTN), or something else
+        // stopped it (like a key being pressed)
+        Stopped,
+        // a line in the program couldn't be decoded
+        Error,
+        // ran the number of lines it was asked to, and can be picked up
+        // again from where it left off
+        StepLimit
+    }
+
+    // Where the display goes while the program runs. These are called on
+    // the thread that's running the program.
+    public interface Listener {
+        // Put the text on the display
+        void Show(String text);
+
+        // A line of the program couldn't be decoded
+        void BadLine(int line, String message);
+    }
+
+    private CalcEngine engine;
+    private CalcState cs;
+    private Listener listener;
+    private int displayInterval = 0;
+    // (set from one thread, and read by the one running the program)
+    private volatile SpeedProfile speed = SpeedProfile.Faithful;
+    private long steps = 0;
+    private Stop stop;
+    private DisplayPacket last;
+    // in Turbo, what the last pause would have left on the display
+    private String pending;
+    private ArrayDeque<SkippedPause> skipped = new ArrayDeque<SkippedPause>();
+    private long skippedCount = 0;
+    private long skippedTime = 0;
+
+    public ProgramExecutor(CalcEngine calc) {
+        engine = calc;
+        cs = calc.getState();
+    }
+
+    public void setListener(Listener l) {
+        listener = l;
+    }
+
+    // How often (in lines) to send the display (the X register as the last
+    // line left it) to the Listener, on top of the pauses. 0 (the default)
+    // means only at the pauses.
+    public int getDisplayInterval() {
+        return displayInterval;
+    }
+
+    public void setDisplayInterval(int lines) {
+        displayInterval = lines;
+    }
+
+    // How long the pauses last
+    public SpeedProfile getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(SpeedProfile profile) {
+        speed = profile;
+    }
+
+    // The number of lines run so far, over all runs
+    public long getSteps() {
+        return steps;
+    }
+
+    // Why the last run stopped
+    public Stop getStop() {
+        return stop;
+    }
+
+    // What the last line run left on the display
+    public DisplayPacket getLastPacket() {
+        return last;
+    }
+
+    // The skipped pause reports can be read (or cleared) from any thread,
+    // while the program is still running.
+
+    // The most recent pauses that were cut short, oldest first
+    public synchronized List<SkippedPause> getSkippedPauses() {
+        return new ArrayList<SkippedPause>(skipped);
+    }
+
+    // The number of pauses that were cut short (including the ones that
+    // are too old to still be remembered)
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    // The total time (in ms) not spent waiting in pauses
+    public synchronized long getSkippedTime() {
+        return skippedTime;
+    }
+
+    // Forget about the pauses that were cut short
+    public synchronized void ClearSkippedPauses() {
+        skipped.clear();
+        skippedCount = 0;
+        skippedTime = 0;
+    }
+
+    // The stack, as it is now, in the order T, Z, Y, X
+    public Register[] getStack() {
+        Register[] ans = cs.getStack().ToArray();
+
+        for (int i = 0; i < ans.length; i++) {
+            ans[i] = ans[i].Copy();
+        }
+        return ans;
+    }
+
+    // Run until the program stops
+    public Stop Run() {
+        return Run(Long.MAX_VALUE);
+    }
+
+    // Run at most the given number of lines. The program has to have been
+    // started already (with R/S or GSB), and it keeps running until it
+    // stops, or runs off the end, or something stops it.
+    public Stop Run(long max_steps) {
+        long count = 0;
+
+        stop = null;
+        while (cs.getPrgmPosition() < cs.getPrgmMemory().size()) {
+            if (count >= max_steps) {
+                stop = Stop.StepLimit;
+                break;
+            }
+
+            // execute the instructions
+            if (Step()) {
+                // Some error occurred
+                break;
+            }
+            count++;
+
+            // prepare to process the next line
+            cs.setPrgmPosition(cs.getPrgmPosition() + 1);
+
+            // stop if somebody pressed a key
+            if (!cs.isPrgmRunning()) {
+                stop = Stop.Stopped;
+                break;
+            }
+        }
+        if (stop == null) {
+            stop = Stop.End;
+        }
+        if (stop == Stop.End || stop == Stop.Error) {
+            cs.setPrgmRunning(false);
+        }
+        ShowPending();
+        return stop;
+    }
+
+    // Execute instructions at the current program line. Returns true (and
+    // sets the reason) if there's no line to run, or it can't be decoded.
+    public boolean RunLine() {
+        boolean ans = Step();
+
+        ShowPending();
+        return ans;
+    }
+
+    private boolean Step() {
+        CompiledProgram prgm = cs.getCompiledProgram();
+        int line = cs.getPrgmPosition();
+
+        // A quick sanity check
+        // v6.0.2 - 26 Apr 12
+        if (line < 0 || line >= prgm.size()) {
+            // if you "step off the edge", then just stop
+            stop = Stop.End;
+            return true;
+        }
+        if (!prgm.isValid(line)) {
+            stop = Stop.Error;
+            if (listener != null) {
+                listener.BadLine(line, prgm.getError(line));
+            }
+            return true;
+        }
+        last = prgm.Execute(engine, line);
+        steps++;
+
+        // We only update the display if there is a pause (or it's time for
+        // a sample). No Annunciator flags are updated while a program is
+        // running.
+        if (last.getDelay() > 0) {
+            if (last.getAlternateText() == null
+                    || last.getAlternateText().length() == 0) {
+                Show(last.getDisplayText());
+                Pause(line, last.getDisplayText(), last.getDelay());
+            } else {
+                Show(last.getAlternateText());
+                Pause(line, last.getAlternateText(), last.getDelay());
+                Show(last.getDisplayText());
+            }
+        } else if (displayInterval > 0 && steps % displayInterval == 0) {
+            // the samples go out straight away, whatever the speed. The
+            // running line didn't format the display, so it's done here.
+            pending = null;
+            if (listener != null) {
+                listener.Show(engine.getDisplayText());
+            }
+        }
+        return false;
+    }
+
+    // In Turbo, nothing is shown until the run is over
+    private void Show(String text) {
+        if (speed == SpeedProfile.Turbo) {
+            pending = text;
+        } else if (listener != null) {
+            listener.Show(text);
+        }
+    }
+
+    private void ShowPending() {
+        if (pending != null) {
+            if (listener != null) {
+                listener.Show(pending);
+            }
+            pending = null;
+        }
+    }
+
+    private void Pause(int line, String text, int delay) {
+        int wait;
+
+        switch (speed) {
+        case Faithful:
+            wait = delay;
+            break;
+        case Fast:
+            wait = delay / FAST_DIVISOR;
+            break;
+        default:
+            wait = 0;
+            break;
+        }
+        if (wait < delay) {
+            Skipped(new SkippedPause(steps, line, text, delay, wait));
+        }
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+            }
+        }
+    }
+
+    private synchronized void Skipped(SkippedPause pause) {
+        if (skipped.size() == MAX_RECORDED_PAUSES) {
+            skipped.removeFirst();
+        }
+        skipped.addLast(pause);
+        skippedCount++;
+        skippedTime += pause.getDelay() - pause.getWaited();
+    }
+}
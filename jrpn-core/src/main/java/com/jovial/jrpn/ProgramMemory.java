@@ -0,0 +1,212 @@
+package com.jovial.jrpn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// The program lines, as the text the display shows for them. Anything that
+// changes a line (adding, removing or replacing one) bumps the version, so
+// that the compiled form of the program knows when it has to be rebuilt.
+//
+// It also keeps an index of where the labels (g LBL 0 to g LBL F) are, so
+// GTO and GSB don't have to search the whole program. Adding, removing and
+// replacing single lines (all that program entry does) keeps the index up
+// to date as it goes; anything else just has it rebuilt the next time a
+// label is looked up.
+class ProgramMemory extends ArrayList<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final static String LABEL = "43,22, ";
+    private final static String LABEL_NAMES = "0123456789ABCDEF";
+
+    // for every label, the lines it's on (in order) and how many there are
+    private int[][] labelLines = new int[LABEL_NAMES.length()][1];
+    private int[] labelCount = new int[LABEL_NAMES.length()];
+    // the version the label index is good for
+    private int indexVersion = 0;
+
+    @Override
+    public boolean add(String line) {
+        add(size(), line);
+        return true;
+    }
+
+    @Override
+    public void add(int index, String line) {
+        boolean indexed = indexVersion == modCount;
+
+        super.add(index, line);
+        if (indexed) {
+            ShiftLabels(index, 1);
+            AddLabel(LabelOf(line), index);
+            indexVersion = modCount;
+        }
+    }
+
+    @Override
+    public String remove(int index) {
+        boolean indexed = indexVersion == modCount;
+        String line = super.remove(index);
+
+        if (indexed) {
+            RemoveLabel(LabelOf(line), index);
+            ShiftLabels(index + 1, -1);
+            indexVersion = modCount;
+        }
+        return line;
+    }
+
+    // Changes the number of lines all count in modCount already, so only
+    // a replaced line needs to be counted by hand
+    @Override
+    public String set(int index, String line) {
+        boolean indexed = indexVersion == modCount;
+        String old = super.set(index, line);
+
+        modCount++;
+        if (indexed) {
+            RemoveLabel(LabelOf(old), index);
+            AddLabel(LabelOf(line), index);
+            indexVersion = modCount;
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (int i = 0; i < labelCount.length; i++) {
+            labelCount[i] = 0;
+        }
+        indexVersion = modCount;
+    }
+
+    // Changes whenever the program does
+    int getVersion() {
+        return modCount;
+    }
+
+    // Locate the line number for a given program label, searching forward
+    // from the start line, and wrapping around to the top of the program
+    int FindLabel(int start, int label) {
+        // a quick sanity check...
+        // v6.0.2 - 26 Apr 12
+        // v6.0.5 - 14 Aug 13
+        if (start < 0 || start > size() || size() == 0) {
+            return -1;
+        }
+        if (label < 0 || label >= LABEL_NAMES.length()) {
+            return ScanForLabel(start, label);
+        }
+        if (indexVersion != modCount) {
+            Reindex();
+        }
+
+        int[] lines = labelLines[label];
+        int count = labelCount[label];
+        if (count == 0) {
+            return -1;
+        }
+        // searches are allowed to wrap around
+        if (lines[count - 1] < start) {
+            return lines[0];
+        }
+
+        // the first one at or after the start line
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lines[mid] < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lines[lo];
+    }
+
+    // Which of the labels is on this line (or -1 if it's not a label)
+    private static int LabelOf(String line) {
+        if (line == null || line.length() <= LABEL.length()
+                || !line.startsWith(LABEL)) {
+            return -1;
+        }
+        return LABEL_NAMES.indexOf(line.charAt(LABEL.length()));
+    }
+
+    // Labels that aren't a single digit can't be indexed, so look for them
+    // the long way
+    private int ScanForLabel(int start, int label) {
+        String instruction = LABEL + String.format("%1$X", label);
+
+        for (int i = start; i < size(); i++) {
+            if (get(i).startsWith(instruction)) {
+                return i;
+            }
+        }
+        for (int i = 0; i < start; i++) {
+            if (get(i).startsWith(instruction)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Move every label at or after the given line
+    private void ShiftLabels(int from, int by) {
+        for (int label = 0; label < labelCount.length; label++) {
+            int[] lines = labelLines[label];
+            int i = labelCount[label] - 1;
+            while (i >= 0 && lines[i] >= from) {
+                lines[i] += by;
+                i--;
+            }
+        }
+    }
+
+    private void AddLabel(int label, int line) {
+        if (label < 0) {
+            return;
+        }
+
+        int[] lines = labelLines[label];
+        int count = labelCount[label];
+        if (count == lines.length) {
+            lines = Arrays.copyOf(lines, count * 2);
+            labelLines[label] = lines;
+        }
+        int i = count;
+        while (i > 0 && lines[i - 1] > line) {
+            lines[i] = lines[i - 1];
+            i--;
+        }
+        lines[i] = line;
+        labelCount[label] = count + 1;
+    }
+
+    private void RemoveLabel(int label, int line) {
+        if (label < 0) {
+            return;
+        }
+
+        int[] lines = labelLines[label];
+        int count = labelCount[label];
+        for (int i = 0; i < count; i++) {
+            if (lines[i] == line) {
+                System.arraycopy(lines, i + 1, lines, i, count - i - 1);
+                labelCount[label] = count - 1;
+                return;
+            }
+        }
+    }
+
+    // Build the label index from scratch
+    private void Reindex() {
+        for (int i = 0; i < labelCount.length; i++) {
+            labelCount[i] = 0;
+        }
+        for (int i = 0; i < size(); i++) {
+            AddLabel(LabelOf(get(i)), i);
+        }
+        indexVersion = modCount;
+    }
+}
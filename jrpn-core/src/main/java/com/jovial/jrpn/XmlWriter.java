@@ -0,0 +1,117 @@
+package com.jovial.jrpn;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Just enough of an XML writer to save the CalcState, so the engine doesn't
+// need Android's XmlSerializer. Each element starts on a new line, indented
+// by its depth, and an element that only holds text stays on one line.
+class XmlWriter {
+    private final static String INDENT = "  ";
+
+    private Writer out;
+    private int depth = 0;
+    // the last start tag hasn't been closed with a '>' yet
+    private boolean open = false;
+    // the current element holds text, so its end tag stays on the same line
+    private boolean inline = false;
+
+    XmlWriter(Writer output) {
+        out = output;
+    }
+
+    void startDocument(String encoding, boolean standalone) throws IOException {
+        out.write("<?xml version='1.0' encoding='" + encoding + "' standalone='"
+                + (standalone ? "yes" : "no") + "' ?>");
+    }
+
+    void startTag(String name) throws IOException {
+        CloseStart();
+        NewLine();
+        out.write("<" + name);
+        open = true;
+        inline = false;
+        depth++;
+    }
+
+    void attribute(String name, String value) throws IOException {
+        if (!open) {
+            throw new IllegalStateException("attribute outside of a start tag");
+        }
+        out.write(" " + name + "=\"" + Escape(value) + "\"");
+    }
+
+    void text(String text) throws IOException {
+        CloseStart();
+        out.write(Escape(text));
+        inline = true;
+    }
+
+    void comment(String text) throws IOException {
+        CloseStart();
+        NewLine();
+        out.write("<!--" + text + "-->");
+    }
+
+    void endTag(String name) throws IOException {
+        depth--;
+        if (open) {
+            out.write(" />");
+            open = false;
+        } else {
+            if (!inline) {
+                NewLine();
+            }
+            out.write("</" + name + ">");
+        }
+        inline = false;
+    }
+
+    void endDocument() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("unclosed XML elements");
+        }
+        out.write("\n");
+        out.flush();
+    }
+
+    private void CloseStart() throws IOException {
+        if (open) {
+            out.write(">");
+            open = false;
+        }
+    }
+
+    private void NewLine() throws IOException {
+        out.write("\n");
+        for (int i = 0; i < depth; i++) {
+            out.write(INDENT);
+        }
+    }
+
+    private static String Escape(String text) {
+        StringBuilder ans = new StringBuilder(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+            case '<':
+                ans.append("&lt;");
+                break;
+            case '>':
+                ans.append("&gt;");
+                break;
+            case '&':
+                ans.append("&amp;");
+                break;
+            case '"':
+                ans.append("&quot;");
+                break;
+            default:
+                ans.append(ch);
+                break;
+            }
+        }
+        return ans.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+// The BigInt bit primitives (the masks and the sign bit used by every
+// integer operation) against the old way of working them out with
+// Math.pow. How fast they are is in the benchmark module
+// (BigIntBitwiseBenchmark).
+public class BigIntBitPrimitivesTest {
+
+    // The old top limb mask (from the byte array days, scaled up to a limb)
+    private static int PowTopMask(int size) {
+        return (int) (long) ((Math.pow(2, (size - 1) % 32) * 2) - 1);
+    }
+
+    @Test
+    public void primitivesMatchMathPow() {
+        for (int size = 1; size <= 4096; size++) {
+            assertEquals(PowTopMask(size), BigInt.TopMask(size));
+            assertEquals((int) (long) Math.pow(2, (size - 1) % 32),
+                    BigInt.BitOf(size - 1));
+        }
+        for (int bits = 0; bits <= 32; bits++) {
+            assertEquals((int) ((1L << bits) - 1), BigInt.LowMask(bits));
+        }
+    }
+}
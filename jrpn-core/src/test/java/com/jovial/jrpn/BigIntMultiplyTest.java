@@ -0,0 +1,124 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+// Checks the wide (extended word size) multiplication against BigInteger,
+// with every tier (schoolbook, Karatsuba and Toom-3), and the double word
+// operations at the largest word size.
+public class BigIntMultiplyTest {
+    private static final int[] SIZES = { 64, 512, 1500, 1536, 1568, 2048, 3000,
+            4096, 8192, 8224 };
+
+    private final Random random = new Random(16);
+
+    private static BigInt Of(BigInteger value, int size) {
+        return new BigInt(value.toString(), size, BigInt.ArithMode.Unsigned);
+    }
+
+    private static BigInteger Value(BigInt value) {
+        return new BigInteger(value.ToStringHex(), 16);
+    }
+
+    // Random values, plus all ones (lots of carries) and a lone top bit
+    private BigInteger Operand(int bits, int kind) {
+        switch (kind % 3) {
+        case 0:
+            return BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+        case 1:
+            return BigInteger.ONE.shiftLeft(bits - 1);
+        default:
+            return new BigInteger(bits, random);
+        }
+    }
+
+    @Test
+    public void fullProductsMatchBigInteger() {
+        for (int x_bits : SIZES) {
+            for (int y_bits : SIZES) {
+                for (int kind = 0; kind < 6; kind++) {
+                    BigInteger x = Operand(x_bits, kind);
+                    BigInteger y = Operand(y_bits, kind / 3 + kind);
+                    int size = x_bits + y_bits;
+                    BigInt product = Of(x, size);
+
+                    product.Multiply(Of(y, size), size);
+                    assertEquals(x_bits + "x" + y_bits, x.multiply(y),
+                            Value(product));
+                    assertEquals(false, product.isOverflow());
+                }
+            }
+        }
+    }
+
+    // Pull the thresholds right down, so that small numbers go through
+    // every tier (and the odd sized pieces of each) too
+    @Test
+    public void everyTierMatchesBigInteger() {
+        int[][] thresholds = { { 4, 6 }, { 4, 9 }, { 8, 12 }, { 1000, 6 } };
+
+        try {
+            for (int[] threshold : thresholds) {
+                BigInt.SetMultiplyThresholds(threshold[0], threshold[1]);
+                for (int i = 0; i < 300; i++) {
+                    int x_bits = 1 + random.nextInt(2000);
+                    int y_bits = (i % 2 == 0) ? x_bits
+                            : 1 + random.nextInt(2000);
+                    BigInteger x = Operand(x_bits, i);
+                    BigInteger y = Operand(y_bits, i / 3);
+                    int size = x_bits + y_bits;
+                    BigInt product = Of(x, size);
+
+                    product.Multiply(Of(y, size), size);
+                    assertEquals(x_bits + "x" + y_bits, x.multiply(y),
+                            Value(product));
+                }
+            }
+        } finally {
+            BigInt.SetMultiplyThresholds(BigInt.KARATSUBA_THRESHOLD,
+                    BigInt.TOOM_THRESHOLD);
+        }
+    }
+
+    @Test
+    public void truncatedProductsOverflow() {
+        for (int size : SIZES) {
+            for (int i = 0; i < 20; i++) {
+                BigInteger x = new BigInteger(size, random);
+                BigInteger y = new BigInteger(size, random);
+                BigInteger full = x.multiply(y);
+                BigInt product = Of(x, size);
+
+                product.Multiply(Of(y, size), size);
+                assertEquals(full.mod(BigInteger.ONE.shiftLeft(size)),
+                        Value(product));
+                assertEquals(full.bitLength() > size, product.isOverflow());
+            }
+        }
+    }
+
+    @Test
+    public void doubleWordAtMaxSize() throws Exception {
+        int size = CalcState.MAX_EXTENDED_WORD_SIZE;
+        BigInteger x = new BigInteger(size, random);
+        BigInteger y = new BigInteger(size, random);
+        BigInt large = Of(x, size);
+        BigInt[] halves;
+
+        // DBL* keeps the whole product, split into two words
+        large.setWordSize(size * 2);
+        large.Multiply(Of(y, size), size * 2);
+        halves = large.Split();
+        assertEquals(x.multiply(y), Value(halves[1]).shiftLeft(size).add(
+                Value(halves[0])));
+
+        // and DBL/ gets back what we started with
+        large.Combine(halves[1], halves[0]);
+        large.Divide(Of(y, size), size * 2);
+        assertEquals(x, Value(large));
+    }
+}
@@ -0,0 +1,956 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.fail;
+
+// Differential tests for BigInt. Every operation is run with random operands,
+// word sizes and arithmetic modes, and the answer (the value, and the Carry,
+// Overflow and Loss of Precision flags) is checked against a model of the
+// HP-16C built on BigInteger. When they disagree, the case is shrunk (a
+// smaller word size, simpler operands, a shorter distance) for as long as it
+// still fails, so the message shows a minimal counterexample.
+//
+// The model works on the unsigned bit pattern of each word, and only turns it
+// into a signed value where the HP-16C does (so 1's complement -0 is all ones,
+// and is equal to 0 when it is used as a number).
+public class BigIntOracleTest {
+    private static final int CASES = 12000;
+
+    private enum Op {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, REMAINDER, DIVREM, POWER, SQUARE_ROOT,
+        ABSOLUTE_VALUE, CHANGE_SIGN, COMPARE,
+
+        AND, OR, XOR, NOT, SHIFT_LEFT, SHIFT_RIGHT, ARITH_SHIFT_RIGHT,
+        ROTATE_LEFT, ROTATE_RIGHT, ROTATE_LEFT_CARRY, ROTATE_RIGHT_CARRY,
+        BIT_SET, BIT_CLEAR, BIT_TEST, BIT_COUNTS, SUM_BITS, MASK_LEFT,
+        MASK_RIGHT, LEFT_JUSTIFY,
+
+        TO_HEX, TO_OCT, TO_BIN, TO_DEC, PARSE_HEX, PARSE_OCT, PARSE_BIN,
+        PARSE_DEC, FROM_LONG, FROM_DOUBLE, TO_LONG, RESIZE, SPLIT, COMBINE,
+        CONSTANTS
+    }
+
+    private static final Op[] ARITHMETIC = { Op.ADD, Op.SUBTRACT, Op.MULTIPLY,
+            Op.DIVIDE, Op.REMAINDER, Op.DIVREM, Op.POWER, Op.SQUARE_ROOT,
+            Op.ABSOLUTE_VALUE, Op.CHANGE_SIGN, Op.COMPARE };
+    private static final Op[] BITS = { Op.AND, Op.OR, Op.XOR, Op.NOT,
+            Op.SHIFT_LEFT, Op.SHIFT_RIGHT, Op.ARITH_SHIFT_RIGHT, Op.ROTATE_LEFT,
+            Op.ROTATE_RIGHT, Op.ROTATE_LEFT_CARRY, Op.ROTATE_RIGHT_CARRY,
+            Op.BIT_SET, Op.BIT_CLEAR, Op.BIT_TEST, Op.BIT_COUNTS, Op.SUM_BITS,
+            Op.MASK_LEFT, Op.MASK_RIGHT, Op.LEFT_JUSTIFY };
+    private static final Op[] CONVERSIONS = { Op.TO_HEX, Op.TO_OCT, Op.TO_BIN,
+            Op.TO_DEC, Op.PARSE_HEX, Op.PARSE_OCT, Op.PARSE_BIN, Op.PARSE_DEC,
+            Op.FROM_LONG, Op.FROM_DOUBLE, Op.TO_LONG, Op.RESIZE, Op.SPLIT,
+            Op.COMBINE, Op.CONSTANTS };
+
+    // One operation to try. x and y are unsigned bit patterns (for the parse
+    // operations x can be a bit too big, and for FROM_LONG it is the 64 bit
+    // pattern of the long). distance is the shift, rotate or bit number, the
+    // new word size for RESIZE, or the bit count for the masks.
+    private static class Case {
+        final Op op;
+        final int size;
+        final BigInt.ArithMode mode;
+        final BigInteger x, y;
+        final int distance;
+        final boolean carry;
+
+        Case(Op op, int size, BigInt.ArithMode mode, BigInteger x, BigInteger y,
+                int distance, boolean carry) {
+            this.op = op;
+            this.size = size;
+            this.mode = mode;
+            this.x = x;
+            this.y = y;
+            this.distance = distance;
+            this.carry = carry;
+        }
+
+        Case With(int size, BigInteger x, BigInteger y, int distance,
+                boolean carry) {
+            return new Case(op, size, mode, x, y, distance, carry);
+        }
+
+        @Override
+        public String toString() {
+            return op + " " + size + " bit " + mode + " x=&H" + x.toString(16)
+                    + " y=&H" + y.toString(16) + " distance=" + distance
+                    + " carry=" + carry;
+        }
+    }
+
+    // What came out: the value (as text, so any kind of answer fits) and the
+    // flags of the BigInt that holds it
+    private static class Result {
+        final String value;
+        final boolean carry, overflow, lop;
+
+        Result(String value, boolean carry, boolean overflow, boolean lop) {
+            this.value = value;
+            this.carry = carry;
+            this.overflow = overflow;
+            this.lop = lop;
+        }
+
+        Result(String value) {
+            this(value, false, false, false);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Result)) {
+                return false;
+            }
+            Result r = (Result) o;
+            return value.equals(r.value) && carry == r.carry
+                    && overflow == r.overflow && lop == r.lop;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return value + (carry ? " C" : "") + (overflow ? " G" : "")
+                    + (lop ? " LOP" : "");
+        }
+    }
+
+    /*
+     * ***************************** Generation *******************************
+     */
+
+    // Mostly the HP-16C word sizes, with some of the extended ones
+    private static int RandomSize(Random random) {
+        int pick = random.nextInt(10);
+
+        if (pick < 6) {
+            return 1 + random.nextInt(64);
+        } else if (pick < 9) {
+            return 65 + random.nextInt(192);
+        }
+        return 257 + random.nextInt(4096 - 256);
+    }
+
+    // Random bit patterns, along with the usual trouble makers
+    private static BigInteger RandomWord(Random random, int size) {
+        BigInteger sign = BigInteger.ONE.shiftLeft(size - 1);
+
+        switch (random.nextInt(10)) {
+        case 0:
+            return BigInteger.ZERO;
+        case 1:
+            return BigInteger.ONE;
+        case 2:
+            return Mask(size);
+        case 3:
+            return sign;
+        case 4:
+            return sign.subtract(BigInteger.ONE);
+        case 5:
+            return Mask(size).subtract(BigInteger.ONE);
+        case 6:
+            return BigInteger.valueOf(random.nextInt(256)).and(Mask(size));
+        case 7:
+            // just a few bits set
+            BigInteger sparse = BigInteger.ZERO;
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                sparse = sparse.setBit(random.nextInt(size));
+            }
+            return sparse;
+        default:
+            return new BigInteger(size, random);
+        }
+    }
+
+    private static Case RandomCase(Random random, Op op) {
+        BigInt.ArithMode mode = BigInt.ArithMode.values()[random.nextInt(3)];
+        int size = RandomSize(random);
+        BigInteger x = RandomWord(random, size);
+        BigInteger y = RandomWord(random, size);
+        int distance = 1 + random.nextInt(2 * size + 2);
+
+        switch (op) {
+        case POWER:
+            // keep the exponents small enough for the model to work out
+            y = BigInteger.valueOf(random.nextInt(2 * size + 2));
+            if (random.nextInt(8) == 0) {
+                y = Mask(size).subtract(y).and(Mask(size));
+            }
+            break;
+        case BIT_SET:
+        case BIT_CLEAR:
+        case BIT_TEST:
+            distance = random.nextInt(size);
+            break;
+        case MASK_LEFT:
+        case MASK_RIGHT:
+            distance = random.nextInt(size + 1);
+            break;
+        case RESIZE:
+            distance = RandomSize(random);
+            break;
+        case PARSE_HEX:
+        case PARSE_OCT:
+        case PARSE_BIN:
+        case PARSE_DEC:
+            // sometimes too big for the word
+            x = new BigInteger(size + random.nextInt(12), random);
+            break;
+        case FROM_LONG:
+        case FROM_DOUBLE:
+            x = new BigInteger(1 + random.nextInt(64), random);
+            if (op == Op.FROM_DOUBLE) {
+                // below 2^63, where the double still converts to a long
+                x = BigInteger.valueOf((long) (double) x.longValue())
+                        .and(Mask(64));
+            }
+            break;
+        case SPLIT:
+            size = size & ~1;
+            if (size == 0) {
+                size = 2;
+            }
+            x = RandomWord(random, size);
+            break;
+        default:
+            break;
+        }
+        return new Case(op, size, mode, x, y, distance, random.nextBoolean());
+    }
+
+    // Some cases make no sense (dividing by zero and so on)
+    private static boolean Valid(Case c) {
+        if (c.size < 1) {
+            return false;
+        }
+        switch (c.op) {
+        case DIVIDE:
+        case REMAINDER:
+        case DIVREM:
+            // (1's complement -0 is zero too)
+            return Signed(c.y, c.size, c.mode).signum() != 0;
+        case SQUARE_ROOT:
+            // the calculator gives an error for zero and negative numbers
+            return c.x.signum() != 0 && Signed(c.x, c.size, c.mode).signum() > 0;
+        case BIT_SET:
+        case BIT_CLEAR:
+        case BIT_TEST:
+            return c.distance < c.size;
+        case MASK_LEFT:
+        case MASK_RIGHT:
+            return c.distance <= c.size;
+        case SHIFT_LEFT:
+        case SHIFT_RIGHT:
+        case ARITH_SHIFT_RIGHT:
+        case ROTATE_LEFT:
+        case ROTATE_RIGHT:
+        case ROTATE_LEFT_CARRY:
+        case ROTATE_RIGHT_CARRY:
+        case RESIZE:
+            return c.distance >= 1;
+        case SPLIT:
+            return c.size % 2 == 0;
+        case FROM_LONG:
+        case FROM_DOUBLE:
+            return c.x.bitLength() <= 64;
+        case POWER:
+            return c.y.bitLength() <= c.size;
+        default:
+            return true;
+        }
+    }
+
+    /*
+     * ******************************* BigInt *********************************
+     */
+
+    private static BigInt Word(BigInteger value, int size, BigInt.ArithMode mode) {
+        byte[] bytes = new byte[(size + 7) / 8];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.shiftRight(i * 8).intValue();
+        }
+        return new BigInt(bytes, size, mode);
+    }
+
+    private static BigInteger Value(BigInt word) {
+        byte[] bytes = word.getByteArray();
+        byte[] big_endian = new byte[bytes.length];
+
+        for (int i = 0; i < bytes.length; i++) {
+            big_endian[bytes.length - 1 - i] = bytes[i];
+        }
+        return new BigInteger(1, big_endian);
+    }
+
+    private static String Text(BigInt word) {
+        return word.getWordSize() + ":" + Value(word).toString(16);
+    }
+
+    private static Result Of(BigInt word) {
+        return new Result(Text(word), word.isCarryBit(), word.isOverflow(),
+                word.isLossOfPrecision());
+    }
+
+    private static Result Engine(Case c) {
+        try {
+            return RunEngine(c);
+        } catch (Exception e) {
+            return new Result("threw " + e);
+        }
+    }
+
+    private static Result RunEngine(Case c) throws Exception {
+        BigInt x = Word(c.x, c.size, c.mode);
+        BigInt y = Word(c.y, c.size, c.mode);
+        BigInt ans = new BigInt();
+        BigInt[] pair;
+
+        switch (c.op) {
+        // The calculator uses the static versions (with the size taken from
+        // the operands) for the four functions, like this
+        case ADD:
+            return Of(BigInt.Add(x, y, 0, ans));
+        case SUBTRACT:
+            return Of(BigInt.Subtract(x, y, 0, ans));
+        case MULTIPLY:
+            return Of(BigInt.Multiply(x, y, 0, ans));
+        case DIVIDE:
+            return Of(BigInt.Divide(x, y, 0, ans));
+        case REMAINDER:
+            return Of(BigInt.Remainder(x, y, 0, ans));
+        case DIVREM:
+            BigInt rem = x.DivRem(y, c.size);
+            return new Result(Text(x) + " r " + Text(rem), x.isCarryBit(),
+                    x.isOverflow(), x.isLossOfPrecision());
+        case POWER:
+            x.Power(y, c.size);
+            return Of(x);
+        case SQUARE_ROOT:
+            x.SquareRoot(c.size);
+            return Of(x);
+        case ABSOLUTE_VALUE:
+            x.AbsoluteValue();
+            return Of(x);
+        case CHANGE_SIGN:
+            x.ChangeSign();
+            return Of(x);
+        case COMPARE:
+            return new Result(Integer.toString(BigInt.Compare(x, y)));
+
+        case AND:
+            x.BitwiseAnd(y, c.size);
+            return Of(x);
+        case OR:
+            x.BitwiseOr(y, c.size);
+            return Of(x);
+        case XOR:
+            x.Xor(y, c.size);
+            return Of(x);
+        case NOT:
+            x.OnesComplement(c.size);
+            return Of(x);
+        case SHIFT_LEFT:
+            x.LeftShift(c.distance, c.size);
+            return Of(x);
+        case SHIFT_RIGHT:
+            x.RightShift(c.distance, false, c.size);
+            return Of(x);
+        case ARITH_SHIFT_RIGHT:
+            x.RightShift(c.distance, true, c.size);
+            return Of(x);
+        case ROTATE_LEFT:
+            x.RotateLeft(c.distance, false, c.carry, c.size);
+            return Of(x);
+        case ROTATE_RIGHT:
+            x.RotateRight(c.distance, false, c.carry, c.size);
+            return Of(x);
+        case ROTATE_LEFT_CARRY:
+            x.RotateLeft(c.distance, true, c.carry, c.size);
+            return Of(x);
+        case ROTATE_RIGHT_CARRY:
+            x.RotateRight(c.distance, true, c.carry, c.size);
+            return Of(x);
+        case BIT_SET:
+            x.BitSet(c.distance);
+            return Of(x);
+        case BIT_CLEAR:
+            x.BitClear(c.distance);
+            return Of(x);
+        case BIT_TEST:
+            return new Result(Boolean.toString(x.BitTest(c.distance)));
+        case BIT_COUNTS:
+            return new Result(x.bitCount() + " " + x.highestSetBit() + " "
+                    + x.lowestSetBit());
+        case SUM_BITS:
+            x.SumBits();
+            return Of(x);
+        case MASK_LEFT:
+            return Of(BigInt.CreateMask(c.distance, true, c.size));
+        case MASK_RIGHT:
+            return Of(BigInt.CreateMask(c.distance, false, c.size));
+        case LEFT_JUSTIFY:
+            pair = BigInt.LeftJustify(x);
+            return new Result(Text(pair[0]) + " by " + Value(pair[1]),
+                    pair[0].isCarryBit(), pair[0].isOverflow(),
+                    pair[0].isLossOfPrecision());
+
+        case TO_HEX:
+            return new Result(x.ToStringHex());
+        case TO_OCT:
+            return new Result(x.ToStringOct());
+        case TO_BIN:
+            return new Result(x.ToStringBin(c.carry));
+        case TO_DEC:
+            return new Result(x.ToStringDec());
+        case PARSE_HEX:
+            return Of(new BigInt("&H" + c.x.toString(16), c.size, c.mode));
+        case PARSE_OCT:
+            return Of(new BigInt("&O" + c.x.toString(8), c.size, c.mode));
+        case PARSE_BIN:
+            return Of(new BigInt("&B" + c.x.toString(2), c.size, c.mode));
+        case PARSE_DEC:
+            return Of(new BigInt(c.x.toString(), c.size, c.mode));
+        case FROM_LONG:
+            return Of(new BigInt(c.x.longValue(), c.size, c.mode));
+        case FROM_DOUBLE:
+            return Of(new BigInt((double) c.x.longValue(), c.size, c.mode));
+        case TO_LONG:
+            long ln = x.ToLong();
+            return new Result(Long.toString(ln), x.isCarryBit(), x.isOverflow(),
+                    x.isLossOfPrecision());
+        case RESIZE:
+            x.setWordSize(c.distance);
+            return Of(x);
+        case SPLIT:
+            pair = x.Split();
+            return new Result(Text(pair[1]) + " " + Text(pair[0]));
+        case COMBINE:
+            ans.Combine(x, y);
+            return Of(ans);
+        case CONSTANTS:
+            return new Result(Text(BigInt.Zero(c.size, c.mode)) + " "
+                    + Text(BigInt.One(c.size, c.mode)) + " "
+                    + Text(BigInt.Ten(c.size, c.mode)) + " "
+                    + Text(BigInt.AllOnes(c.size, c.mode)) + " "
+                    + Text(BigInt.SignMask(c.size, c.mode)));
+        }
+        throw new IllegalStateException("no engine for " + c.op);
+    }
+
+    /*
+     * ******************************** Model *********************************
+     */
+
+    private static BigInteger Mask(int size) {
+        return BigInteger.ONE.shiftLeft(size).subtract(BigInteger.ONE);
+    }
+
+    private static boolean Negative(BigInteger x, int size, BigInt.ArithMode mode) {
+        return mode != BigInt.ArithMode.Unsigned && x.testBit(size - 1);
+    }
+
+    // The number a bit pattern stands for (1's complement -0 is just 0)
+    private static BigInteger Signed(BigInteger x, int size, BigInt.ArithMode mode) {
+        if (!Negative(x, size, mode)) {
+            return x;
+        }
+        if (mode == BigInt.ArithMode.OnesComplement) {
+            return x.subtract(Mask(size));
+        }
+        return x.subtract(BigInteger.ONE.shiftLeft(size));
+    }
+
+    // The bit pattern for a number (only the low bits, if it doesn't fit).
+    // An answer of zero is never 1's complement -0.
+    private static BigInteger Pattern(BigInteger value, int size,
+            BigInt.ArithMode mode) {
+        BigInteger low = value.abs().and(Mask(size));
+
+        if (value.signum() < 0 && mode == BigInt.ArithMode.OnesComplement
+                && low.signum() != 0) {
+            return Mask(size).subtract(low);
+        }
+        return value.and(Mask(size));
+    }
+
+    // Does the number fit in the word?
+    private static boolean Fits(BigInteger value, int size, BigInt.ArithMode mode) {
+        switch (mode) {
+        case Unsigned:
+            return value.signum() >= 0 && value.bitLength() <= size;
+        case OnesComplement:
+            return value.abs().bitLength() < size;
+        default:
+            return value.bitLength() < size;
+        }
+    }
+
+    // A bit pattern moved to another word size. Signed values are sign
+    // extended when they grow.
+    private static BigInteger Resized(BigInteger x, int size, int new_size,
+            BigInt.ArithMode mode) {
+        if (new_size > size && Negative(x, size, mode)) {
+            x = x.or(Mask(new_size).xor(Mask(size)));
+        }
+        return x.and(Mask(new_size));
+    }
+
+    private static String Text(BigInteger value, int size) {
+        return size + ":" + value.toString(16);
+    }
+
+    private static String Padded(String digits, int width, char pad) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = digits.length(); i < width; i++) {
+            sb.append(pad);
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static Result Model(Case c) {
+        int n = c.size;
+        BigInt.ArithMode mode = c.mode;
+        boolean unsigned = (mode == BigInt.ArithMode.Unsigned);
+        boolean ones = (mode == BigInt.ArithMode.OnesComplement);
+        BigInteger mask = Mask(n);
+        BigInteger x = c.x, y = c.y;
+        BigInteger sx = Signed(x, n, mode), sy = Signed(y, n, mode);
+        BigInteger v, q, r;
+        boolean carry, overflow;
+        int steps;
+
+        switch (c.op) {
+        case ADD:
+            // Carry is the bit out of the top, which 1's complement adds
+            // back in at the bottom
+            v = x.add(y);
+            carry = v.testBit(n);
+            v = v.and(mask);
+            if (carry && ones) {
+                v = v.add(BigInteger.ONE);
+            }
+            overflow = unsigned ? carry : !Fits(sx.add(sy), n, mode);
+            return new Result(Text(v, n), carry, overflow, false);
+        case SUBTRACT:
+            // Carry is the borrow, which 1's complement takes back off
+            v = x.subtract(y);
+            carry = v.signum() < 0;
+            v = v.and(mask);
+            if (carry && ones) {
+                v = v.subtract(BigInteger.ONE).and(mask);
+            }
+            overflow = unsigned ? carry : !Fits(sx.subtract(sy), n, mode);
+            return new Result(Text(v, n), carry, overflow, false);
+        case MULTIPLY:
+            v = sx.multiply(sy);
+            return new Result(Text(Pattern(v, n, mode), n), false,
+                    !Fits(v, n, mode), false);
+        case DIVIDE:
+            // Carry if there is a remainder, Overflow if the quotient
+            // doesn't fit (-2^(n-1) / -1 in 2's complement)
+            q = sx.divide(sy);
+            r = sx.subtract(q.multiply(sy));
+            return new Result(Text(Pattern(q, n, mode), n), r.signum() != 0,
+                    !Fits(q, n, mode), false);
+        case REMAINDER:
+            // The remainder has the sign of x, and leaves the flags alone
+            return new Result(Text(Pattern(sx.remainder(sy), n, mode), n));
+        case DIVREM:
+            q = sx.divide(sy);
+            r = sx.remainder(sy);
+            return new Result(Text(Pattern(q, n, mode), n) + " r "
+                    + Text(Pattern(r, n, mode), n), r.signum() != 0,
+                    !Fits(q, n, mode), false);
+        case POWER:
+            return Power(sx, sy, n, mode);
+        case SQUARE_ROOT:
+            // Carry if x is not a perfect square
+            r = Sqrt(x);
+            return new Result(Text(r, n), !r.multiply(r).equals(x), false,
+                    false);
+        case ABSOLUTE_VALUE:
+            // In 2's complement, the biggest negative number has no positive
+            // version, so it stays the same and sets Overflow
+            if (!Negative(x, n, mode)) {
+                return new Result(Text(x, n));
+            }
+            if (!Fits(sx.negate(), n, mode)) {
+                return new Result(Text(x, n), false, true, false);
+            }
+            return new Result(Text(Pattern(sx.negate(), n, mode), n));
+        case CHANGE_SIGN:
+            // Unsigned CHS gives the 2's complement, and flags it with an
+            // Overflow since the answer isn't really a negative number
+            if (ones) {
+                return new Result(Text(x.xor(mask), n));
+            }
+            return new Result(Text(x.negate().and(mask), n), false, unsigned,
+                    false);
+        case COMPARE:
+            // Negative 1's complement zero comes just below zero
+            int compare = sx.compareTo(sy);
+            if (compare == 0 && ones) {
+                compare = Negative(x, n, mode) == Negative(y, n, mode) ? 0
+                        : Negative(x, n, mode) ? -1 : 1;
+            }
+            return new Result(Integer.toString(compare));
+
+        case AND:
+            return new Result(Text(x.and(y), n));
+        case OR:
+            return new Result(Text(x.or(y), n));
+        case XOR:
+            return new Result(Text(x.xor(y), n));
+        case NOT:
+            return new Result(Text(x.xor(mask), n));
+        case SHIFT_LEFT:
+            // One bit at a time, with the Carry being the last bit out.
+            // Past the word size nothing changes any more.
+            v = x;
+            carry = false;
+            for (int i = Math.min(c.distance, n + 1); i > 0; i--) {
+                carry = v.testBit(n - 1);
+                v = v.shiftLeft(1).and(mask);
+            }
+            return new Result(Text(v, n), carry, false, false);
+        case SHIFT_RIGHT:
+        case ARITH_SHIFT_RIGHT:
+            // (the arithmetic shift keeps the sign bit, in the signed modes)
+            boolean keep = (c.op == Op.ARITH_SHIFT_RIGHT) && Negative(x, n, mode);
+            v = x;
+            carry = false;
+            for (int i = Math.min(c.distance, n + 1); i > 0; i--) {
+                carry = v.testBit(0);
+                v = v.shiftRight(1);
+                if (keep) {
+                    v = v.setBit(n - 1);
+                }
+            }
+            return new Result(Text(v, n), carry, false, false);
+        case ROTATE_LEFT:
+        case ROTATE_RIGHT:
+            // The Carry is the last bit to go around (the pattern repeats
+            // every n steps, so we can skip whole turns)
+            v = x;
+            carry = false;
+            for (steps = (c.distance - 1) % n + 1; steps > 0; steps--) {
+                if (c.op == Op.ROTATE_LEFT) {
+                    carry = v.testBit(n - 1);
+                    v = v.shiftLeft(1).and(mask);
+                    if (carry) {
+                        v = v.setBit(0);
+                    }
+                } else {
+                    carry = v.testBit(0);
+                    v = v.shiftRight(1);
+                    if (carry) {
+                        v = v.setBit(n - 1);
+                    }
+                }
+            }
+            return new Result(Text(v, n), carry, false, false);
+        case ROTATE_LEFT_CARRY:
+        case ROTATE_RIGHT_CARRY:
+            // The Carry is one more bit, so this repeats every n + 1 steps
+            v = x;
+            carry = c.carry;
+            for (steps = (c.distance - 1) % (n + 1) + 1; steps > 0; steps--) {
+                boolean out;
+                if (c.op == Op.ROTATE_LEFT_CARRY) {
+                    out = v.testBit(n - 1);
+                    v = v.shiftLeft(1).and(mask);
+                    if (carry) {
+                        v = v.setBit(0);
+                    }
+                } else {
+                    out = v.testBit(0);
+                    v = v.shiftRight(1);
+                    if (carry) {
+                        v = v.setBit(n - 1);
+                    }
+                }
+                carry = out;
+            }
+            return new Result(Text(v, n), carry, false, false);
+        case BIT_SET:
+            return new Result(Text(x.setBit(c.distance), n));
+        case BIT_CLEAR:
+            return new Result(Text(x.clearBit(c.distance), n));
+        case BIT_TEST:
+            return new Result(Boolean.toString(x.testBit(c.distance)));
+        case BIT_COUNTS:
+            return new Result(x.bitCount() + " " + (x.bitLength() - 1) + " "
+                    + x.getLowestSetBit());
+        case SUM_BITS:
+            return new Result(Text(BigInteger.valueOf(x.bitCount()), n));
+        case MASK_LEFT:
+            return new Result(Text(Mask(c.distance).shiftLeft(n - c.distance),
+                    n));
+        case MASK_RIGHT:
+            return new Result(Text(Mask(c.distance), n));
+        case LEFT_JUSTIFY:
+            // Shift the top bit up to the top, and count the steps (zero
+            // doesn't move, and takes no steps)
+            steps = x.signum() == 0 ? 0 : n - x.bitLength();
+            return new Result(Text(x.shiftLeft(steps), n) + " by " + steps);
+
+        case TO_HEX:
+            return new Result(Padded(x.toString(16), (n - 1) / 4 + 1, '0'));
+        case TO_OCT:
+            return new Result(Padded(x.toString(8), (n - 1) / 3 + 1, '0'));
+        case TO_BIN:
+            // with a space between each group of 8 bits, if asked
+            String bin = Padded(x.toString(2), n, '0');
+            if (c.carry) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < n; i++) {
+                    if (i > 0 && (n - i) % 8 == 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(bin.charAt(i));
+                }
+                bin = sb.toString();
+            }
+            return new Result(bin);
+        case TO_DEC:
+            // zero padded to as many digits as the word could need, with
+            // 1's complement -0 showing as "-0"
+            int digits = mask.toString().length();
+            if (!Negative(x, n, mode)) {
+                return new Result(Padded(x.toString(), digits, '0'));
+            }
+            v = ones ? x.xor(mask) : x.negate().and(mask);
+            return new Result("-" + Padded(v.toString(), digits, '0'));
+        case PARSE_HEX:
+        case PARSE_OCT:
+        case PARSE_BIN:
+        case PARSE_DEC:
+            // Loss of Precision if it doesn't fit
+            return new Result(Text(x.and(mask), n), false, false,
+                    x.bitLength() > n);
+        case FROM_LONG:
+        case FROM_DOUBLE:
+            // The long is sign extended as far as it needs to go. Loss of
+            // Precision means the (64 bit) pattern doesn't fit.
+            v = BigInteger.valueOf(x.longValue());
+            return new Result(Text(v.and(mask), n), false, false,
+                    x.bitLength() > n);
+        case TO_LONG:
+            // Sign extended (or cut down) to 64 bits. Loss of Precision if
+            // that changes the value.
+            v = Resized(x, n, 64, mode);
+            return new Result(Long.toString(v.longValue()), false, false,
+                    !Resized(v, 64, n, mode).equals(x));
+        case RESIZE:
+            return new Result(Text(Resized(x, n, c.distance, mode),
+                    c.distance));
+        case SPLIT:
+            int half = n / 2;
+            return new Result(Text(x.shiftRight(half), half) + " "
+                    + Text(x.and(Mask(half)), half));
+        case COMBINE:
+            return new Result(Text(x.shiftLeft(n).or(y), 2 * n));
+        case CONSTANTS:
+            return new Result(Text(BigInteger.ZERO, n) + " "
+                    + Text(BigInteger.ONE, n) + " "
+                    + Text(BigInteger.TEN.and(mask), n) + " "
+                    + Text(mask, n) + " "
+                    + Text(BigInteger.ONE.shiftLeft(n - 1), n));
+        }
+        throw new IllegalStateException("no model for " + c.op);
+    }
+
+    // x to the power y. A negative power is 1 / x^-y, which is zero unless
+    // x is 1 or -1. (The HP-16C doesn't have this one, so x^0 is always 1
+    // and x^1 is x, even in a 1 bit word.)
+    private static Result Power(BigInteger x, BigInteger y, int n,
+            BigInt.ArithMode mode) {
+        BigInteger v;
+        boolean overflow;
+
+        if (y.signum() == 0) {
+            return new Result(Text(BigInteger.ONE, n));
+        }
+        if (y.equals(BigInteger.ONE)) {
+            return new Result(Text(Pattern(x, n, mode), n));
+        }
+        if (y.signum() < 0) {
+            if (x.abs().equals(BigInteger.ONE)) {
+                y = y.negate();
+            } else {
+                return new Result(Text(BigInteger.ZERO, n));
+            }
+        }
+        int bits = x.abs().bitLength();
+
+        if (bits <= 1) {
+            // 0, 1 or -1
+            v = (x.signum() < 0 && !y.testBit(0)) ? BigInteger.ONE : x;
+            overflow = !Fits(v, n, mode);
+        } else if (y.bitLength() > 31 || (long) (bits - 1) * y.intValue() >= n) {
+            // too big to work out (and far too big to fit)
+            v = x.abs().modPow(y, BigInteger.ONE.shiftLeft(n));
+            if (x.signum() < 0 && y.testBit(0)) {
+                v = v.negate();
+            }
+            overflow = true;
+        } else {
+            v = x.pow(y.intValue());
+            overflow = !Fits(v, n, mode);
+        }
+        return new Result(Text(Pattern(v, n, mode), n), false, overflow, false);
+    }
+
+    private static BigInteger Sqrt(BigInteger x) {
+        BigInteger r = BigInteger.ONE.shiftLeft((x.bitLength() + 1) / 2);
+
+        while (true) {
+            BigInteger next = r.add(x.divide(r)).shiftRight(1);
+            if (next.compareTo(r) >= 0) {
+                return r;
+            }
+            r = next;
+        }
+    }
+
+    /*
+     * ****************************** Shrinking *******************************
+     */
+
+    private static boolean Fails(Case c) {
+        return !Engine(c).equals(Model(c));
+    }
+
+    // Simpler versions of a value: zero, one, half of it, and without its
+    // top or bottom bit
+    private static BigInteger[] Smaller(BigInteger v) {
+        if (v.signum() == 0) {
+            return new BigInteger[0];
+        }
+        if (v.equals(BigInteger.ONE)) {
+            return new BigInteger[] { BigInteger.ZERO };
+        }
+        return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE,
+                v.shiftRight(1), v.clearBit(v.bitLength() - 1),
+                v.clearBit(v.getLowestSetBit()) };
+    }
+
+    // Every candidate is smaller than c in some way, so this always stops
+    private static Case Shrink(Case c) {
+        boolean progress = true;
+
+        while (progress) {
+            progress = false;
+            for (Case smaller : Candidates(c)) {
+                if (Valid(smaller) && Fails(smaller)) {
+                    c = smaller;
+                    progress = true;
+                    break;
+                }
+            }
+        }
+        return c;
+    }
+
+    private static java.util.List<Case> Candidates(Case c) {
+        java.util.List<Case> ans = new java.util.ArrayList<Case>();
+        int[] sizes = { 1, 2, 4, 8, c.size / 2, c.size - 1 };
+        int[] distances = { 0, 1, c.distance / 2, c.distance - 1 };
+
+        for (int size : sizes) {
+            if (size >= 1 && size < c.size) {
+                // keep the values in the smaller word (the parse operations
+                // can go a little over)
+                BigInteger limit = Mask(c.op.name().startsWith("PARSE")
+                        || c.op == Op.FROM_LONG || c.op == Op.FROM_DOUBLE ? 64
+                                + size : size);
+                ans.add(c.With(size, c.x.and(limit), c.y.and(Mask(size)),
+                        Math.min(c.distance, 2 * size + 1), c.carry));
+            }
+        }
+        for (BigInteger x : Smaller(c.x)) {
+            ans.add(c.With(c.size, x, c.y, c.distance, c.carry));
+        }
+        for (BigInteger y : Smaller(c.y)) {
+            ans.add(c.With(c.size, c.x, y, c.distance, c.carry));
+        }
+        for (int distance : distances) {
+            if (distance >= 0 && distance < c.distance) {
+                ans.add(c.With(c.size, c.x, c.y, distance, c.carry));
+            }
+        }
+        if (c.carry) {
+            ans.add(c.With(c.size, c.x, c.y, c.distance, false));
+        }
+        return ans;
+    }
+
+    /*
+     * ******************************** Tests *********************************
+     */
+
+    private static void Check(Op[] ops, long seed) {
+        Random random = new Random(seed);
+
+        for (int i = 0; i < CASES; i++) {
+            Op op = ops[i % ops.length];
+            Case c = RandomCase(random, op);
+
+            if (!Valid(c) || !Fails(c)) {
+                continue;
+            }
+            Case minimal = Shrink(c);
+            fail("BigInt disagrees with the model for " + minimal
+                    + ": expected " + Model(minimal) + " but got "
+                    + Engine(minimal) + " (first seen as " + c + ")");
+        }
+    }
+
+    @Test
+    public void arithmeticMatchesModel() {
+        Check(ARITHMETIC, 191);
+    }
+
+    @Test
+    public void bitOperationsMatchModel() {
+        Check(BITS, 192);
+    }
+
+    @Test
+    public void conversionsMatchModel() {
+        Check(CONVERSIONS, 193);
+    }
+
+    // The model leaves out dividing by zero (the calculator gives Error 0
+    // first), but BigInt still mustn't fall over, and 1's complement -0
+    // has to be treated the same as 0
+    @Test
+    public void minusZeroDivisorIsZero() {
+        Random random = new Random(194);
+        Op[] ops = { Op.DIVIDE, Op.REMAINDER, Op.DIVREM };
+
+        for (int i = 0; i < CASES / 10; i++) {
+            Case c = RandomCase(random, ops[i % ops.length]);
+            Case zero = new Case(c.op, c.size, BigInt.ArithMode.OnesComplement,
+                    c.x, BigInteger.ZERO, c.distance, c.carry);
+            Case minus_zero = zero.With(c.size, c.x, Mask(c.size), c.distance,
+                    c.carry);
+            Result expected = Engine(zero);
+            Result actual = Engine(minus_zero);
+
+            if (actual.value.startsWith("threw") || !actual.equals(expected)) {
+                fail("BigInt treats -0 differently from 0 for " + minus_zero
+                        + ": expected " + expected + " but got " + actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+// Checks that every BigIntVector operation gives the same values and flags
+// as doing the same thing to each value with BigInt, at sizes on both sides
+// of the limb and long boundaries, and on a batch big enough to be split
+// across threads.
+public class BigIntVectorTest {
+    private static final int[] SIZES = { 1, 7, 8, 31, 32, 33, 63, 64, 65, 100,
+            128 };
+    private static final int LENGTH = 200;
+    private static final int[] DISTANCES = { 1, 3, 8, 31, 32, 33, 63, 64, 65,
+            129 };
+
+    private final Random random = new Random(15);
+
+    // A mix of random values and the edge cases (0, 1, -1 and the sign bit)
+    private BigIntVector Fill(int length, int size, BigInt.ArithMode mode) {
+        BigIntVector ans = new BigIntVector(length, size, mode);
+
+        for (int i = 0; i < length; i++) {
+            BigInt value;
+            switch (random.nextInt(6)) {
+            case 0:
+                value = new BigInt(0, size, mode);
+                break;
+            case 1:
+                value = new BigInt(1, size, mode);
+                break;
+            case 2:
+                value = new BigInt(-1, size, mode);
+                break;
+            case 3:
+                value = new BigInt(1, size, mode);
+                value.LeftShift(size - 1, size);
+                break;
+            default:
+                byte[] bytes = new byte[(size + 7) / 8];
+                random.nextBytes(bytes);
+                value = new BigInt(bytes, size, mode);
+                break;
+            }
+            ans.set(i, value);
+        }
+        return ans;
+    }
+
+    private static BigInt[] Scalars(BigIntVector v) {
+        BigInt[] ans = new BigInt[v.getLength()];
+
+        for (int i = 0; i < ans.length; i++) {
+            ans[i] = v.get(i);
+        }
+        return ans;
+    }
+
+    private static void AssertSame(String what, BigInt[] expected,
+            BigIntVector actual, boolean carry, boolean overflow) {
+        for (int i = 0; i < expected.length; i++) {
+            String label = what + " #" + i + " (" + actual.getWordSize()
+                    + " bits)";
+            assertEquals(label, expected[i].ToStringHex(),
+                    actual.get(i).ToStringHex());
+            if (carry) {
+                assertEquals(label + " carry", expected[i].isCarryBit(),
+                        actual.isCarryBit(i));
+            }
+            if (overflow) {
+                assertEquals(label + " overflow", expected[i].isOverflow(),
+                        actual.isOverflow(i));
+            }
+        }
+    }
+
+    private void CheckAll(int length, int size, BigInt.ArithMode mode) {
+        BigIntVector x = Fill(length, size, mode);
+        BigIntVector y = Fill(length, size, mode);
+        BigInt[] xs = Scalars(x);
+        BigInt[] ys = Scalars(y);
+        int[] counts = new int[length];
+        int[] compares = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            compares[i] = BigInt.Compare(xs[i], ys[i]);
+        }
+        assertArrayEquals("compare", compares, x.Compare(y));
+
+        // each step carries on from where the last one left off
+        for (int i = 0; i < length; i++) {
+            xs[i].Add(ys[i], 0);
+        }
+        x.Add(y);
+        AssertSame("add", xs, x, true, true);
+
+        for (int i = 0; i < length; i++) {
+            xs[i].Xor(ys[i], 0);
+        }
+        x.Xor(y);
+        AssertSame("xor", xs, x, false, false);
+
+        for (int i = 0; i < length; i++) {
+            xs[i].BitwiseOr(ys[i], 0);
+        }
+        x.BitwiseOr(y);
+        AssertSame("or", xs, x, false, false);
+
+        for (int i = 0; i < length; i++) {
+            xs[i].OnesComplement(0);
+        }
+        x.OnesComplement();
+        AssertSame("not", xs, x, false, false);
+
+        for (int i = 0; i < length; i++) {
+            xs[i].BitwiseAnd(ys[i], 0);
+        }
+        x.BitwiseAnd(y);
+        AssertSame("and", xs, x, false, false);
+
+        x = Fill(length, size, mode);
+        xs = Scalars(x);
+        for (int distance : DISTANCES) {
+            for (int i = 0; i < length; i++) {
+                xs[i].RotateRight(distance, false, false, 0);
+            }
+            x.RotateRight(distance, false, false);
+            AssertSame("ror " + distance, xs, x, true, false);
+
+            for (int i = 0; i < length; i++) {
+                xs[i].RotateLeft(distance + 1, true, true, 0);
+            }
+            x.RotateLeft(distance + 1, true, true);
+            AssertSame("rlc " + distance, xs, x, true, false);
+
+            for (int i = 0; i < length; i++) {
+                xs[i].RotateRight(distance, true, false, 0);
+            }
+            x.RotateRight(distance, true, false);
+            AssertSame("rrc " + distance, xs, x, true, false);
+
+            for (int i = 0; i < length; i++) {
+                xs[i].RotateLeft(distance, false, false, 0);
+            }
+            x.RotateLeft(distance, false, false);
+            AssertSame("rol " + distance, xs, x, true, false);
+        }
+
+        for (int distance : DISTANCES) {
+            BigIntVector left = Fill(length, size, mode);
+            BigIntVector right = Fill(length, size, mode);
+            BigInt[] lefts = Scalars(left);
+            BigInt[] rights = Scalars(right);
+
+            for (int i = 0; i < length; i++) {
+                lefts[i].LeftShift(distance, 0);
+                rights[i].RightShift(distance, true, 0);
+            }
+            left.LeftShift(distance);
+            right.RightShift(distance, true);
+            AssertSame("shl " + distance, lefts, left, true, false);
+            AssertSame("asr " + distance, rights, right, true, false);
+
+            right = Fill(length, size, mode);
+            rights = Scalars(right);
+            for (int i = 0; i < length; i++) {
+                rights[i].RightShift(distance, false, 0);
+            }
+            right.RightShift(distance, false);
+            AssertSame("shr " + distance, rights, right, true, false);
+        }
+
+        for (int i = 0; i < length; i++) {
+            counts[i] = xs[i].bitCount();
+        }
+        assertArrayEquals("bitCount", counts, x.bitCount());
+    }
+
+    @Test
+    public void matchesScalarBigInt() {
+        for (BigInt.ArithMode mode : BigInt.ArithMode.values()) {
+            for (int size : SIZES) {
+                CheckAll(LENGTH, size, mode);
+            }
+        }
+    }
+
+    @Test
+    public void largeBatchMatchesScalarBigInt() {
+        CheckAll(1 << 16, 64, BigInt.ArithMode.TwosComplement);
+        CheckAll(1 << 16, 16, BigInt.ArithMode.OnesComplement);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedSizesAreRejected() {
+        BigIntVector x = new BigIntVector(4, 32, BigInt.ArithMode.Unsigned);
+        BigIntVector y = new BigIntVector(4, 33, BigInt.ArithMode.Unsigned);
+
+        x.Add(y);
+    }
+}
@@ -0,0 +1,189 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Drives the engine headless, the way the app does from its keyboard, and
+// checks that the configuration comes from the CalcConfig it's given.
+public class CalculatorTest {
+
+    // Press the keys given as Calculator.k names, with the hex digits and
+    // the "f" and "g" prefix keys abbreviated
+    private static DisplayPacket Press(CalcEngine c, String keys) {
+        DisplayPacket ans = null;
+
+        for (String key : keys.trim().split("\\s+")) {
+            Calculator.k code;
+            if (key.equals("f")) {
+                code = Calculator.k.KeyFKey;
+            } else if (key.equals("g")) {
+                code = Calculator.k.KeyGKey;
+            } else if (key.length() == 1
+                    && Character.digit(key.charAt(0), 16) >= 0) {
+                code = Calculator.k.toK(Character.digit(key.charAt(0), 16));
+            } else {
+                code = Calculator.k.valueOf(key);
+            }
+            ans = c.ProcessKey(code.index());
+        }
+        return ans;
+    }
+
+    private static long X(CalcEngine c) {
+        return c.getState().getStack().getX().getBiVal().ToLong();
+    }
+
+    @Test
+    public void integerArithmetic() {
+        CalcEngine c = new Calculator(new CalcState());
+
+        Press(c, "KeyHEX 1 F KeyEnt 2 KeyMul");
+        assertEquals(0x3e, X(c));
+        Press(c, "7 KeyMin 3 KeyDiv");
+        assertEquals(0x12, X(c));
+        Press(c, "KeyDEC 1 0 0 KeyAdd");
+        assertEquals(118, X(c));
+    }
+
+    // The keystroke state (prefix keys and the like) used to be static, so
+    // a half finished key sequence in one engine leaked into the others
+    @Test
+    public void enginesAreIndependent() {
+        CalcEngine a = new Calculator(new CalcState());
+        CalcEngine b = new Calculator(new CalcState());
+
+        Press(a, "KeyHEX 5 KeyEnt f");
+        Press(b, "KeyHEX 9 KeyEnt 3 KeyMin");
+        assertEquals(6, X(b));
+        // the f prefix is still waiting in a, so this is SHOW HEX and
+        // not a plain HEX key
+        assertTrue(Press(a, "KeyHEX").getDelay() > 0);
+        assertEquals(5, X(a));
+    }
+
+    @Test
+    public void configurationIsInjected() {
+        Properties prop = new Properties();
+        prop.setProperty("NumRegisters", "4");
+        prop.setProperty("PrgmMemoryLines", "10");
+        prop.setProperty("SleepDelay", "20");
+        CalcEngine c = new Calculator(new CalcState(new CalcConfig(prop)));
+
+        DisplayPacket p = Press(c, "f 0");
+        assertEquals("P-010 R-004", p.getAlternateText());
+        assertEquals(20, p.getDelay());
+
+        Press(c, "KeyHEX 7 KeySTO 3");
+        assertEquals(7, c.getState().getReg(3).getBiVal().ToLong());
+        assertEquals("Error 3 - Improper Register Number",
+                Press(c, "KeySTO 4").getAlternateText());
+
+        // changes to the settings are picked up straight away
+        prop.setProperty("NumRegisters", "8");
+        assertEquals("P-010 R-008", Press(c, "f 0").getAlternateText());
+    }
+
+    // Program lines are made from the codes of the keys themselves
+    @Test
+    public void programLinesUseTheKeyCodes() {
+        CalcEngine c = new Calculator(new CalcState());
+
+        Press(c, "KeyHEX g KeyRS B f KeyA g KeyDiv KeyAdd KeySTO 3 g KeyRS");
+        assertEquals("       B", c.getState().getPrgmMemory().get(0));
+        assertEquals("   42  A    'f SL", c.getState().getPrgmMemory().get(1));
+        assertEquals("   43 10    'g DBL/", c.getState().getPrgmMemory()
+                .get(2));
+        assertEquals("      40    '+", c.getState().getPrgmMemory().get(3));
+        assertEquals("   44  3    'STO 3", c.getState().getPrgmMemory().get(4));
+    }
+
+    // The float values used to be compared as objects, so X=Y was never
+    // true (and X<>Y always was)
+    @Test
+    public void floatComparisons() {
+        CalcEngine c = new Calculator(new CalcState());
+
+        Press(c, "f KeyRCL 2 5 KeyEnt");
+        Press(c, "g KeyCHS");
+        assertEquals(0, c.getState().getPrgmPosition());
+        Press(c, "g 0");
+        assertEquals(1, c.getState().getPrgmPosition());
+    }
+
+    // The double length value Y:Z is worked out in the current arithmetic
+    // mode, and not always in 2's complement
+    @Test
+    public void doubleDivisionHonoursTheArithMode() {
+        CalcEngine c = new Calculator(new CalcState());
+
+        Press(c, "KeyDEC 8 f KeySTO f 3");
+        Press(c, "2 1 4 KeyEnt 1 8 5 KeyEnt 1 4 g 9");
+        assertEquals(2, X(c));
+        Press(c, "2 3 1 KeyEnt 9 2 KeyEnt 1 1 8 g KeyDiv");
+        assertEquals(0xc9, X(c));
+
+        Press(c, "f 1 9 8 KeyEnt 1 3 KeyCHS KeyEnt 8 7 g KeyDiv");
+        assertEquals(0xd7, X(c) & 0xff);
+        Press(c, "9 8 KeyEnt 1 3 KeyCHS KeyEnt 8 7 g 9");
+        assertEquals(0xfa, X(c) & 0xff);
+    }
+
+    // In 1's complement, -0 (every bit set) is zero, and dividing by it is
+    // Error 0 like dividing by 0
+    @Test
+    public void divideByMinusZeroIsAnError() {
+        String[] divides = { "KeyDiv", "f 9", "g KeyDiv", "g 9" };
+
+        for (String divide : divides) {
+            CalcEngine c = new Calculator(new CalcState());
+
+            Press(c, "KeyHEX f 1 3 KeyEnt 5 KeyEnt F F F F");
+            assertEquals(divide, "Error 0 - Improper Math Operation",
+                    Press(c, divide).getAlternateText());
+        }
+    }
+
+    // Without SyncConversions, going to Float mode makes X = Y * 2^X
+    // (page 57). 0 * 2^X is 0 however big X is (it used to come out as NaN,
+    // from 0 * infinity).
+    private static double ToFloat(String y, String x) {
+        Properties prop = new Properties();
+        prop.setProperty("SyncConversions", "false");
+        CalcEngine c = new Calculator(new CalcState(new CalcConfig(prop)));
+
+        Press(c, "KeyDEC " + y + " KeyEnt " + x + " f KeyRCL 4");
+        return c.getState().getStack().getX().getFVal();
+    }
+
+    @Test
+    public void floatConversionScalesY() {
+        assertEquals(48.0, ToFloat("3", "4"), 0.0);
+        assertEquals(0.0625, ToFloat("1", "4 KeyCHS"), 0.0);
+        assertEquals(0.0, ToFloat("0", "3 2 7 6 7"), 0.0);
+        assertEquals(0.0, ToFloat("0", "3 2 7 6 7 KeyCHS"), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, ToFloat("1", "3 2 7 6 7"), 0.0);
+    }
+
+    @Test
+    public void serializeRoundTrip() throws Exception {
+        CalcState state = new CalcState();
+        CalcEngine c = new Calculator(state);
+
+        Press(c, "KeyHEX 1 2 KeySTO 5 3 KeyEnt 4");
+        state.getPrgmMemory().add("   001-      43,22, A");
+        String xml = state.Serialize();
+
+        CalcState copy = new CalcState();
+        copy.Deserialize(xml);
+        assertEquals(xml.replaceAll("saved=\"[^\"]*\"", ""), copy.Serialize()
+                .replaceAll("saved=\"[^\"]*\"", ""));
+        assertEquals(CalcState.CalcOpMode.Hex, copy.getOpMode());
+        assertEquals(0x12, copy.getReg(5).getBiVal().ToLong());
+        assertEquals(4, copy.getStack().getX().getBiVal().ToLong());
+        assertEquals("   001-      43,22, A", copy.getPrgmMemory().get(0));
+    }
+}
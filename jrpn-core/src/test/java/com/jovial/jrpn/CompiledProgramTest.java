@@ -0,0 +1,99 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+// Checks that the compiled program matches the program lines it came from,
+// and that it's rebuilt whenever (and only when) the program changes.
+public class CompiledProgramTest {
+
+    private static void Press(CalcEngine c, int... keys) {
+        for (int key : keys) {
+            c.ProcessKey(key);
+        }
+    }
+
+    // Record "LBL A, 1, +, STO 3" in program mode
+    private static CalcState Recorded() {
+        CalcState state = new CalcState();
+        CalcEngine c = new Calculator(state);
+
+        Press(c, Calculator.k.KeyHEX.index(), Calculator.k.FnPR.index(),
+                Calculator.k.FnLBL.index(), 0xa, 1,
+                Calculator.k.KeyAdd.index(), Calculator.k.KeySTO.index(), 3,
+                Calculator.k.FnPR.index());
+        return state;
+    }
+
+    @Test
+    public void linesDecodeToTheirKeys() {
+        CompiledProgram prgm = Recorded().getCompiledProgram();
+
+        assertEquals(4, prgm.size());
+        assertEquals(3, prgm.getKeyCount(0));
+        assertEquals(0x43, prgm.getKey(0, 0));
+        assertEquals(0x22, prgm.getKey(0, 1));
+        assertEquals(0xa, prgm.getKey(0, 2));
+        assertEquals(1, prgm.getKeyCount(1));
+        assertEquals(1, prgm.getKey(1, 0));
+        assertEquals(1, prgm.getKeyCount(2));
+        assertEquals(Calculator.k.KeyAdd.index(), prgm.getKey(2, 0));
+        assertEquals(2, prgm.getKeyCount(3));
+        assertEquals(Calculator.k.KeySTO.index(), prgm.getKey(3, 0));
+        assertEquals(3, prgm.getKey(3, 1));
+    }
+
+    @Test
+    public void runningLinesMatchesTyping() {
+        CalcState state = Recorded();
+        CalcEngine c = new Calculator(state);
+        CompiledProgram prgm = state.getCompiledProgram();
+
+        Press(c, 5, Calculator.k.KeyEnt.index());
+        for (int line = 0; line < prgm.size(); line++) {
+            assertTrue(prgm.isValid(line));
+            prgm.Execute(c, line);
+        }
+        assertEquals(6, state.getStack().getX().getBiVal().ToLong());
+        assertEquals(6, state.getReg(3).getBiVal().ToLong());
+    }
+
+    @Test
+    public void editsRebuildTheProgram() {
+        CalcState state = Recorded();
+        List<String> memory = state.getPrgmMemory();
+        CompiledProgram prgm = state.getCompiledProgram();
+
+        assertSame(prgm, state.getCompiledProgram());
+
+        memory.remove(1);
+        assertNotSame(prgm, state.getCompiledProgram());
+        prgm = state.getCompiledProgram();
+        assertEquals(3, prgm.size());
+        assertEquals(Calculator.k.KeyAdd.index(), prgm.getKey(1, 0));
+
+        // replacing a line doesn't change the size, but still counts
+        memory.set(1, "       7");
+        assertNotSame(prgm, state.getCompiledProgram());
+        assertEquals(7, state.getCompiledProgram().getKey(1, 0));
+    }
+
+    @Test
+    public void badLinesAreReported() {
+        CalcState state = Recorded();
+
+        state.getPrgmMemory().add(1, "   4x  3");
+        CompiledProgram prgm = state.getCompiledProgram();
+        assertFalse(prgm.isValid(1));
+        assertTrue(prgm.getError(1).contains("4x"));
+        assertTrue(prgm.isValid(2));
+        assertFalse(prgm.isValid(prgm.size()));
+    }
+}
@@ -0,0 +1,228 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Runs small programs headless, start to finish and a few lines at a time,
+// at each of the speeds.
+public class ProgramExecutorTest {
+
+    private static void Press(CalcEngine c, int... keys) {
+        for (int key : keys) {
+            c.ProcessKey(key);
+        }
+    }
+
+    // Keeps everything that's sent to the display
+    private static class Recorder implements ProgramExecutor.Listener {
+        List<String> shown = new ArrayList<String>();
+        List<Integer> bad = new ArrayList<Integer>();
+
+        public void Show(String text) {
+            shown.add(text);
+        }
+
+        public void BadLine(int line, String message) {
+            bad.add(line);
+        }
+    }
+
+    // Adds 1 to X, I times:
+    //   LBL A, 1, +, DSZ, GTO A, RTN
+    private static CalcEngine CountingLoop(int times) {
+        CalcEngine c = new Calculator(new CalcState());
+
+        Press(c, Calculator.k.KeyHEX.index(), Calculator.k.FnPR.index(),
+                Calculator.k.FnLBL.index(), 0xa, 1,
+                Calculator.k.KeyAdd.index(), Calculator.k.FnDSZ.index(),
+                Calculator.k.KeyGTO.index(), 0xa, Calculator.k.FnRTN.index(),
+                Calculator.k.FnPR.index());
+        Press(c, times >> 4, times & 0xf, Calculator.k.KeySTO.index(),
+                Calculator.k.KeySST.index(), 0);
+        return c;
+    }
+
+    @Test
+    public void runsToCompletion() {
+        CalcEngine c = CountingLoop(0x20);
+        ProgramExecutor executor = new ProgramExecutor(c);
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        Press(c, Calculator.k.KeyGSB.index(), 0xa);
+        assertTrue(c.getState().isPrgmRunning());
+
+        assertEquals(ProgramExecutor.Stop.Stopped, executor.Run());
+        assertEquals(0x20, executor.getStack()[3].getBiVal().ToLong());
+        // the LBL, then 4 lines per trip round the loop (GTO A goes to the
+        // LBL, and carries on from the line after it), except that the last
+        // trip skips the GTO and runs the RTN instead
+        assertEquals(1 + 0x20 * 4, executor.getSteps());
+        assertFalse(c.getState().isPrgmRunning());
+        assertTrue(display.shown.isEmpty());
+    }
+
+    @Test
+    public void runsAFewLinesAtATime() {
+        CalcEngine c = CountingLoop(3);
+        ProgramExecutor executor = new ProgramExecutor(c);
+
+        Press(c, Calculator.k.KeyGSB.index(), 0xa);
+        assertEquals(ProgramExecutor.Stop.StepLimit, executor.Run(4));
+        assertEquals(1, executor.getStack()[3].getBiVal().ToLong());
+        assertEquals(4, c.getState().getPrgmPosition());
+        assertTrue(c.getState().isPrgmRunning());
+
+        assertEquals(ProgramExecutor.Stop.StepLimit, executor.Run(5));
+        assertEquals(2, executor.getStack()[3].getBiVal().ToLong());
+        assertEquals(ProgramExecutor.Stop.Stopped, executor.Run());
+        assertEquals(3, executor.getStack()[3].getBiVal().ToLong());
+        assertEquals(13, executor.getSteps());
+    }
+
+    @Test
+    public void displayIsSampled() {
+        CalcEngine c = CountingLoop(0x10);
+        ProgramExecutor executor = new ProgramExecutor(c);
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        executor.setDisplayInterval(10);
+        Press(c, Calculator.k.KeyGSB.index(), 0xa);
+        executor.Run();
+        // every 10th line: the 1 that's about to be added, or the count
+        // just after DSZ
+        String[] expected = { "0001 h", "0005 h", "0001 h", "000A h",
+                "0001 h", "000F h" };
+        assertEquals(expected.length, display.shown.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], display.shown.get(i).trim());
+        }
+    }
+
+    // 7, PSE, 8, PSE: runs off the end of the program
+    private static CalcEngine Pauses(int sleep_delay) {
+        Properties prop = new Properties();
+        prop.setProperty("SleepDelay", Integer.toString(sleep_delay));
+        CalcEngine c = new Calculator(new CalcState(new CalcConfig(prop)));
+
+        Press(c, Calculator.k.KeyHEX.index(), Calculator.k.FnPR.index(), 7,
+                Calculator.k.FnPSE.index(), 8, Calculator.k.FnPSE.index(),
+                Calculator.k.FnPR.index());
+        c.getState().setPrgmPosition(0);
+        c.getState().setPrgmRunning(true);
+        return c;
+    }
+
+    @Test
+    public void faithfulWaitsOutEveryPause() {
+        ProgramExecutor executor = new ProgramExecutor(Pauses(50));
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        assertEquals(ProgramExecutor.SpeedProfile.Faithful,
+                executor.getSpeed());
+        long start = System.currentTimeMillis();
+        assertEquals(ProgramExecutor.Stop.End, executor.Run());
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        assertEquals(2, display.shown.size());
+        assertEquals("0007 h", display.shown.get(0).trim());
+        assertEquals("0008 h", display.shown.get(1).trim());
+        assertEquals(0, executor.getSkippedCount());
+        assertTrue(executor.getSkippedPauses().isEmpty());
+    }
+
+    @Test
+    public void fastCutsPausesShort() {
+        ProgramExecutor executor = new ProgramExecutor(Pauses(200));
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        executor.setSpeed(ProgramExecutor.SpeedProfile.Fast);
+        long start = System.currentTimeMillis();
+        executor.Run();
+        assertTrue(System.currentTimeMillis() - start < 400);
+        assertEquals(2, display.shown.size());
+        assertEquals(2, executor.getSkippedCount());
+        assertEquals(2 * (200 - 200 / ProgramExecutor.FAST_DIVISOR),
+                executor.getSkippedTime());
+
+        ProgramExecutor.SkippedPause pause = executor.getSkippedPauses().get(1);
+        assertEquals(3, pause.getLine());
+        assertEquals(4, pause.getStep());
+        assertEquals("0008 h", pause.getText().trim());
+        assertEquals(200, pause.getDelay());
+        assertEquals(200 / ProgramExecutor.FAST_DIVISOR, pause.getWaited());
+    }
+
+    @Test
+    public void turboOnlyShowsTheLastPause() {
+        CalcEngine c = Pauses(CalcConfig.DEFAULT_SLEEP_DELAY);
+        ProgramExecutor executor = new ProgramExecutor(c);
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        executor.setSpeed(ProgramExecutor.SpeedProfile.Turbo);
+        long start = System.currentTimeMillis();
+        assertEquals(ProgramExecutor.Stop.End, executor.Run());
+        assertTrue(System.currentTimeMillis() - start
+                < CalcConfig.DEFAULT_SLEEP_DELAY);
+        assertEquals(1, display.shown.size());
+        assertEquals("0008 h", display.shown.get(0).trim());
+        assertFalse(c.getState().isPrgmRunning());
+
+        List<ProgramExecutor.SkippedPause> pauses = executor
+                .getSkippedPauses();
+        assertEquals(2, pauses.size());
+        assertEquals("0007 h", pauses.get(0).getText().trim());
+        assertEquals(0, pauses.get(0).getWaited());
+        assertEquals(2 * CalcConfig.DEFAULT_SLEEP_DELAY,
+                executor.getSkippedTime());
+
+        executor.ClearSkippedPauses();
+        assertEquals(0, executor.getSkippedCount());
+        assertTrue(executor.getSkippedPauses().isEmpty());
+    }
+
+    // Only the most recent pauses are kept, but they're all counted
+    @Test
+    public void skippedPausesAreBounded() {
+        CalcEngine c = Pauses(10);
+        ProgramExecutor executor = new ProgramExecutor(c);
+        int runs = ProgramExecutor.MAX_RECORDED_PAUSES;
+
+        executor.setSpeed(ProgramExecutor.SpeedProfile.Turbo);
+        for (int i = 0; i < runs; i++) {
+            c.getState().setPrgmPosition(0);
+            c.getState().setPrgmRunning(true);
+            executor.Run();
+        }
+        assertEquals(2L * runs, executor.getSkippedCount());
+        assertEquals(ProgramExecutor.MAX_RECORDED_PAUSES,
+                executor.getSkippedPauses().size());
+        assertEquals(4L * runs, executor.getSkippedPauses()
+                .get(ProgramExecutor.MAX_RECORDED_PAUSES - 1).getStep());
+    }
+
+    @Test
+    public void badLinesStopTheProgram() {
+        CalcEngine c = CountingLoop(2);
+        ProgramExecutor executor = new ProgramExecutor(c);
+        Recorder display = new Recorder();
+
+        executor.setListener(display);
+        c.getState().getPrgmMemory().set(2, "   zz  1");
+        Press(c, Calculator.k.KeyGSB.index(), 0xa);
+        assertEquals(ProgramExecutor.Stop.Error, executor.Run());
+        assertEquals(1, display.bad.size());
+        assertEquals(2, (int) display.bad.get(0));
+        assertEquals(2, c.getState().getPrgmPosition());
+    }
+}
@@ -0,0 +1,98 @@
+package com.jovial.jrpn;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+// Checks the label index against the straightforward search that GTO and
+// GSB used to do, while the program is edited at random.
+public class ProgramMemoryTest {
+
+    private final Random random = new Random(22);
+
+    // The old linear search, wrap around and all
+    private static int Scan(List<String> memory, int start, int label) {
+        String instruction = "43,22, " + String.format("%1$X", label);
+
+        if (start < 0 || start > memory.size() || memory.size() == 0) {
+            return -1;
+        }
+        for (int i = start; i < memory.size(); i++) {
+            if (memory.get(i).startsWith(instruction)) {
+                return i;
+            }
+        }
+        for (int i = 0; i < start; i++) {
+            if (memory.get(i).startsWith(instruction)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Mostly ordinary lines, with a few labels (some of them repeated)
+    private String RandomLine() {
+        switch (random.nextInt(5)) {
+        case 0:
+            return String.format("%1$2X,%2$2X,%3$2X    'g LBL %3$X", 0x43,
+                    0x22, random.nextInt(4));
+        case 1:
+            return String.format("%1$5X%2$3X    'GTO %2$X", 0x22,
+                    random.nextInt(16));
+        default:
+            return String.format("%1$8X    '%1$X", random.nextInt(16));
+        }
+    }
+
+    private static void CheckAll(ProgramMemory memory) {
+        for (int label = -1; label <= 17; label++) {
+            for (int start = -1; start <= memory.size() + 1; start++) {
+                assertEquals("label " + label + " from " + start,
+                        Scan(memory, start, label),
+                        memory.FindLabel(start, label));
+            }
+        }
+    }
+
+    @Test
+    public void matchesLinearSearchWhileEditing() {
+        ProgramMemory memory = new ProgramMemory();
+
+        CheckAll(memory);
+        for (int i = 0; i < 2000; i++) {
+            int choice = random.nextInt(10);
+            if (memory.isEmpty() || choice < 5) {
+                memory.add(random.nextInt(memory.size() + 1), RandomLine());
+            } else if (choice < 8) {
+                memory.remove(random.nextInt(memory.size()));
+            } else if (choice < 9) {
+                memory.set(random.nextInt(memory.size()), RandomLine());
+            } else {
+                memory.add(RandomLine());
+            }
+            if (memory.size() > 60) {
+                memory.subList(0, 20).clear();
+            }
+            CheckAll(memory);
+        }
+    }
+
+    @Test
+    public void bulkChangesRebuildTheIndex() {
+        ProgramMemory memory = new ProgramMemory();
+
+        for (int i = 0; i < 30; i++) {
+            memory.add(RandomLine());
+        }
+        CheckAll(memory);
+        memory.removeAll(memory.subList(0, 5));
+        CheckAll(memory);
+        memory.addAll(3, memory.subList(10, 20));
+        CheckAll(memory);
+        memory.clear();
+        CheckAll(memory);
+    }
+}